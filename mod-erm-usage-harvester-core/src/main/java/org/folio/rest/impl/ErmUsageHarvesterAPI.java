@@ -2,23 +2,17 @@ package org.folio.rest.impl;
 
 import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
-import static io.vertx.core.http.HttpMethod.POST;
 import static org.folio.okapi.common.XOkapiHeaders.TENANT;
 import static org.folio.okapi.common.XOkapiHeaders.TOKEN;
 import static org.olf.erm.usage.harvester.client.ExtConfigurationsClientImpl.NO_ENTRY;
-import static org.olf.erm.usage.harvester.periodic.JobInfoUtil.upsertJobInfo;
-import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.PERIODIC_JOB_KEY;
 
 import com.google.common.base.Strings;
 import io.vertx.core.AsyncResult;
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import io.vertx.ext.web.client.HttpResponse;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
@@ -26,23 +20,27 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.function.UnaryOperator;
 import javax.ws.rs.core.Response;
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.FieldException;
 import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.jaxrs.model.HarvestProgress;
+import org.folio.rest.jaxrs.model.HarvestProgresses;
 import org.folio.rest.jaxrs.model.JobInfo;
-import org.folio.rest.jaxrs.model.JobInfo.Result;
 import org.folio.rest.jaxrs.model.JobInfos;
+import org.folio.rest.jaxrs.model.RetryBackoffs;
 import org.folio.rest.jaxrs.resource.ErmUsageHarvester;
 import org.folio.rest.persist.Criteria.Criteria;
 import org.folio.rest.persist.Criteria.Criterion;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.cql.CQLWrapper;
 import org.olf.erm.usage.harvester.ClockProvider;
-import org.olf.erm.usage.harvester.Messages;
+import org.olf.erm.usage.harvester.JobInfoPgUtil;
+import org.olf.erm.usage.harvester.ProgressRegistry;
+import org.olf.erm.usage.harvester.RetryBackoffPgUtil;
+import org.olf.erm.usage.harvester.client.CachingConfigurationsClient;
+import org.olf.erm.usage.harvester.client.ExtConfigurationsClient;
 import org.olf.erm.usage.harvester.client.ExtConfigurationsClientImpl;
-import org.olf.erm.usage.harvester.client.OkapiClientImpl;
 import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
 import org.olf.erm.usage.harvester.endpoints.ServiceEndpointProvider;
 import org.olf.erm.usage.harvester.periodic.SchedulingUtil;
@@ -58,21 +56,6 @@ public class ErmUsageHarvesterAPI implements ErmUsageHarvester {
   public static final String STALE_JOB_ERROR_MSG = "Stale job";
   public static final String MESSAGE_NO_TOKEN = "No token provided";
 
-  private static final Criteria finishedCriteria =
-      new Criteria().addField("'finishedAt'").setJSONB(true).setOperation("IS NOT NULL");
-  private static final Criteria notFinishedCritera =
-      new Criteria().addField("'finishedAt'").setJSONB(true).setOperation("IS NULL");
-  private static final Criteria notPeriodicJobTypeCriteria =
-      new Criteria().setJSONB(true).addField("'type'").setOperation("!=").setVal(PERIODIC_JOB_KEY);
-  private final UnaryOperator<HttpResponse<Buffer>> throwIfStatusCodeNot204 =
-      resp -> {
-        if (resp.statusCode() != 204) {
-          throw new UnexpectedStatusCodeException(
-              String.format(Messages.ERR_MSG_STATUS, resp.statusCode(), resp.statusMessage()));
-        }
-        return resp;
-      };
-
   public static final String CONFIG_MODULE = "ERM-USAGE-HARVESTER";
   public static final String CONFIG_NAME = "daysToKeepLogs";
   public static final int DEFAULT_DAYS_TO_KEEP_LOGS = 60;
@@ -195,6 +178,7 @@ public class ErmUsageHarvesterAPI implements ErmUsageHarvester {
   public void getErmUsageHarvesterJobs(
       Number timestamp,
       String providerId,
+      String cursor,
       String query,
       int offset,
       int limit,
@@ -210,6 +194,30 @@ public class ErmUsageHarvesterAPI implements ErmUsageHarvester {
           succeededFuture(GetErmUsageHarvesterJobsResponse.respond500WithTextPlain(e)));
       return;
     }
+    if (cursor != null) {
+      CQLWrapper countQuery =
+          new CQLWrapper(cql2PgJSON, query, 0, 0)
+              .addWrapper(new CQLWrapper(new Criterion(createTimestampCriteria(timestamp))))
+              .addWrapper(new CQLWrapper(new Criterion(createProviderIdCriteria(providerId))));
+      JobInfoPgUtil.getJobInfos(
+              vertxContext.owner(),
+              okapiHeaders.get(TENANT),
+              countQuery,
+              timestamp == null ? null : timestamp.longValue(),
+              providerId,
+              query,
+              cursor,
+              limit)
+          .<Response>map(GetErmUsageHarvesterJobsResponse::respond200WithApplicationJson)
+          .otherwise(
+              t ->
+                  (t instanceof IllegalArgumentException)
+                      ? GetErmUsageHarvesterJobsResponse.respond400WithTextPlain(t.getMessage())
+                      : GetErmUsageHarvesterJobsResponse.respond500WithTextPlain(t.getMessage()))
+          .onComplete(asyncResultHandler);
+      return;
+    }
+
     CQLWrapper cql =
         new CQLWrapper(cql2PgJSON, query, limit, offset)
             .addWrapper(new CQLWrapper(new Criterion(createTimestampCriteria(timestamp))))
@@ -232,55 +240,77 @@ public class ErmUsageHarvesterAPI implements ErmUsageHarvester {
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .delete(
-            TABLE_NAME_JOBS,
-            new Criterion(createTimestampCriteria(timestamp)).addCriterion(finishedCriteria))
-        .<Response>map(PostErmUsageHarvesterJobsPurgefinishedResponse.respond204())
+    purgeFinishedJobs(vertxContext, okapiHeaders.get(TENANT), timestamp)
+        .<Response>map(count -> PostErmUsageHarvesterJobsPurgefinishedResponse.respond204())
         .otherwise(PostErmUsageHarvesterJobsPurgefinishedResponse::respond500WithTextPlain)
         .onComplete(asyncResultHandler);
   }
 
   @Override
-  @SuppressWarnings("rawtypes")
   public void postErmUsageHarvesterJobsPurgestale(
       Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
-    String tenantId = okapiHeaders.get(TENANT);
-    long minus60Minutes = getCurrentTimestampMinus(60, ChronoUnit.MINUTES);
-    PgUtil.postgresClient(vertxContext, okapiHeaders)
-        .get(
-            TABLE_NAME_JOBS,
-            JobInfo.class,
-            new Criterion()
-                .addCriterion(createTimestampCriteria(minus60Minutes))
-                .addCriterion(notPeriodicJobTypeCriteria)
-                .addCriterion(notFinishedCritera))
-        .flatMap(
-            res -> {
-              List<Future> upserts =
-                  res.getResults().stream()
-                      .<Future>map(
-                          ji ->
-                              upsertJobInfo(
-                                  ji.withFinishedAt(
-                                          Date.from(Instant.now(ClockProvider.getClock())))
-                                      .withResult(Result.FAILURE)
-                                      .withErrorMessage(STALE_JOB_ERROR_MSG),
-                                  tenantId))
-                      .toList();
-              return CompositeFuture.join(upserts);
-            })
-        .<Response>map(cf -> PostErmUsageHarvesterJobsPurgestaleResponse.respond204())
+    purgeStaleJobs(vertxContext, okapiHeaders.get(TENANT))
+        .<Response>map(count -> PostErmUsageHarvesterJobsPurgestaleResponse.respond204())
         .otherwise(PostErmUsageHarvesterJobsPurgestaleResponse::respond500WithTextPlain)
         .onComplete(asyncResultHandler);
   }
 
+  private Future<Integer> purgeStaleJobs(Context vertxContext, String tenantId) {
+    long minus60Minutes = getCurrentTimestampMinus(60, ChronoUnit.MINUTES);
+    return JobInfoPgUtil.failUnfinishedJobInfos(
+            vertxContext.owner(),
+            tenantId,
+            minus60Minutes,
+            Date.from(Instant.now(ClockProvider.getClock())),
+            STALE_JOB_ERROR_MSG)
+        .onSuccess(
+            count -> {
+              if (count > 0) {
+                log.info("Tenant: {}, marked {} stale jobs as failed", tenantId, count);
+              }
+            });
+  }
+
+  private Future<Integer> purgeFinishedJobs(
+      Context vertxContext, String tenantId, Number timestamp) {
+    return JobInfoPgUtil.deleteFinishedJobInfos(
+            vertxContext.owner(), tenantId, timestamp == null ? null : timestamp.longValue())
+        .onSuccess(
+            count -> {
+              if (count > 0) {
+                log.info("Tenant: {}, purged {} finished jobs", tenantId, count);
+              }
+            });
+  }
+
   private long getCurrentTimestampMinus(long amountToSubstract, TemporalUnit unit) {
     return Instant.now(ClockProvider.getClock()).minus(amountToSubstract, unit).toEpochMilli();
   }
 
+  private Future<Integer> getDaysToKeepLogs(ExtConfigurationsClient configurationsClient) {
+    return configurationsClient
+        .getModConfigurationValue(CONFIG_MODULE, CONFIG_NAME)
+        .transform(
+            ar -> {
+              if (ar.succeeded()) {
+                int days = Integer.parseInt(ar.result());
+                if (days < 0) {
+                  return failedFuture("Received invalid configuration value");
+                } else {
+                  return succeededFuture(days);
+                }
+              } else {
+                if (NO_ENTRY.equals(ar.cause().getMessage())) {
+                  return succeededFuture(DEFAULT_DAYS_TO_KEEP_LOGS);
+                } else {
+                  return failedFuture("Failed getting configuration value");
+                }
+              }
+            });
+  }
+
   @Override
   public void postErmUsageHarvesterJobsCleanup(
       Map<String, String> okapiHeaders,
@@ -289,58 +319,68 @@ public class ErmUsageHarvesterAPI implements ErmUsageHarvester {
     String okapiUrl = vertxContext.config().getString("okapiUrl");
     String tenantId = okapiHeaders.get(TENANT);
     String token = okapiHeaders.get(TOKEN);
-    OkapiClientImpl okapiClient = new OkapiClientImpl(okapiUrl);
-    ExtConfigurationsClientImpl configurationsClient =
-        new ExtConfigurationsClientImpl(okapiUrl, tenantId, token);
+    ExtConfigurationsClient configurationsClient =
+        new CachingConfigurationsClient(
+            tenantId, new ExtConfigurationsClientImpl(okapiUrl, tenantId, token));
 
-    okapiClient
-        .sendRequest(POST, "/erm-usage-harvester/jobs/purgestale", tenantId, token)
-        .map(throwIfStatusCodeNot204)
+    purgeStaleJobs(vertxContext, tenantId)
+        .onFailure(t -> log.error("Error during cleanup: {}", t.toString()))
+        .transform(ar -> getDaysToKeepLogs(configurationsClient))
+        .map(i -> getCurrentTimestampMinus(i, ChronoUnit.DAYS))
+        .compose(timestamp -> purgeFinishedJobs(vertxContext, tenantId, timestamp))
         .onFailure(t -> log.error("Error during cleanup: {}", t.toString()))
         .onComplete(
             ar ->
-                configurationsClient
-                    .getModConfigurationValue(CONFIG_MODULE, CONFIG_NAME)
-                    .transform(
-                        ar2 -> {
-                          if (ar2.succeeded()) {
-                            int days = Integer.parseInt(ar2.result());
-                            if (days < 0) {
-                              return failedFuture("Received invalid configuration value");
-                            } else {
-                              return succeededFuture(days);
-                            }
-                          } else {
-                            if (NO_ENTRY.equals(ar2.cause().getMessage())) {
-                              return succeededFuture(DEFAULT_DAYS_TO_KEEP_LOGS);
-                            } else {
-                              return failedFuture("Failed getting configuration value");
-                            }
-                          }
-                        })
-                    .map(i -> getCurrentTimestampMinus(i, ChronoUnit.DAYS))
-                    .compose(
-                        timestamp ->
-                            okapiClient
-                                .sendRequest(
-                                    POST,
-                                    "/erm-usage-harvester/jobs/purgefinished?timestamp="
-                                        + timestamp,
-                                    tenantId,
-                                    token)
-                                .map(throwIfStatusCodeNot204))
-                    .onFailure(t -> log.error("Error during cleanup: {}", t.toString()))
-                    .onComplete(
-                        ar2 ->
-                            asyncResultHandler.handle(
-                                succeededFuture(
-                                    PostErmUsageHarvesterJobsCleanupResponse.respond204()))));
+                asyncResultHandler.handle(
+                    succeededFuture(PostErmUsageHarvesterJobsCleanupResponse.respond204())));
+  }
+
+  @Override
+  public void getErmUsageHarvesterBackoff(
+      String providerId,
+      int offset,
+      int limit,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    RetryBackoffPgUtil.getRetryBackoffs(
+            vertxContext.owner(), okapiHeaders.get(TENANT), providerId, offset, limit)
+        .map(
+            res ->
+                new RetryBackoffs()
+                    .withRetryBackoffs(res.getResults())
+                    .withTotalRecords(res.getResultInfo().getTotalRecords()))
+        .<Response>map(GetErmUsageHarvesterBackoffResponse::respond200WithApplicationJson)
+        .otherwise(GetErmUsageHarvesterBackoffResponse::respond500WithTextPlain)
+        .onComplete(asyncResultHandler);
   }
 
-  static class UnexpectedStatusCodeException extends RuntimeException {
+  @Override
+  public void deleteErmUsageHarvesterBackoff(
+      String providerId,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    RetryBackoffPgUtil.deleteRetryBackoffs(
+            vertxContext.owner(), okapiHeaders.get(TENANT), providerId)
+        .<Response>map(i -> DeleteErmUsageHarvesterBackoffResponse.respond204())
+        .otherwise(DeleteErmUsageHarvesterBackoffResponse::respond500WithTextPlain)
+        .onComplete(asyncResultHandler);
+  }
 
-    public UnexpectedStatusCodeException(String message) {
-      super(message);
-    }
+  @Override
+  public void getErmUsageHarvesterProgress(
+      String providerId,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+    List<HarvestProgress> progresses =
+        ProgressRegistry.get(okapiHeaders.get(TENANT), Strings.emptyToNull(providerId));
+    asyncResultHandler.handle(
+        succeededFuture(
+            GetErmUsageHarvesterProgressResponse.respond200WithApplicationJson(
+                new HarvestProgresses()
+                    .withHarvestProgresses(progresses)
+                    .withTotalRecords(progresses.size()))));
   }
 }
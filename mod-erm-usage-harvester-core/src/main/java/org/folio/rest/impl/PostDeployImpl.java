@@ -7,12 +7,18 @@ import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.client.WebClient;
 import java.util.List;
+import java.util.Optional;
 import org.folio.rest.jaxrs.model.PeriodicConfig;
 import org.folio.rest.resource.interfaces.PostDeployVerticle;
+import org.olf.erm.usage.harvester.MetricsServer;
+import org.olf.erm.usage.harvester.ProgressRegistry;
+import org.olf.erm.usage.harvester.client.ConfigurationCache;
 import org.olf.erm.usage.harvester.client.OkapiClientImpl;
+import org.olf.erm.usage.harvester.endpoints.ServiceEndpointProviders;
 import org.olf.erm.usage.harvester.periodic.HarvestProviderJobListener;
 import org.olf.erm.usage.harvester.periodic.JobInfoJobListener;
 import org.olf.erm.usage.harvester.periodic.JobInfoSchedulerListener;
+import org.olf.erm.usage.harvester.periodic.JobInfoWriteBuffer;
 import org.olf.erm.usage.harvester.periodic.PeriodicConfigPgUtil;
 import org.olf.erm.usage.harvester.periodic.SchedulingUtil;
 import org.quartz.Scheduler;
@@ -23,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 public class PostDeployImpl implements PostDeployVerticle {
 
+  public static final String WARM_UP_ENV_VAR = "SERVICE_ENDPOINT_WARM_UP";
   private static final Logger log = LoggerFactory.getLogger(PostDeployImpl.class);
 
   private void processTenants(Context vertxContext, List<String> tenantList) {
@@ -45,12 +52,31 @@ public class PostDeployImpl implements PostDeployVerticle {
 
   @Override
   public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> resultHandler) {
+    ProgressRegistry.register(vertx);
+    ConfigurationCache.register(vertx);
     if (Boolean.TRUE.equals(context.config().getBoolean("testing"))) {
       log.info("Skipping PostDeployImpl (testing==true)");
       resultHandler.handle(Future.succeededFuture(true));
       return;
     }
 
+    JobInfoWriteBuffer.getInstance().setVertx(vertx);
+    MetricsServer.getConfiguredPort()
+        .ifPresent(
+            port ->
+                MetricsServer.start(vertx, port)
+                    .onSuccess(server -> log.info("Serving metrics on port {}", port))
+                    .onFailure(t -> log.error("Error serving metrics: {}", t.getMessage())));
+    if (isWarmUpEnabled()) {
+      vertx
+          .executeBlocking(
+              () -> {
+                ServiceEndpointProviders.warmUp();
+                return null;
+              },
+              false)
+          .onFailure(t -> log.warn("Error warming up service endpoints: {}", t.getMessage()));
+    }
     try {
       Scheduler scheduler = StdSchedulerFactory.getDefaultScheduler();
       scheduler.getListenerManager().addJobListener(new JobInfoJobListener());
@@ -78,4 +104,10 @@ public class PostDeployImpl implements PostDeployVerticle {
 
     resultHandler.handle(Future.succeededFuture(true));
   }
+
+  private static boolean isWarmUpEnabled() {
+    return Optional.ofNullable(System.getenv(WARM_UP_ENV_VAR))
+        .map(Boolean::parseBoolean)
+        .orElse(true);
+  }
 }
@@ -0,0 +1,175 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caches the results of asynchronous loads for a fixed time.
+ *
+ * <p>Concurrent requests of a key that is not cached share a single load. Failed loads are only
+ * cached if they match the given predicate, otherwise the next request loads the key again. With a
+ * time to live of zero, only concurrent requests share a load and nothing is kept afterwards.
+ *
+ * <p>If a maximum weight is given, the loaded keys that expire first are removed when a load would
+ * exceed it. The weight of a key is determined by a weigher when it is loaded, failed loads are
+ * weighed as {@code null}. With a maximum size, each key weighs 1. Keys that are still loading are
+ * never removed.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class AsyncTtlCache<K, V> {
+
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final Duration ttl;
+  private final Predicate<Throwable> cacheFailure;
+  private final long maxWeight;
+  private final ToLongFunction<V> weigher;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param ttl time that a loaded value is cached
+   * @param cacheFailure whether a failed load is cached as well
+   * @param maxWeight maximum total weight of the loaded keys that are cached
+   * @param weigher returns the weight of a loaded value
+   */
+  public AsyncTtlCache(
+      Duration ttl, Predicate<Throwable> cacheFailure, long maxWeight, ToLongFunction<V> weigher) {
+    this.ttl = ttl;
+    this.cacheFailure = cacheFailure;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Creates a new cache.
+   *
+   * @param ttl time that a loaded value is cached
+   * @param cacheFailure whether a failed load is cached as well
+   * @param maxSize maximum number of loaded keys that are cached
+   */
+  public AsyncTtlCache(Duration ttl, Predicate<Throwable> cacheFailure, int maxSize) {
+    this(ttl, cacheFailure, maxSize, v -> 1);
+  }
+
+  public AsyncTtlCache(Duration ttl, Predicate<Throwable> cacheFailure) {
+    this(ttl, cacheFailure, Integer.MAX_VALUE);
+  }
+
+  public AsyncTtlCache(Duration ttl) {
+    this(ttl, t -> false);
+  }
+
+  /**
+   * Returns the cached value of a key, or loads it if it is not cached or expired.
+   *
+   * @param key key
+   * @param loader loads the value of the key
+   * @return the cached or loaded value
+   */
+  public Future<V> get(K key, Supplier<Future<V>> loader) {
+    Instant now = Instant.now(ClockProvider.getClock());
+    Promise<V> promise = Promise.promise();
+    Entry<V> entry =
+        entries.compute(
+            key, (k, e) -> (e == null || e.isExpired(now)) ? new Entry<>(promise.future()) : e);
+    if (entry.future == promise.future()) {
+      load(key, entry, loader).onComplete(promise);
+    }
+    return entry.future;
+  }
+
+  private Future<V> load(K key, Entry<V> entry, Supplier<Future<V>> loader) {
+    Future<V> future;
+    try {
+      future = loader.get();
+    } catch (Exception e) {
+      future = Future.failedFuture(e);
+    }
+    return future.onComplete(
+        ar -> {
+          boolean keep = !ttl.isZero() && (ar.succeeded() || cacheFailure.test(ar.cause()));
+          if (keep) {
+            entry.weight = weigher.applyAsLong(ar.succeeded() ? ar.result() : null);
+          }
+          // values that exceed the maximum weight on their own are not kept
+          if (keep && entry.weight <= maxWeight) {
+            entry.expiresAt = Instant.now(ClockProvider.getClock()).plus(ttl);
+            removeOverflow();
+          } else {
+            entries.remove(key, entry);
+          }
+        });
+  }
+
+  /** Removes the loaded keys that expire first, while their total weight exceeds maxWeight. */
+  private void removeOverflow() {
+    long weight =
+        entries.values().stream().filter(e -> e.expiresAt != null).mapToLong(e -> e.weight).sum();
+    if (weight <= maxWeight) {
+      return;
+    }
+    List<Map.Entry<K, Entry<V>>> loaded =
+        entries.entrySet().stream()
+            .filter(e -> e.getValue().expiresAt != null)
+            .sorted(Comparator.comparing(e -> e.getValue().expiresAt))
+            .toList();
+    for (int i = 0; i < loaded.size() && weight > maxWeight; i++) {
+      if (entries.remove(loaded.get(i).getKey(), loaded.get(i).getValue())) {
+        weight -= loaded.get(i).getValue().weight;
+      }
+    }
+  }
+
+  /** Removes a key. Requests of the key that are already loading still get the loaded value. */
+  public void invalidate(K key) {
+    entries.remove(key);
+  }
+
+  /** Removes all keys matching a predicate. */
+  public void invalidateIf(Predicate<K> predicate) {
+    entries.keySet().removeIf(predicate);
+  }
+
+  /** Removes all expired keys. Keys are otherwise only replaced when they are requested again. */
+  public void removeExpired() {
+    Instant now = Instant.now(ClockProvider.getClock());
+    entries.values().removeIf(e -> e.isExpired(now));
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  /** Returns the number of cached and loading keys, including expired ones. */
+  public int size() {
+    return entries.size();
+  }
+
+  private static class Entry<V> {
+
+    private final Future<V> future;
+    private volatile Instant expiresAt;
+    private volatile long weight;
+
+    Entry(Future<V> future) {
+      this.future = future;
+    }
+
+    /** Entries that are still loading do not expire. */
+    boolean isExpired(Instant now) {
+      Instant expiry = expiresAt;
+      return expiry != null && !now.isBefore(expiry);
+    }
+  }
+}
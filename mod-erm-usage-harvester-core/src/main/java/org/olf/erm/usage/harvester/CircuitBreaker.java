@@ -0,0 +1,127 @@
+package org.olf.erm.usage.harvester;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import org.folio.rest.jaxrs.model.CircuitOpenInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker of a single SUSHI host.
+ *
+ * <p>The circuit opens after {@code failureThreshold} consecutive transport failures. While it is
+ * open, requests are rejected. After {@code openDuration} a single probe request is permitted
+ * (half-open). If the probe succeeds the circuit is closed, otherwise it stays open for another
+ * {@code openDuration}.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+  private static final int MAX_INTERVALS = 100;
+  private final String host;
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final Deque<CircuitOpenInterval> intervals = new ArrayDeque<>();
+  private State state = State.CLOSED;
+  private int consecutiveFailures = 0;
+  private Instant nextProbeAt;
+
+  public CircuitBreaker(String host, int failureThreshold, Duration openDuration) {
+    this.host = host;
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * Checks if a request may be made. Transitions an open circuit to half-open if a probe is due.
+   *
+   * @param now current time
+   * @return true if the request may be made
+   */
+  public synchronized boolean tryAcquire(Instant now) {
+    if (state == State.CLOSED) {
+      return true;
+    }
+    if (state == State.OPEN && !now.isBefore(nextProbeAt)) {
+      log.info("Circuit of host {} is half-open, probing", host);
+      state = State.HALF_OPEN;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Gives back a permit of {@link #tryAcquire(Instant)} that was not used for a request to the
+   * host. A probe that was not made is permitted again.
+   */
+  public synchronized void release() {
+    if (state == State.HALF_OPEN) {
+      state = State.OPEN;
+    }
+  }
+
+  public synchronized void onSuccess(Instant now) {
+    consecutiveFailures = 0;
+    if (state != State.CLOSED) {
+      log.info("Closing circuit of host {}", host);
+      state = State.CLOSED;
+      CircuitOpenInterval interval = intervals.peekLast();
+      if (interval != null && interval.getClosedAt() == null) {
+        interval.setClosedAt(Date.from(now));
+      }
+    }
+  }
+
+  public synchronized void onFailure(Instant now) {
+    consecutiveFailures++;
+    if (state == State.HALF_OPEN) {
+      log.info("Probe of host {} failed, circuit stays open", host);
+      state = State.OPEN;
+      nextProbeAt = now.plus(openDuration);
+    } else if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+      log.info("Opening circuit of host {} after {} failures", host, consecutiveFailures);
+      state = State.OPEN;
+      nextProbeAt = now.plus(openDuration);
+      if (intervals.size() >= MAX_INTERVALS) {
+        intervals.removeFirst();
+      }
+      intervals.addLast(new CircuitOpenInterval().withHost(host).withOpenedAt(Date.from(now)));
+    }
+  }
+
+  /**
+   * Returns copies of the intervals in which the circuit was open at or after the given time.
+   *
+   * @param since start of the period of interest
+   * @return list of open intervals, ordered by the time they were opened
+   */
+  public synchronized List<CircuitOpenInterval> getOpenIntervals(Instant since) {
+    return intervals.stream()
+        .filter(i -> i.getClosedAt() == null || !i.getClosedAt().toInstant().isBefore(since))
+        .map(
+            i ->
+                new CircuitOpenInterval()
+                    .withHost(i.getHost())
+                    .withOpenedAt(i.getOpenedAt())
+                    .withClosedAt(i.getClosedAt()))
+        .toList();
+  }
+}
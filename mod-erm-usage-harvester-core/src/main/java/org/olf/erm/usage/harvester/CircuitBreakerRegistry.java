@@ -0,0 +1,74 @@
+package org.olf.erm.usage.harvester;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link CircuitBreaker} of each SUSHI host. Circuit breakers are shared across
+ * providers and tenants that use the same host.
+ *
+ * <p>The number of consecutive failures after which a circuit opens defaults to {@value
+ * #DEFAULT_FAILURE_THRESHOLD} and can be configured with the {@value #FAILURE_THRESHOLD_ENV_VAR}
+ * environment variable. The time in seconds until an open circuit is probed again defaults to
+ * {@value #DEFAULT_OPEN_SECONDS} and can be configured with the {@value #OPEN_SECONDS_ENV_VAR}
+ * environment variable.
+ */
+public class CircuitBreakerRegistry {
+
+  public static final String FAILURE_THRESHOLD_ENV_VAR = "CIRCUIT_BREAKER_FAILURE_THRESHOLD";
+  public static final String OPEN_SECONDS_ENV_VAR = "CIRCUIT_BREAKER_OPEN_SECONDS";
+  public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  public static final long DEFAULT_OPEN_SECONDS = 300;
+  private static final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  private CircuitBreakerRegistry() {}
+
+  /**
+   * Returns the host of a URL, including the port if given.
+   *
+   * @param url service url
+   * @return host in lower case or null if the url is invalid or has no host
+   */
+  public static String getHost(String url) {
+    try {
+      URI uri = URI.create(url);
+      if (uri.getHost() == null) {
+        return null;
+      }
+      String host = uri.getHost().toLowerCase(Locale.ROOT);
+      return (uri.getPort() == -1) ? host : host + ":" + uri.getPort();
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  public static CircuitBreaker get(String host) {
+    return circuitBreakers.computeIfAbsent(
+        host,
+        h ->
+            new CircuitBreaker(
+                h,
+                getConfiguredFailureThreshold(),
+                Duration.ofSeconds(getConfiguredOpenSeconds())));
+  }
+
+  public static void clear() {
+    circuitBreakers.clear();
+  }
+
+  public static int getConfiguredFailureThreshold() {
+    return Optional.ofNullable(System.getenv(FAILURE_THRESHOLD_ENV_VAR))
+        .map(Integer::parseInt)
+        .orElse(DEFAULT_FAILURE_THRESHOLD);
+  }
+
+  public static long getConfiguredOpenSeconds() {
+    return Optional.ofNullable(System.getenv(OPEN_SECONDS_ENV_VAR))
+        .map(Long::parseLong)
+        .orElse(DEFAULT_OPEN_SECONDS);
+  }
+}
@@ -0,0 +1,123 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Future;
+import io.vertx.core.http.HttpClosedException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.channels.ClosedChannelException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.folio.rest.jaxrs.model.CircuitOpenInterval;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+
+/**
+ * {@link ServiceEndpoint} that guards another ServiceEndpoint with the {@link CircuitBreaker} of
+ * its SUSHI host. Requests fail with a {@link CircuitOpenException} while the circuit is open.
+ *
+ * <p>Only transport failures, like refused connections or timeouts, count as failures. Any
+ * response of the host, even an error, counts as success.
+ */
+public class CircuitBreakingServiceEndpoint implements ServiceEndpoint {
+
+  private static final List<Class<? extends Throwable>> TRANSPORT_FAILURES =
+      List.of(
+          SocketException.class,
+          SocketTimeoutException.class,
+          UnknownHostException.class,
+          ClosedChannelException.class,
+          TimeoutException.class,
+          HttpClosedException.class);
+  private final ServiceEndpoint delegate;
+  private final CircuitBreaker circuitBreaker;
+
+  public CircuitBreakingServiceEndpoint(ServiceEndpoint delegate, CircuitBreaker circuitBreaker) {
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  public static boolean isTransportFailure(Throwable t) {
+    return ExceptionUtils.getThrowableList(t).stream()
+        .anyMatch(c -> TRANSPORT_FAILURES.stream().anyMatch(clazz -> clazz.isInstance(c)));
+  }
+
+  /**
+   * Returns the CircuitBreakingServiceEndpoint of a ServiceEndpoint, which is either the
+   * ServiceEndpoint itself or the delegate of a {@link SharedFetchServiceEndpoint}.
+   */
+  public static Optional<CircuitBreakingServiceEndpoint> find(ServiceEndpoint serviceEndpoint) {
+    ServiceEndpoint sep =
+        (serviceEndpoint instanceof SharedFetchServiceEndpoint sfse)
+            ? sfse.getDelegate()
+            : serviceEndpoint;
+    return (sep instanceof CircuitBreakingServiceEndpoint cbse)
+        ? Optional.of(cbse)
+        : Optional.empty();
+  }
+
+  public String getHost() {
+    return circuitBreaker.getHost();
+  }
+
+  public ServiceEndpoint getDelegate() {
+    return delegate;
+  }
+
+  public List<CircuitOpenInterval> getOpenIntervals(Instant since) {
+    return circuitBreaker.getOpenIntervals(since);
+  }
+
+  /**
+   * Guards the preflight like a report request. A preflight that succeeds right away, like the
+   * default preflight or one answered from a cache, made no request and does not count.
+   */
+  @Override
+  public Future<List<String>> preflight(List<String> reportTypes) {
+    if (!tryAcquire()) {
+      return Future.failedFuture(new CircuitOpenException(circuitBreaker.getHost()));
+    }
+    Future<List<String>> future = call(() -> delegate.preflight(reportTypes));
+    if (future.succeeded()) {
+      circuitBreaker.release();
+      return future;
+    }
+    return record(future);
+  }
+
+  @Override
+  public Future<List<CounterReport>> fetchReport(String report, String beginDate, String endDate) {
+    if (!tryAcquire()) {
+      return Future.failedFuture(new CircuitOpenException(circuitBreaker.getHost()));
+    }
+    return record(call(() -> delegate.fetchReport(report, beginDate, endDate)));
+  }
+
+  private boolean tryAcquire() {
+    return circuitBreaker.tryAcquire(Instant.now(ClockProvider.getClock()));
+  }
+
+  private static <T> Future<T> call(Supplier<Future<T>> request) {
+    try {
+      return request.get();
+    } catch (Exception e) {
+      return Future.failedFuture(e);
+    }
+  }
+
+  private <T> Future<T> record(Future<T> future) {
+    return future.onComplete(
+        ar -> {
+          Instant now = Instant.now(ClockProvider.getClock());
+          if (ar.failed() && isTransportFailure(ar.cause())) {
+            circuitBreaker.onFailure(now);
+          } else {
+            circuitBreaker.onSuccess(now);
+          }
+        });
+  }
+}
@@ -0,0 +1,9 @@
+package org.olf.erm.usage.harvester;
+
+/** Signals that a request was not made because the circuit of the SUSHI host is open. */
+public class CircuitOpenException extends RuntimeException {
+
+  public CircuitOpenException(String host) {
+    super("Circuit of host " + host + " is open");
+  }
+}
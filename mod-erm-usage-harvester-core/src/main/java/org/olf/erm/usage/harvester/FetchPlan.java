@@ -0,0 +1,26 @@
+package org.olf.erm.usage.harvester;
+
+import java.util.List;
+
+/**
+ * Result of the fetch planning of a provider, containing the items that need fetching and an index
+ * of the already existing reports.
+ */
+public class FetchPlan {
+
+  private final List<FetchItem> fetchItems;
+  private final ReportIndex reportIndex;
+
+  public FetchPlan(List<FetchItem> fetchItems, ReportIndex reportIndex) {
+    this.fetchItems = fetchItems;
+    this.reportIndex = reportIndex;
+  }
+
+  public List<FetchItem> getFetchItems() {
+    return fetchItems;
+  }
+
+  public ReportIndex getReportIndex() {
+    return reportIndex;
+  }
+}
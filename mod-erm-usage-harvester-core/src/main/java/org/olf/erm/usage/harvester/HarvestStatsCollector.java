@@ -0,0 +1,121 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.folio.rest.jaxrs.model.HarvestStats;
+import org.olf.erm.usage.harvester.endpoints.FetchObservers;
+
+/**
+ * Collects the {@link HarvestStats} of harvesting a provider.
+ *
+ * <p>Sizes and latencies of SUSHI responses are reported by the ServiceEndpoint implementations
+ * through {@link FetchObservers}, without knowing the harvest they belong to. They are added to the
+ * collector that is stored under {@value #CONTEXT_KEY} in the current Vert.x context, which is the
+ * context of the harvest's {@link WorkerVerticle}.
+ */
+public class HarvestStatsCollector {
+
+  public static final String CONTEXT_KEY = "erm-usage-harvester.stats";
+  private final AtomicInteger fetchItems = new AtomicInteger();
+  private final AtomicInteger expandedItems = new AtomicInteger();
+  private final AtomicInteger retriedItems = new AtomicInteger();
+  private final AtomicInteger tooManyRequests = new AtomicInteger();
+  private final AtomicInteger uploadedReports = new AtomicInteger();
+  private final AtomicInteger failedReports = new AtomicInteger();
+  private final AtomicLong bytesDownloaded = new AtomicLong();
+  private final AtomicLong responseMillis = new AtomicLong();
+  private final AtomicLong fetchNanos = new AtomicLong();
+  private final AtomicLong failedFetchNanos = new AtomicLong();
+  private final AtomicLong uploadNanos = new AtomicLong();
+  private final AtomicInteger peakConcurrency = new AtomicInteger();
+
+  static {
+    FetchObservers.add(HarvestStatsCollector::onResponse);
+  }
+
+  private static void onResponse(
+      String serviceUrl, String reportType, long latencyMillis, long sizeBytes) {
+    Context context = Vertx.currentContext();
+    if (context != null && context.get(CONTEXT_KEY) instanceof HarvestStatsCollector collector) {
+      collector.responseReceived(latencyMillis, sizeBytes);
+    }
+  }
+
+  /** Stores this collector in a Vert.x context, see {@link HarvestStatsCollector}. */
+  public void attach(Context context) {
+    context.put(CONTEXT_KEY, this);
+  }
+
+  /**
+   * Records that a report request was started.
+   *
+   * @param concurrency number of report requests in progress, including this one
+   */
+  public void itemStarted(int concurrency) {
+    fetchItems.incrementAndGet();
+    peakConcurrency.accumulateAndGet(concurrency, Math::max);
+  }
+
+  public void itemExpanded() {
+    expandedItems.incrementAndGet();
+  }
+
+  public void tooManyRequests(boolean retried) {
+    tooManyRequests.incrementAndGet();
+    if (retried) {
+      retriedItems.incrementAndGet();
+    }
+  }
+
+  void responseReceived(long latencyMillis, long sizeBytes) {
+    responseMillis.addAndGet(latencyMillis);
+    if (sizeBytes > 0) {
+      bytesDownloaded.addAndGet(sizeBytes);
+    }
+  }
+
+  /** Records the duration of a ServiceEndpoint request, including processing the response. */
+  public void fetched(boolean succeeded, long durationNanos) {
+    (succeeded ? fetchNanos : failedFetchNanos).addAndGet(durationNanos);
+  }
+
+  public void uploaded(boolean failedReport, long durationNanos) {
+    if (failedReport) {
+      failedReports.incrementAndGet();
+    } else {
+      uploadedReports.incrementAndGet();
+    }
+    uploadNanos.addAndGet(durationNanos);
+  }
+
+  /** Records the duration of an upload that was not successful. */
+  public void uploadFailed(long durationNanos) {
+    uploadNanos.addAndGet(durationNanos);
+  }
+
+  /**
+   * Returns the collected stats. The parse time is the part of the time of successful
+   * ServiceEndpoint requests that is not spent waiting for responses. The time of failed requests
+   * counts as fetch time.
+   */
+  public HarvestStats getStats() {
+    long fetchMillis = TimeUnit.NANOSECONDS.toMillis(fetchNanos.get());
+    long responseTime = Math.min(responseMillis.get(), fetchMillis);
+    long failedMillis = TimeUnit.NANOSECONDS.toMillis(failedFetchNanos.get());
+    return new HarvestStats()
+        .withFetchItems(fetchItems.get())
+        .withExpandedItems(expandedItems.get())
+        .withRetriedItems(retriedItems.get())
+        .withTooManyRequests(tooManyRequests.get())
+        .withUploadedReports(uploadedReports.get())
+        .withFailedReports(failedReports.get())
+        .withBytesDownloaded(bytesDownloaded.get())
+        .withFetchTimeMillis(responseTime + failedMillis)
+        .withParseTimeMillis(fetchMillis - responseTime)
+        .withUploadTimeMillis(TimeUnit.NANOSECONDS.toMillis(uploadNanos.get()))
+        .withPeakConcurrency(peakConcurrency.get());
+  }
+}
@@ -0,0 +1,178 @@
+package org.olf.erm.usage.harvester;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.olf.erm.usage.harvester.endpoints.FetchObservers;
+
+/**
+ * Metrics of the harvest pipeline, exported in the Prometheus text format by {@link #scrape()}.
+ *
+ * <p>Tag values are limited to values with a low cardinality, like report types, service types
+ * and hosts. Gauges of a running {@link WorkerVerticle} are tagged with tenant and provider and
+ * removed once it finished.
+ */
+public class HarvesterMetrics {
+
+  public static final String FETCH = "harvester.fetch";
+  public static final String FETCH_RESPONSE_SIZE = "harvester.fetch.response.size";
+  public static final String FETCH_ERRORS = "harvester.fetch.errors";
+  public static final String FETCH_SHARED = "harvester.fetch.shared";
+  public static final String QUEUE_SIZE = "harvester.queue.size";
+  public static final String IN_FLIGHT = "harvester.inflight";
+  public static final String UPLOAD = "harvester.upload";
+  public static final String JOB_WAIT = "harvester.job.wait";
+  public static final String JOB_DURATION = "harvester.job.duration";
+  public static final String JOBINFO_WRITE = "harvester.jobinfo.write";
+  public static final String UNKNOWN = "unknown";
+  private static final Pattern COUNTER_CODE_PATTERN =
+      Pattern.compile("\"?[Cc]ode\"?\\s*[:=]\\s*\"?(\\d{1,4})\\b");
+  private static final PrometheusMeterRegistry registry =
+      new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+  static {
+    FetchObservers.add(HarvesterMetrics::recordResponse);
+  }
+
+  private HarvesterMetrics() {}
+
+  public static MeterRegistry getRegistry() {
+    return registry;
+  }
+
+  /** Returns all metrics in the Prometheus text format. */
+  public static String scrape() {
+    return registry.scrape();
+  }
+
+  private static String tag(String value) {
+    return Objects.requireNonNullElse(value, UNKNOWN);
+  }
+
+  /** Records the duration of a report request, including parsing the response. */
+  public static void recordFetch(
+      String serviceType, String host, boolean success, long durationNanos) {
+    Timer.builder(FETCH)
+        .description("Duration of report requests")
+        .tags("serviceType", tag(serviceType), "host", tag(host))
+        .tag("outcome", success ? "success" : "failure")
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Records the size of a SUSHI response, see {@link FetchObservers}. */
+  static void recordResponse(
+      String serviceUrl, String reportType, long latencyMillis, long sizeBytes) {
+    if (sizeBytes < 0) {
+      return;
+    }
+    DistributionSummary.builder(FETCH_RESPONSE_SIZE)
+        .description("Size of SUSHI responses")
+        .baseUnit("bytes")
+        .tags("host", tag(CircuitBreakerRegistry.getHost(serviceUrl)), "report", tag(reportType))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(sizeBytes);
+  }
+
+  /**
+   * Counts a failed report request by exception type and COUNTER exception code, if the message
+   * of the exception contains one.
+   */
+  public static void countFetchError(Throwable t) {
+    Counter.builder(FETCH_ERRORS)
+        .description("Failed report requests")
+        .tags("exception", t.getClass().getSimpleName(), "code", getCounterCode(t.getMessage()))
+        .register(registry)
+        .increment();
+  }
+
+  /** Counts a report request that was served by an identical running or cached request. */
+  public static void countSharedFetch() {
+    Counter.builder(FETCH_SHARED)
+        .description("Report requests served by identical running or cached requests")
+        .register(registry)
+        .increment();
+  }
+
+  static String getCounterCode(String message) {
+    if (message == null) {
+      return UNKNOWN;
+    }
+    Matcher matcher = COUNTER_CODE_PATTERN.matcher(message);
+    return matcher.find() ? matcher.group(1) : UNKNOWN;
+  }
+
+  /**
+   * Registers the queue size and in-flight gauges of a WorkerVerticle.
+   *
+   * @return the registered gauges, to be passed to {@link #remove(List)}
+   */
+  public static List<Meter> registerWorkerGauges(
+      String tenantId, String providerId, Supplier<Number> queueSize, Supplier<Number> inFlight) {
+    return List.of(
+        Gauge.builder(QUEUE_SIZE, queueSize)
+            .description("Report requests waiting in the queue of a WorkerVerticle")
+            .tags("tenant", tag(tenantId), "provider", tag(providerId))
+            .register(registry),
+        Gauge.builder(IN_FLIGHT, inFlight)
+            .description("Report requests processed by a WorkerVerticle")
+            .tags("tenant", tag(tenantId), "provider", tag(providerId))
+            .register(registry));
+  }
+
+  public static void remove(List<Meter> meters) {
+    meters.forEach(registry::remove);
+  }
+
+  /** Records the duration and status code of a report upload to mod-erm-usage. */
+  public static void recordUpload(Integer statusCode, long durationNanos) {
+    Timer.builder(UPLOAD)
+        .description("Duration of report uploads to mod-erm-usage")
+        .tag("status", (statusCode == null) ? "error" : String.valueOf(statusCode))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Records the time between the scheduled and the actual start of a Quartz job. */
+  public static void recordJobWait(String jobType, long waitMillis) {
+    Timer.builder(JOB_WAIT)
+        .description("Time between scheduled and actual start of harvesting jobs")
+        .tag("type", tag(jobType))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+  }
+
+  /** Records the run time of a Quartz job. */
+  public static void recordJobDuration(String jobType, boolean success, long durationMillis) {
+    Timer.builder(JOB_DURATION)
+        .description("Run time of harvesting jobs")
+        .tags("type", tag(jobType), "outcome", success ? "success" : "failure")
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(durationMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** Records the duration of a JobInfo database write. */
+  public static void recordJobInfoWrite(String operation, boolean success, long durationNanos) {
+    Timer.builder(JOBINFO_WRITE)
+        .description("Duration of JobInfo database writes")
+        .tags("operation", operation, "outcome", success ? "success" : "failure")
+        .register(registry)
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+}
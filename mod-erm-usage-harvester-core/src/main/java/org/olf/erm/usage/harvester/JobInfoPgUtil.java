@@ -0,0 +1,267 @@
+package org.olf.erm.usage.harvester;
+
+import static org.folio.rest.impl.ErmUsageHarvesterAPI.TABLE_NAME_JOBS;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.base.Strings;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.dbschema.ObjectMapperTool;
+import org.folio.rest.jaxrs.model.JobInfo;
+import org.folio.rest.jaxrs.model.JobInfo.Result;
+import org.folio.rest.jaxrs.model.JobInfo.Type;
+import org.folio.rest.jaxrs.model.JobInfos;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.cql.CQLWrapper;
+
+/**
+ * Set based queries of the jobs table.
+ *
+ * <p>For keyset pagination jobs are ordered by timestamp and id descending. A cursor encodes the
+ * timestamp and id of the last job of a page, the next page starts right after it. Unlike offset
+ * based paging this uses the (timestamp, id) indexes of the jobs table and does not slow down on
+ * later pages.
+ */
+public class JobInfoPgUtil {
+
+  public static final String FIRST_PAGE_CURSOR = "*";
+  public static final int DELETE_BATCH_SIZE = 1000;
+  private static final String TIMESTAMP = "((jsonb->>'timestamp')::bigint)";
+  private static final DateTimeFormatter DATE_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.UTC);
+
+  private JobInfoPgUtil() {}
+
+  /** Creates the cursor pointing right after the given JobInfo. */
+  public static String encodeCursor(JobInfo jobInfo) {
+    String cursor = jobInfo.getTimestamp() + "," + jobInfo.getId();
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor created by {@link #encodeCursor(JobInfo)}.
+   *
+   * @return timestamp and id of the job, or null for {@value #FIRST_PAGE_CURSOR}
+   * @throws IllegalArgumentException if the cursor is invalid
+   */
+  public static Tuple decodeCursor(String cursor) {
+    if (FIRST_PAGE_CURSOR.equals(cursor)) {
+      return null;
+    }
+    String[] parts =
+        new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", 2);
+    if (parts.length != 2) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    return Tuple.of(Long.parseLong(parts[0]), UUID.fromString(parts[1]));
+  }
+
+  /**
+   * Gets a page of JobInfos following a cursor.
+   *
+   * <p>totalRecords counts all JobInfos matching the filters, regardless of the cursor. It is exact
+   * for small result sets and estimated for large ones, as for any other RMB query. A sortBy clause
+   * of the CQL query is ignored.
+   *
+   * @param countQuery query matching the same JobInfos as the other filters, used for totalRecords
+   * @param timestamp only return jobs created at or before this timestamp, may be null
+   * @param providerId only return jobs of this provider, may be null
+   * @param query CQL query, may be null
+   * @param cursor cursor as returned in nextCursor, or {@value #FIRST_PAGE_CURSOR}
+   * @param limit maximum number of JobInfos to return, with 0 only totalRecords is returned
+   * @return JobInfos with nextCursor set if there are more JobInfos
+   */
+  public static Future<JobInfos> getJobInfos(
+      Vertx vertx,
+      String tenantId,
+      CQLWrapper countQuery,
+      Long timestamp,
+      String providerId,
+      String query,
+      String cursor,
+      int limit) {
+    String where;
+    Tuple after;
+    try {
+      where =
+          Strings.isNullOrEmpty(query)
+              ? null
+              : new CQL2PgJSON(TABLE_NAME_JOBS + ".jsonb").toSql(query).getWhere();
+      after = decodeCursor(cursor);
+    } catch (FieldException | QueryValidationException | IllegalArgumentException e) {
+      return Future.failedFuture(new IllegalArgumentException(e.getMessage(), e));
+    }
+
+    List<String> conditions = new ArrayList<>();
+    Tuple params = Tuple.tuple();
+    if (where != null) {
+      conditions.add("(" + where + ")");
+    }
+    if (timestamp != null) {
+      params.addLong(timestamp);
+      conditions.add(TIMESTAMP + " <= $" + params.size());
+    }
+    if (!Strings.isNullOrEmpty(providerId)) {
+      params.addString(providerId);
+      conditions.add("jsonb->>'providerId' = $" + params.size());
+    }
+    if (after != null) {
+      params.addLong(after.getLong(0)).addUUID(after.getUUID(1));
+      conditions.add(
+          "(" + TIMESTAMP + ", id) < ($" + (params.size() - 1) + ", $" + params.size() + ")");
+    }
+    params.addInteger(limit + 1);
+    String sql =
+        "SELECT jsonb FROM "
+            + PostgresClient.convertToPsqlStandard(tenantId)
+            + "."
+            + TABLE_NAME_JOBS
+            + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+            + " ORDER BY "
+            + TIMESTAMP
+            + " DESC, id DESC LIMIT $"
+            + params.size();
+
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, tenantId);
+    Future<List<JobInfo>> page =
+        (limit > 0)
+            ? pgClient.select(sql, params).map(JobInfoPgUtil::toJobInfos)
+            : Future.succeededFuture(List.of());
+    Future<Integer> count =
+        pgClient
+            .get(TABLE_NAME_JOBS, JobInfo.class, countQuery, true)
+            .map(res -> res.getResultInfo().getTotalRecords());
+    return Future.all(page, count)
+        .map(
+            cf -> {
+              List<JobInfo> jobInfos = page.result();
+              JobInfos result = new JobInfos().withTotalRecords(count.result());
+              if (limit > 0 && jobInfos.size() > limit) {
+                jobInfos = jobInfos.subList(0, limit);
+                result.setNextCursor(encodeCursor(jobInfos.get(limit - 1)));
+              }
+              return result.withJobInfos(jobInfos);
+            });
+  }
+
+  /**
+   * Inserts or replaces JobInfos with a single statement. A finished JobInfo is never replaced by
+   * an unfinished one. Jobs may run on another node than the one that scheduled them, so a delayed
+   * update of the scheduling node must not undo the result written by the node that ran the job.
+   *
+   * @return number of inserted or replaced JobInfos
+   */
+  public static Future<Integer> upsertJobInfos(
+      Vertx vertx, String tenantId, List<JobInfo> jobInfos) {
+    String json;
+    try {
+      json = ObjectMapperTool.getMapper().writeValueAsString(jobInfos);
+    } catch (JsonProcessingException e) {
+      return Future.failedFuture(e);
+    }
+    String sql =
+        "INSERT INTO "
+            + PostgresClient.convertToPsqlStandard(tenantId)
+            + "."
+            + TABLE_NAME_JOBS
+            + " AS t (id, jsonb)"
+            + " SELECT (j->>'id')::uuid, j FROM jsonb_array_elements($1::text::jsonb) AS j"
+            + " ON CONFLICT (id) DO UPDATE SET jsonb = EXCLUDED.jsonb"
+            + " WHERE t.jsonb->>'finishedAt' IS NULL"
+            + " OR EXCLUDED.jsonb->>'finishedAt' IS NOT NULL";
+    return PostgresClient.getInstance(vertx, tenantId)
+        .execute(sql, Tuple.of(json))
+        .map(RowSet::rowCount);
+  }
+
+  /**
+   * Marks unfinished jobs as failed, using a single UPDATE statement. Periodic jobs are not
+   * affected.
+   *
+   * @param timestamp only mark jobs created at or before this timestamp
+   * @param finishedAt date to set as finishedAt
+   * @param errorMessage error message to set
+   * @return number of jobs marked as failed
+   */
+  public static Future<Integer> failUnfinishedJobInfos(
+      Vertx vertx, String tenantId, long timestamp, Date finishedAt, String errorMessage) {
+    String sql =
+        "UPDATE "
+            + PostgresClient.convertToPsqlStandard(tenantId)
+            + "."
+            + TABLE_NAME_JOBS
+            + " SET jsonb = jsonb || jsonb_build_object("
+            + "'finishedAt', $1::text, 'result', $2::text, 'errorMessage', $3::text)"
+            + " WHERE jsonb->>'finishedAt' IS NULL"
+            + " AND jsonb->>'type' != $4"
+            + " AND jsonb->>'timestamp' <= $5";
+    Tuple params =
+        Tuple.of(
+            DATE_FORMATTER.format(finishedAt.toInstant()),
+            Result.FAILURE.value(),
+            errorMessage,
+            Type.PERIODIC.value(),
+            String.valueOf(timestamp));
+    return PostgresClient.getInstance(vertx, tenantId)
+        .execute(sql, params)
+        .map(RowSet::rowCount);
+  }
+
+  /**
+   * Deletes finished jobs in chunks of {@value #DELETE_BATCH_SIZE}, so that each statement only
+   * holds a small number of row locks and vacuum can keep up with the deleted rows.
+   *
+   * @param timestamp only delete jobs created at or before this timestamp, may be null
+   * @return number of deleted jobs
+   */
+  public static Future<Integer> deleteFinishedJobInfos(
+      Vertx vertx, String tenantId, Long timestamp) {
+    String table = PostgresClient.convertToPsqlStandard(tenantId) + "." + TABLE_NAME_JOBS;
+    String sql =
+        "DELETE FROM "
+            + table
+            + " WHERE id IN (SELECT id FROM "
+            + table
+            + " WHERE jsonb->>'finishedAt' IS NOT NULL"
+            + (timestamp == null ? "" : " AND jsonb->>'timestamp' <= $2")
+            + " LIMIT $1)";
+    Tuple params = Tuple.of(DELETE_BATCH_SIZE);
+    if (timestamp != null) {
+      params.addString(String.valueOf(timestamp));
+    }
+    return deleteInChunks(PostgresClient.getInstance(vertx, tenantId), sql, params, 0);
+  }
+
+  private static Future<Integer> deleteInChunks(
+      PostgresClient pgClient, String sql, Tuple params, int deleted) {
+    return pgClient
+        .execute(sql, params)
+        .compose(
+            rs ->
+                (rs.rowCount() < DELETE_BATCH_SIZE)
+                    ? Future.succeededFuture(deleted + rs.rowCount())
+                    : deleteInChunks(pgClient, sql, params, deleted + rs.rowCount()));
+  }
+
+  private static List<JobInfo> toJobInfos(RowSet<Row> rowSet) {
+    List<JobInfo> jobInfos = new ArrayList<>(rowSet.rowCount());
+    rowSet.forEach(row -> jobInfos.add(row.getJsonObject("jsonb").mapTo(JobInfo.class)));
+    return jobInfos;
+  }
+}
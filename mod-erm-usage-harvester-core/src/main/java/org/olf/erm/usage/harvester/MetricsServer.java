@@ -0,0 +1,44 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import java.util.Optional;
+
+/**
+ * HTTP server that serves {@link HarvesterMetrics#scrape()} at {@value #PATH}.
+ *
+ * <p>The metrics cover all tenants of the instance, so they are served on a port of their own
+ * instead of the tenant API routed through Okapi. The port is set by the {@value #PORT_ENV_VAR}
+ * environment variable, the server is not started if it is not set.
+ */
+public class MetricsServer {
+
+  public static final String PORT_ENV_VAR = "METRICS_PORT";
+  public static final String PATH = "/metrics";
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private MetricsServer() {}
+
+  public static Future<HttpServer> start(Vertx vertx, int port) {
+    return vertx
+        .createHttpServer()
+        .requestHandler(
+            req -> {
+              if (HttpMethod.GET.equals(req.method()) && PATH.equals(req.path())) {
+                req.response()
+                    .putHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE)
+                    .end(HarvesterMetrics.scrape());
+              } else {
+                req.response().setStatusCode(404).end();
+              }
+            })
+        .listen(port);
+  }
+
+  public static Optional<Integer> getConfiguredPort() {
+    return Optional.ofNullable(System.getenv(PORT_ENV_VAR)).map(Integer::parseInt);
+  }
+}
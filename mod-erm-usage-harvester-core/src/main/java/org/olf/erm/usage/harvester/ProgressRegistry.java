@@ -0,0 +1,100 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.folio.rest.jaxrs.model.HarvestProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the latest progress of each provider harvest, as published by {@link ProgressTracker}s on
+ * the event bus. With a clustered event bus this includes harvests running on other instances.
+ *
+ * <p>Progress of finished harvests is kept for {@value #RETENTION_MINUTES} minutes. Progress of
+ * unfinished harvests is removed if it was not published for {@value #STALE_AFTER_MS} ms, e.g.
+ * because the instance running the harvest stopped before finishing it.
+ */
+public class ProgressRegistry {
+
+  public static final long RETENTION_MINUTES = 10;
+  public static final long STALE_AFTER_MS = 5 * ProgressTracker.KEEP_ALIVE_INTERVAL_MS;
+  private static final Logger log = LoggerFactory.getLogger(ProgressRegistry.class);
+  private static final Map<String, Map<String, HarvestProgress>> progresses =
+      new ConcurrentHashMap<>();
+  private static final Map<Vertx, Boolean> registered = new ConcurrentHashMap<>();
+
+  private ProgressRegistry() {}
+
+  /** Starts consuming progress events of a Vertx instance. Subsequent calls have no effect. */
+  public static void register(Vertx vertx) {
+    if (registered.putIfAbsent(vertx, true) == null) {
+      vertx.eventBus().<JsonObject>consumer(ProgressTracker.ADDRESS, ProgressRegistry::handle);
+    }
+  }
+
+  private static void handle(Message<JsonObject> message) {
+    String tenantId = message.headers().get(ProgressTracker.HEADER_TENANT);
+    try {
+      HarvestProgress progress = message.body().mapTo(HarvestProgress.class);
+      if (tenantId != null && progress.getProviderId() != null) {
+        put(tenantId, progress);
+      }
+    } catch (Exception e) {
+      log.warn("Tenant: {}, invalid progress event: {}", tenantId, e.getMessage());
+    }
+  }
+
+  static void put(String tenantId, HarvestProgress progress) {
+    progresses
+        .computeIfAbsent(tenantId, k -> new ConcurrentHashMap<>())
+        .merge(
+            progress.getProviderId(),
+            progress,
+            (current, update) -> isNewer(update, current) ? update : current);
+  }
+
+  /**
+   * Returns the progress of running and recently finished harvests of a tenant.
+   *
+   * @param tenantId tenant id
+   * @param providerId only return the progress of this provider, may be null
+   * @return progresses ordered by providerId
+   */
+  public static List<HarvestProgress> get(String tenantId, String providerId) {
+    Map<String, HarvestProgress> tenantProgresses = progresses.get(tenantId);
+    if (tenantProgresses == null) {
+      return List.of();
+    }
+    Instant now = Instant.now(ClockProvider.getClock());
+    Instant expiry = now.minus(Duration.ofMinutes(RETENTION_MINUTES));
+    Instant staleExpiry = now.minusMillis(STALE_AFTER_MS);
+    tenantProgresses
+        .values()
+        .removeIf(
+            p ->
+                p.getUpdatedAt() == null
+                    || p.getUpdatedAt()
+                        .toInstant()
+                        .isBefore(Boolean.TRUE.equals(p.getFinished()) ? expiry : staleExpiry));
+    return tenantProgresses.values().stream()
+        .filter(p -> providerId == null || providerId.equals(p.getProviderId()))
+        .sorted(Comparator.comparing(HarvestProgress::getProviderId))
+        .toList();
+  }
+
+  public static void clear() {
+    progresses.clear();
+  }
+
+  private static boolean isNewer(HarvestProgress update, HarvestProgress current) {
+    return current.getUpdatedAt() == null
+        || (update.getUpdatedAt() != null && !update.getUpdatedAt().before(current.getUpdatedAt()));
+  }
+}
@@ -0,0 +1,153 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+import java.time.Instant;
+import java.util.Date;
+import org.folio.rest.jaxrs.model.HarvestProgress;
+import org.folio.rest.jaxrs.model.JobInfo;
+import org.olf.erm.usage.harvester.periodic.JobInfoWriteBuffer;
+
+/**
+ * Tracks the progress of harvesting a provider.
+ *
+ * <p>Changes are published on the event bus address {@value #ADDRESS} at most every {@value
+ * #PUBLISH_INTERVAL_MS} ms, with the tenant id in the {@value #HEADER_TENANT} header. An unchanged
+ * progress is published again every {@value #KEEP_ALIVE_INTERVAL_MS} ms, so that {@link
+ * ProgressRegistry} can tell a long running harvest from one whose instance went away. If a JobInfo
+ * is given, a snapshot of the progress is written to it at most every {@value
+ * #SNAPSHOT_INTERVAL_MS} ms.
+ */
+public class ProgressTracker {
+
+  public static final String ADDRESS = "erm-usage-harvester.progress";
+  public static final String HEADER_TENANT = "tenantId";
+  public static final long PUBLISH_INTERVAL_MS = 1000;
+  public static final long KEEP_ALIVE_INTERVAL_MS = 3 * PUBLISH_INTERVAL_MS;
+  public static final long SNAPSHOT_INTERVAL_MS = 10_000;
+  private final Vertx vertx;
+  private final String tenantId;
+  private final JobInfo jobInfo;
+  private final HarvestProgress progress;
+  private boolean published = true;
+  private boolean saved = true;
+  private long lastSnapshot = 0;
+  private long lastPublish = System.currentTimeMillis();
+  private Long timerId;
+
+  /**
+   * Creates a new ProgressTracker.
+   *
+   * @param tenantId tenant id
+   * @param providerId id of the provider
+   * @param jobInfo JobInfo of the provider job to write snapshots to, may be null
+   */
+  public ProgressTracker(Vertx vertx, String tenantId, String providerId, JobInfo jobInfo) {
+    this.vertx = vertx;
+    this.tenantId = tenantId;
+    this.jobInfo = jobInfo;
+    this.progress =
+        new HarvestProgress()
+            .withJobId(jobInfo == null ? null : jobInfo.getId())
+            .withProviderId(providerId)
+            .withQueuedItems(0)
+            .withInFlightItems(0)
+            .withProcessedItems(0)
+            .withUploadedReports(0)
+            .withFailedReports(0)
+            .withFinished(false)
+            .withUpdatedAt(now());
+  }
+
+  /** Starts publishing the progress. */
+  public synchronized void start() {
+    if (timerId == null && !progress.getFinished()) {
+      timerId = vertx.setPeriodic(PUBLISH_INTERVAL_MS, id -> flush());
+    }
+  }
+
+  public synchronized void update(int queuedItems, int inFlightItems) {
+    if (progress.getFinished()) {
+      return;
+    }
+    progress.withQueuedItems(queuedItems).withInFlightItems(inFlightItems);
+    changed();
+  }
+
+  public synchronized void itemProcessed() {
+    progress.setProcessedItems(progress.getProcessedItems() + 1);
+    changed();
+  }
+
+  public synchronized void reportUploaded(boolean failed) {
+    if (failed) {
+      progress.setFailedReports(progress.getFailedReports() + 1);
+    } else {
+      progress.setUploadedReports(progress.getUploadedReports() + 1);
+    }
+    changed();
+  }
+
+  /**
+   * Marks the progress as finished and publishes it. No snapshot is written, the final JobInfo is
+   * expected to include the progress.
+   */
+  public synchronized void finish() {
+    if (progress.getFinished()) {
+      return;
+    }
+    if (timerId != null) {
+      vertx.cancelTimer(timerId);
+      timerId = null;
+    }
+    progress.withQueuedItems(0).withInFlightItems(0).withFinished(true);
+    changed();
+    publish();
+  }
+
+  /** Returns a copy of the current progress. */
+  public synchronized HarvestProgress getProgress() {
+    return copy();
+  }
+
+  private void changed() {
+    progress.setUpdatedAt(now());
+    published = false;
+    saved = false;
+  }
+
+  private synchronized void flush() {
+    long nowMillis = System.currentTimeMillis();
+    if (!published) {
+      publish();
+    } else if (nowMillis - lastPublish >= KEEP_ALIVE_INTERVAL_MS) {
+      progress.setUpdatedAt(now());
+      publish();
+    }
+    if (jobInfo != null && !saved && nowMillis - lastSnapshot >= SNAPSHOT_INTERVAL_MS) {
+      saved = true;
+      lastSnapshot = nowMillis;
+      JobInfoWriteBuffer.getInstance().upsert(jobInfo.withProgress(copy()), tenantId);
+    }
+  }
+
+  private void publish() {
+    published = true;
+    lastPublish = System.currentTimeMillis();
+    vertx
+        .eventBus()
+        .publish(
+            ADDRESS,
+            JsonObject.mapFrom(progress),
+            new DeliveryOptions().addHeader(HEADER_TENANT, tenantId));
+  }
+
+  private HarvestProgress copy() {
+    return JsonObject.mapFrom(progress).mapTo(HarvestProgress.class);
+  }
+
+  private static Date now() {
+    return Date.from(Instant.now(ClockProvider.getClock()));
+  }
+}
@@ -0,0 +1,162 @@
+package org.olf.erm.usage.harvester;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Learns how many days after the end of a month a provider usually publishes the usage data of
+ * that month, and persists it per provider.
+ *
+ * <p>For each of the last {@value #MAX_OBSERVATIONS} months the number of days after the end of
+ * the month is recorded on which the provider last reported the usage as not available (COUNTER
+ * exceptions 3030 and 3031). Once the month is fetched successfully, the observation is used for
+ * holding back requests of the latest months. Months that never become available, e.g. because
+ * there was no usage, are not taken into account.
+ */
+public class PublicationLagPgUtil {
+
+  public static final String TABLE_NAME_PUBLICATION_LAG = "publication_lag";
+  public static final int MAX_OBSERVATIONS = 6;
+  public static final int MAX_LAG_DAYS = 62;
+  private static final String FIELD_OBSERVATIONS = "observations";
+  private static final String FIELD_YEAR_MONTH = "yearMonth";
+  private static final String FIELD_NOT_AVAILABLE_DAYS = "notAvailableDays";
+  private static final String FIELD_AVAILABLE = "available";
+
+  private PublicationLagPgUtil() {}
+
+  public static JsonObject createPublicationLag(String providerId) {
+    return new JsonObject()
+        .put("id", providerId)
+        .put("providerId", providerId)
+        .put(FIELD_OBSERVATIONS, new JsonArray());
+  }
+
+  /** Returns the number of days after the end of a month on the given day. */
+  static long getDaysAfterMonth(YearMonth yearMonth, LocalDate today) {
+    return ChronoUnit.DAYS.between(yearMonth.plusMonths(1).atDay(1), today);
+  }
+
+  /**
+   * Records that the usage of a month was reported as not available.
+   *
+   * @param publicationLag the publication lag of the provider
+   * @param yearMonth the month that is not available
+   * @param today current date
+   * @return true if the publication lag changed
+   */
+  public static boolean recordNotAvailable(
+      JsonObject publicationLag, YearMonth yearMonth, LocalDate today) {
+    long days = getDaysAfterMonth(yearMonth, today);
+    if (days < 0 || days > MAX_LAG_DAYS) {
+      return false;
+    }
+    JsonObject observation = getObservation(publicationLag, yearMonth);
+    if (observation == null) {
+      observation =
+          new JsonObject()
+              .put(FIELD_YEAR_MONTH, yearMonth.toString())
+              .put(FIELD_NOT_AVAILABLE_DAYS, days)
+              .put(FIELD_AVAILABLE, false);
+      publicationLag.getJsonArray(FIELD_OBSERVATIONS).add(observation);
+      removeOldObservations(publicationLag);
+      return true;
+    }
+    if (observation.getBoolean(FIELD_AVAILABLE, false)
+        || days <= observation.getLong(FIELD_NOT_AVAILABLE_DAYS, 0L)) {
+      return false;
+    }
+    observation.put(FIELD_NOT_AVAILABLE_DAYS, days);
+    return true;
+  }
+
+  /**
+   * Records that the usage of a month was fetched successfully.
+   *
+   * @param publicationLag the publication lag of the provider
+   * @param yearMonth the month that was fetched
+   * @return true if the publication lag changed
+   */
+  public static boolean recordAvailable(JsonObject publicationLag, YearMonth yearMonth) {
+    JsonObject observation = getObservation(publicationLag, yearMonth);
+    if (observation == null || observation.getBoolean(FIELD_AVAILABLE, false)) {
+      return false;
+    }
+    observation.put(FIELD_AVAILABLE, true);
+    return true;
+  }
+
+  /**
+   * Returns the number of days after the end of a month before which the usage of the month is not
+   * expected to be available. This is the median of the days after the last day on which a month
+   * was reported as not available, so that a single late publication does not hold back the latest
+   * months for a long time. Returns 0 if no such month was observed.
+   */
+  public static long getHoldBackDays(JsonObject publicationLag) {
+    long[] days =
+        getObservations(publicationLag).stream()
+            .filter(o -> o.getBoolean(FIELD_AVAILABLE, false))
+            .mapToLong(o -> o.getLong(FIELD_NOT_AVAILABLE_DAYS, 0L) + 1)
+            .sorted()
+            .toArray();
+    return days.length == 0 ? 0 : days[(days.length - 1) / 2];
+  }
+
+  /** Checks if the usage of a month is expected to be available on the given day. */
+  public static boolean isPublished(YearMonth yearMonth, long holdBackDays, LocalDate today) {
+    return getDaysAfterMonth(yearMonth, today) >= holdBackDays;
+  }
+
+  public static Future<JsonObject> getPublicationLag(
+      Vertx vertx, String tenantId, String providerId) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .getById(TABLE_NAME_PUBLICATION_LAG, providerId)
+        .map(json -> (json == null) ? createPublicationLag(providerId) : json);
+  }
+
+  public static Future<String> upsertPublicationLag(
+      Vertx vertx, String tenantId, JsonObject publicationLag) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .upsert(TABLE_NAME_PUBLICATION_LAG, publicationLag.getString("id"), publicationLag);
+  }
+
+  private static List<JsonObject> getObservations(JsonObject publicationLag) {
+    JsonArray observations = publicationLag.getJsonArray(FIELD_OBSERVATIONS);
+    if (observations == null) {
+      return List.of();
+    }
+    return observations.stream()
+        .filter(JsonObject.class::isInstance)
+        .map(JsonObject.class::cast)
+        .toList();
+  }
+
+  private static JsonObject getObservation(JsonObject publicationLag, YearMonth yearMonth) {
+    if (publicationLag.getJsonArray(FIELD_OBSERVATIONS) == null) {
+      publicationLag.put(FIELD_OBSERVATIONS, new JsonArray());
+    }
+    return getObservations(publicationLag).stream()
+        .filter(o -> Objects.equals(o.getString(FIELD_YEAR_MONTH), yearMonth.toString()))
+        .findFirst()
+        .orElse(null);
+  }
+
+  private static void removeOldObservations(JsonObject publicationLag) {
+    List<JsonObject> latest =
+        getObservations(publicationLag).stream()
+            .sorted(
+                Comparator.comparing((JsonObject o) -> o.getString(FIELD_YEAR_MONTH)).reversed())
+            .limit(MAX_OBSERVATIONS)
+            .toList();
+    publicationLag.put(FIELD_OBSERVATIONS, new JsonArray(latest));
+  }
+}
@@ -0,0 +1,113 @@
+package org.olf.erm.usage.harvester;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.google.common.hash.Hashing;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.Report;
+import org.folio.rest.persist.PostgresClient;
+
+/**
+ * Stores a hash of the content of each uploaded report, keyed by provider, report and month. It is
+ * used to skip uploads of reports that did not change since they were last uploaded.
+ */
+public class ReportHashPgUtil {
+
+  public static final String TABLE_NAME_REPORT_HASHES = "report_hashes";
+  private static final String FIELD_HASH = "hash";
+  private static final String REPORT_HEADER = "Report_Header";
+  // regenerated by vendors on every request, COUNTER 5 header fields and COUNTER 4 attributes
+  private static final Set<String> VOLATILE_HEADER_FIELDS = Set.of("Created", "Created_By");
+  private static final Set<String> VOLATILE_REPORT_FIELDS = Set.of("created", "id");
+  private static final ObjectMapper CANONICAL_MAPPER =
+      JsonMapper.builder()
+          .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+          .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+          .build();
+
+  private ReportHashPgUtil() {}
+
+  /**
+   * Creates a hash of the canonical JSON representation of the report's release and content.
+   * Fields that vendors regenerate on every request, like the creation time of the report, are not
+   * part of the hash.
+   *
+   * @param report the {@link CounterReport}
+   * @return the hash or null if the report has no content
+   */
+  public static String createHash(CounterReport report) {
+    if (report.getReport() == null) {
+      return null;
+    }
+    try {
+      byte[] content = CANONICAL_MAPPER.writeValueAsBytes(toCanonicalContent(report.getReport()));
+      return Hashing.sha256()
+          .newHasher()
+          .putString(String.valueOf(report.getRelease()), StandardCharsets.UTF_8)
+          .putBytes(content)
+          .hash()
+          .toString();
+    } catch (JsonProcessingException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> toCanonicalContent(Report report) {
+    Map<String, Object> content = CANONICAL_MAPPER.convertValue(report, Map.class);
+    content
+        .keySet()
+        .removeIf(key -> VOLATILE_REPORT_FIELDS.contains(key.toLowerCase(Locale.ROOT)));
+    if (content.get(REPORT_HEADER) instanceof Map<?, ?> header) {
+      header.keySet().removeIf(VOLATILE_HEADER_FIELDS::contains);
+    }
+    return content;
+  }
+
+  public static Future<String> getHash(Vertx vertx, String tenantId, CounterReport report) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .getById(TABLE_NAME_REPORT_HASHES, createId(report))
+        .map(json -> Optional.ofNullable(json).map(j -> j.getString(FIELD_HASH)).orElse(null));
+  }
+
+  public static Future<String> upsertHash(
+      Vertx vertx, String tenantId, CounterReport report, String hash) {
+    String id = createId(report);
+    JsonObject entity =
+        new JsonObject()
+            .put("id", id)
+            .put("providerId", report.getProviderId())
+            .put("reportName", report.getReportName())
+            .put("yearMonth", report.getYearMonth())
+            .put(FIELD_HASH, hash)
+            .put("verifiedAt", Instant.now(ClockProvider.getClock()).toString());
+    return PostgresClient.getInstance(vertx, tenantId)
+        .upsert(TABLE_NAME_REPORT_HASHES, id, entity);
+  }
+
+  public static Future<Void> deleteHash(Vertx vertx, String tenantId, CounterReport report) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .delete(TABLE_NAME_REPORT_HASHES, createId(report))
+        .mapEmpty();
+  }
+
+  static String createId(CounterReport report) {
+    String key =
+        String.join(
+            "|", report.getProviderId(), report.getReportName(), report.getYearMonth());
+    return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+}
@@ -0,0 +1,51 @@
+package org.olf.erm.usage.harvester;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.folio.rest.jaxrs.model.CounterReport;
+
+/**
+ * Index of the existing counter-reports of a provider, keyed by report name and month. Entries only
+ * hold the id, report name, month and failed attempts of a report.
+ */
+public class ReportIndex {
+
+  private final Map<String, CounterReport> index = new ConcurrentHashMap<>();
+
+  private static String createKey(String reportName, String yearMonth) {
+    return reportName + "|" + yearMonth;
+  }
+
+  public CounterReport get(String reportName, String yearMonth) {
+    return index.get(createKey(reportName, yearMonth));
+  }
+
+  /**
+   * Adds or replaces the entry for a report.
+   *
+   * @param reportName the report name used as key, which may differ from the report's name
+   * @param report the report to index
+   */
+  public void put(String reportName, CounterReport report) {
+    String key = createKey(reportName, report.getYearMonth());
+    if (report.getId() == null) {
+      index.remove(key);
+    } else {
+      index.put(
+          key,
+          new CounterReport()
+              .withId(report.getId())
+              .withReportName(report.getReportName())
+              .withYearMonth(report.getYearMonth())
+              .withFailedAttempts(report.getFailedAttempts()));
+    }
+  }
+
+  public void put(CounterReport report) {
+    put(report.getReportName(), report);
+  }
+
+  public int size() {
+    return index.size();
+  }
+}
@@ -0,0 +1,157 @@
+package org.olf.erm.usage.harvester;
+
+import com.google.common.base.Strings;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.RetryBackoff;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.persist.interfaces.Results;
+
+/**
+ * Persists the retry backoff state of report months that failed repeatedly. After each failed
+ * attempt the delay until the next attempt is doubled, starting at {@link #INITIAL_DELAY} and
+ * limited to {@link #MAX_DELAY}.
+ *
+ * <p>A month is due a little before its next attempt, within {@link #DUE_TOLERANCE}. Harvests of a
+ * daily schedule usually start shortly before the time of the previous failure, which would
+ * otherwise defer each attempt by another run.
+ */
+public class RetryBackoffPgUtil {
+
+  public static final String TABLE_NAME_RETRY_BACKOFF = "retry_backoff";
+  public static final Duration INITIAL_DELAY = Duration.ofDays(1);
+  public static final Duration MAX_DELAY = Duration.ofDays(32);
+  public static final Duration DUE_TOLERANCE = Duration.ofHours(6);
+
+  private RetryBackoffPgUtil() {}
+
+  public static String createId(String providerId, String reportName, String yearMonth) {
+    String key = String.join("|", providerId, reportName, yearMonth);
+    return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+  }
+
+  /**
+   * Calculates the earliest time of the next attempt.
+   *
+   * @param failedCount number of consecutive failed attempts
+   * @param lastFailedAt time of the last failed attempt
+   * @return time of the next attempt
+   */
+  public static Instant calculateNextAttempt(int failedCount, Instant lastFailedAt) {
+    int exponent = Math.max(0, Math.min(failedCount - 1, 16));
+    Duration delay = INITIAL_DELAY.multipliedBy(1L << exponent);
+    if (delay.compareTo(MAX_DELAY) > 0) {
+      delay = MAX_DELAY;
+    }
+    return lastFailedAt.plus(delay);
+  }
+
+  /** Checks if the next attempt of a month is at most {@link #DUE_TOLERANCE} ahead. */
+  public static boolean isDue(RetryBackoff retryBackoff, Instant now) {
+    return retryBackoff == null
+        || retryBackoff.getNextAttemptAt() == null
+        || !retryBackoff.getNextAttemptAt().toInstant().isAfter(now.plus(DUE_TOLERANCE));
+  }
+
+  /**
+   * Creates the new state after a failed attempt.
+   *
+   * @param providerId id of the provider
+   * @param report the failed report
+   * @param previous the previous state or null
+   * @param now time of the failed attempt
+   * @return the new state
+   */
+  public static RetryBackoff createFailedState(
+      String providerId, CounterReport report, RetryBackoff previous, Instant now) {
+    int failedCount =
+        (previous == null) ? 1 : Objects.requireNonNullElse(previous.getFailedCount(), 0) + 1;
+    return new RetryBackoff()
+        .withId(createId(providerId, report.getReportName(), report.getYearMonth()))
+        .withProviderId(providerId)
+        .withReportName(report.getReportName())
+        .withYearMonth(report.getYearMonth())
+        .withFailedCount(failedCount)
+        .withFailedReason(report.getFailedReason())
+        .withLastFailedAt(Date.from(now))
+        .withNextAttemptAt(Date.from(calculateNextAttempt(failedCount, now)));
+  }
+
+  public static Future<List<RetryBackoff>> getRetryBackoffs(
+      Vertx vertx, String tenantId, String providerId) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .get(
+            TABLE_NAME_RETRY_BACKOFF,
+            RetryBackoff.class,
+            new Criterion(createProviderIdCriteria(providerId)),
+            false)
+        .map(Results::getResults);
+  }
+
+  public static Future<Results<RetryBackoff>> getRetryBackoffs(
+      Vertx vertx, String tenantId, String providerId, int offset, int limit) {
+    CQLWrapper cql;
+    try {
+      cql =
+          new CQLWrapper(
+              new CQL2PgJSON(TABLE_NAME_RETRY_BACKOFF + ".jsonb"),
+              "cql.allRecords=1 sortBy nextAttemptAt",
+              limit,
+              offset);
+    } catch (FieldException e) {
+      return Future.failedFuture(e);
+    }
+    return PostgresClient.getInstance(vertx, tenantId)
+        .get(
+            TABLE_NAME_RETRY_BACKOFF,
+            RetryBackoff.class,
+            cql.addWrapper(new CQLWrapper(new Criterion(createProviderIdCriteria(providerId)))),
+            true);
+  }
+
+  public static Future<String> upsertRetryBackoff(
+      Vertx vertx, String tenantId, RetryBackoff retryBackoff) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .upsert(TABLE_NAME_RETRY_BACKOFF, retryBackoff.getId(), retryBackoff);
+  }
+
+  public static Future<Void> deleteRetryBackoff(Vertx vertx, String tenantId, String id) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .delete(TABLE_NAME_RETRY_BACKOFF, id)
+        .mapEmpty();
+  }
+
+  /**
+   * Deletes the retry backoff state of a provider, or of all providers if no providerId is given.
+   */
+  public static Future<Integer> deleteRetryBackoffs(
+      Vertx vertx, String tenantId, String providerId) {
+    return PostgresClient.getInstance(vertx, tenantId)
+        .delete(TABLE_NAME_RETRY_BACKOFF, new Criterion(createProviderIdCriteria(providerId)))
+        .map(rowSet -> rowSet.rowCount());
+  }
+
+  private static Criteria createProviderIdCriteria(String providerId) {
+    if (Strings.isNullOrEmpty(providerId)) {
+      return new Criteria();
+    }
+    return new Criteria()
+        .addField("'providerId'")
+        .setJSONB(true)
+        .setOperation("=")
+        .setVal(providerId);
+  }
+}
@@ -0,0 +1,219 @@
+package org.olf.erm.usage.harvester;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.folio.rest.jaxrs.model.Aggregator;
+import org.folio.rest.jaxrs.model.AggregatorSetting;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.HarvestingConfig;
+import org.folio.rest.jaxrs.model.Report;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+
+/**
+ * {@link ServiceEndpoint} that shares fetched reports between providers with the same fingerprint,
+ * e.g. providers of different tenants that use the same SUSHI account.
+ *
+ * <p>The fingerprint is a hash of everything that determines the requests of a provider: service
+ * type and URL, credentials, report release and aggregator settings. Concurrent fetches of the same
+ * report and months share a single request, and each provider gets its own copies of the fetched
+ * {@link CounterReport}s, carrying its own provider id. To share reports with providers harvested
+ * later in the same run, fetched reports can be kept for the number of seconds set by the {@value
+ * #RETENTION_SECONDS_ENV_VAR} environment variable. By default nothing is kept. Kept fetches are
+ * limited to {@value #MAX_CACHED_BYTES_ENV_VAR} (default {@value #DEFAULT_MAX_CACHED_BYTES}) bytes
+ * of JSON encoded reports, the ones that expire first are removed to stay within the limit.
+ *
+ * <p>Only fingerprints are used as keys, so credentials are never shared between tenants. Shared
+ * results are handed back on the context of each caller, not on the context of the caller that
+ * made the request.
+ */
+public class SharedFetchServiceEndpoint implements ServiceEndpoint {
+
+  public static final String RETENTION_SECONDS_ENV_VAR = "SHARED_FETCH_RETENTION_SECONDS";
+  public static final long DEFAULT_RETENTION_SECONDS = 0;
+  public static final String MAX_CACHED_BYTES_ENV_VAR = "SHARED_FETCH_MAX_CACHED_BYTES";
+  public static final long DEFAULT_MAX_CACHED_BYTES = 100L * 1024 * 1024;
+  private static final String SEPARATOR = "|";
+  private static final AsyncTtlCache<String, List<SharedReport>> fetches =
+      new AsyncTtlCache<>(
+          Duration.ofSeconds(getConfiguredRetentionSeconds()),
+          t -> false,
+          getConfiguredMaxCachedBytes(),
+          SharedFetchServiceEndpoint::getSize);
+  private final ServiceEndpoint delegate;
+  private final String fingerprint;
+  private final String providerId;
+
+  public SharedFetchServiceEndpoint(
+      ServiceEndpoint delegate, UsageDataProvider provider, AggregatorSetting aggregatorSetting) {
+    this.delegate = delegate;
+    this.fingerprint = createFingerprint(provider, aggregatorSetting);
+    this.providerId = provider.getId();
+  }
+
+  /**
+   * Creates the fingerprint of a provider. Providers with the same fingerprint request the same
+   * reports.
+   *
+   * @param provider provider
+   * @param aggregatorSetting AggregatorSetting of the provider, {@code null} if there is none
+   * @return SHA-256 hash of the request relevant settings
+   */
+  public static String createFingerprint(
+      UsageDataProvider provider, AggregatorSetting aggregatorSetting) {
+    HarvestingConfig config = provider.getHarvestingConfig();
+    Hasher hasher = Hashing.sha256().newHasher();
+    Stream.of(
+            config.getHarvestVia(),
+            config.getReportRelease(),
+            config.getSushiConfig(),
+            Optional.ofNullable(config.getAggregator()).map(Aggregator::getVendorCode).orElse(null),
+            provider.getSushiCredentials(),
+            Optional.ofNullable(aggregatorSetting)
+                .map(AggregatorSetting::getServiceType)
+                .orElse(null),
+            Optional.ofNullable(aggregatorSetting)
+                .map(AggregatorSetting::getServiceUrl)
+                .orElse(null),
+            Optional.ofNullable(aggregatorSetting)
+                .map(AggregatorSetting::getAggregatorConfig)
+                .orElse(null))
+        .forEach(o -> hasher.putString(Json.encode(o), StandardCharsets.UTF_8).putChar('\n'));
+    return hasher.hash().toString();
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public ServiceEndpoint getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public Future<List<String>> preflight(List<String> reportTypes) {
+    return delegate.preflight(reportTypes);
+  }
+
+  @Override
+  public Future<List<CounterReport>> fetchReport(String report, String beginDate, String endDate) {
+    Context context = Vertx.currentContext();
+    fetches.removeExpired();
+    AtomicBoolean requested = new AtomicBoolean();
+    Future<List<SharedReport>> future =
+        fetches.get(
+            String.join(SEPARATOR, fingerprint, report, beginDate, endDate),
+            () -> {
+              requested.set(true);
+              return delegate.fetchReport(report, beginDate, endDate).map(SharedReport::share);
+            });
+    return onContext(context, future)
+        .onComplete(
+            ar -> {
+              if (!requested.get()) {
+                HarvesterMetrics.countSharedFetch();
+              }
+            })
+        .map(this::copyReports);
+  }
+
+  /**
+   * Completes the returned future on the given context, as the shared future completes on the
+   * context of the caller that made the request.
+   */
+  private static <T> Future<T> onContext(Context context, Future<T> future) {
+    if (context == null) {
+      return future;
+    }
+    Promise<T> promise = Promise.promise();
+    future.onComplete(ar -> context.runOnContext(v -> promise.handle(ar)));
+    return promise.future();
+  }
+
+  private List<CounterReport> copyReports(List<SharedReport> sharedReports) {
+    if (sharedReports == null) {
+      return null;
+    }
+    return sharedReports.stream().map(sr -> sr.copy(providerId)).collect(Collectors.toList());
+  }
+
+  public static void clear() {
+    fetches.clear();
+  }
+
+  public static long getConfiguredRetentionSeconds() {
+    return Optional.ofNullable(System.getenv(RETENTION_SECONDS_ENV_VAR))
+        .map(Long::parseLong)
+        .orElse(DEFAULT_RETENTION_SECONDS);
+  }
+
+  public static long getConfiguredMaxCachedBytes() {
+    return Optional.ofNullable(System.getenv(MAX_CACHED_BYTES_ENV_VAR))
+        .map(Long::parseLong)
+        .orElse(DEFAULT_MAX_CACHED_BYTES);
+  }
+
+  /** Returns the size of fetched reports in bytes, when encoded as JSON. */
+  static long getSize(List<SharedReport> sharedReports) {
+    if (sharedReports == null) {
+      return 0;
+    }
+    return sharedReports.stream().mapToLong(SharedReport::getSize).sum();
+  }
+
+  /**
+   * A fetched {@link CounterReport}, split into its metadata and its report. The report is shared
+   * by all copies, as it is only read after fetching.
+   */
+  static class SharedReport {
+
+    private final JsonObject metadata;
+    private final Report report;
+
+    private SharedReport(JsonObject metadata, Report report) {
+      this.metadata = metadata;
+      this.report = report;
+    }
+
+    static List<SharedReport> share(List<CounterReport> counterReports) {
+      if (counterReports == null) {
+        return null;
+      }
+      return counterReports.stream().map(SharedReport::of).toList();
+    }
+
+    private static SharedReport of(CounterReport counterReport) {
+      Report report = counterReport.getReport();
+      counterReport.setReport(null);
+      JsonObject metadata = JsonObject.mapFrom(counterReport);
+      counterReport.setReport(report);
+      return new SharedReport(metadata, report);
+    }
+
+    private long getSize() {
+      return metadata.toBuffer().length() + Json.encodeToBuffer(report).length();
+    }
+
+    private CounterReport copy(String providerId) {
+      CounterReport copy = metadata.mapTo(CounterReport.class);
+      if (copy.getId() != null) {
+        copy.setId(UUID.randomUUID().toString());
+      }
+      return copy.withProviderId(providerId).withReport(report);
+    }
+  }
+}
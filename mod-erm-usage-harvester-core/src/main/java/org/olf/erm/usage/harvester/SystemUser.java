@@ -17,6 +17,11 @@ public class SystemUser {
     this.password = password;
   }
 
+  /** Returns whether a username and password are configured. */
+  public boolean hasCredentials() {
+    return username != null && password != null;
+  }
+
   public JsonObject toJsonObject() {
     return new JsonObject().put("username", username).put("password", password);
   }
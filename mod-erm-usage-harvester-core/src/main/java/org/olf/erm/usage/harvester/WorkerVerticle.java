@@ -9,31 +9,45 @@ import static org.olf.erm.usage.harvester.Messages.createMsgStatus;
 import static org.olf.erm.usage.harvester.WorkerVerticle.QueueItem.createQueueItemList;
 import static org.olf.erm.usage.harvester.endpoints.ServiceEndpoint.createCounterReport;
 
+import io.micrometer.core.instrument.Meter;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.HarvestStats;
+import org.folio.rest.jaxrs.model.RetryBackoff;
+import org.folio.rest.jaxrs.model.SushiConfig;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.olf.erm.usage.harvester.client.ExtConfigurationsClient;
 import org.olf.erm.usage.harvester.client.ExtCounterReportsClient;
 import org.olf.erm.usage.harvester.client.ExtUsageDataProvidersClient;
+import org.olf.erm.usage.harvester.endpoints.FatalProviderException;
 import org.olf.erm.usage.harvester.endpoints.InvalidReportException;
+import org.olf.erm.usage.harvester.endpoints.ReportNotAvailableException;
 import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+import org.olf.erm.usage.harvester.endpoints.ServiceUnavailableException;
 import org.olf.erm.usage.harvester.endpoints.TooManyRequestsException;
+import org.olf.erm.usage.harvester.jfr.FetchEvent;
+import org.olf.erm.usage.harvester.jfr.HarvestEvent;
+import org.olf.erm.usage.harvester.jfr.UploadEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class WorkerVerticle extends AbstractVerticle {
 
   private static final Logger log = LoggerFactory.getLogger(WorkerVerticle.class);
-  private static final String CONFIG_MODULE = "ERM-USAGE-HARVESTER";
+  public static final String CONFIG_MODULE = "ERM-USAGE-HARVESTER";
   private static final String CONFIG_NAME = "maxFailedAttempts";
   private static final int RETRY_COUNT_TOO_MANY_REQUESTS = 2;
   private static final int MAX_FAILED_UPLOAD_COUNT = 5;
@@ -48,6 +62,12 @@ public class WorkerVerticle extends AbstractVerticle {
   private final String tenantId;
   private final LinkedBlockingQueue<QueueItem> queue = new LinkedBlockingQueue<>();
   private int maxConcurrency;
+  private ReportIndex reportIndex = new ReportIndex();
+  private final Map<String, RetryBackoff> retryBackoffs = new ConcurrentHashMap<>();
+  private JsonObject publicationLag;
+  private ProgressTracker progressTracker;
+  private List<Meter> gauges = List.of();
+  private final HarvestStatsCollector statsCollector = new HarvestStatsCollector();
 
   public WorkerVerticle(
       ExtConfigurationsClient configurationsClient,
@@ -66,6 +86,16 @@ public class WorkerVerticle extends AbstractVerticle {
     this.maxConcurrency = initialConcurrency;
   }
 
+  /** Sets the tracker that the progress is reported to, must be called before deployment. */
+  public void setProgressTracker(ProgressTracker progressTracker) {
+    this.progressTracker = progressTracker;
+  }
+
+  /** Returns the performance statistics collected so far. */
+  public HarvestStats getStats() {
+    return statsCollector.getStats();
+  }
+
   public Future<Void> getFinished() {
     return finished
         .future()
@@ -76,10 +106,16 @@ public class WorkerVerticle extends AbstractVerticle {
   @Override
   public void start() {
     logInfo("Deploying WorkerVerticle");
+    context.put(HarvestEvent.CONTEXT_TENANT, tenantId);
+    statsCollector.attach(context);
+    if (progressTracker == null) {
+      progressTracker = new ProgressTracker(vertx, tenantId, usageDataProvider.getId(), null);
+    }
     updateUDPLastHarvestingDate();
 
     getMaxFailedAttempts()
         .compose(this::getFetchList)
+        .compose(this::preflight)
         .onSuccess(
             items -> {
               if (items.isEmpty()) {
@@ -87,6 +123,11 @@ public class WorkerVerticle extends AbstractVerticle {
                 return;
               }
               queue.addAll(createQueueItemList(items, 0));
+              updateProgress();
+              progressTracker.start();
+              gauges =
+                  HarvesterMetrics.registerWorkerGauges(
+                      tenantId, usageDataProvider.getId(), queue::size, currentTasks::get);
               for (int i = 1; i <= maxConcurrency; i++) {
                 startNext();
               }
@@ -109,6 +150,8 @@ public class WorkerVerticle extends AbstractVerticle {
   private void undeploy() {
     finished.tryComplete();
     queue.clear();
+    progressTracker.finish();
+    HarvesterMetrics.remove(gauges);
     if (vertx.deploymentIDs().contains(context.deploymentID())) {
       vertx
           .undeploy(context.deploymentID())
@@ -122,12 +165,15 @@ public class WorkerVerticle extends AbstractVerticle {
     if (currentTasks.get() < maxConcurrency) {
       QueueItem queueItem = queue.poll();
       if (queueItem != null) {
-        currentTasks.incrementAndGet();
+        statsCollector.itemStarted(currentTasks.incrementAndGet());
+        updateProgress();
         fetchReport(queueItem)
             .compose(this::uploadReports)
             .onComplete(
                 ar -> {
                   currentTasks.decrementAndGet();
+                  progressTracker.itemProcessed();
+                  updateProgress();
                   startNext();
                 });
       }
@@ -137,17 +183,60 @@ public class WorkerVerticle extends AbstractVerticle {
   private Future<List<CounterReport>> fetchReport(QueueItem queueItem) {
     FetchItem item = queueItem.item;
     logInfo("processing {}", item);
+    FetchEvent event =
+        new FetchEvent(
+            usageDataProvider.getId(), item.getReportType(), item.getBegin(), item.getEnd());
+    event.begin();
+    long start = System.nanoTime();
     return serviceEndpoint
         .fetchReport(item.getReportType(), item.getBegin(), item.getEnd())
+        .onComplete(
+            ar -> {
+              long duration = System.nanoTime() - start;
+              HarvesterMetrics.recordFetch(getServiceType(), getHost(), ar.succeeded(), duration);
+              statsCollector.fetched(ar.succeeded(), duration);
+              event.setReports((ar.succeeded() && ar.result() != null) ? ar.result().size() : 0);
+              event.setResult(ar.cause());
+              event.commit();
+            })
         .otherwise(t -> handleFailedReport(queueItem, t));
   }
 
+  private String getServiceType() {
+    SushiConfig sushiConfig =
+        (usageDataProvider.getHarvestingConfig() == null)
+            ? null
+            : usageDataProvider.getHarvestingConfig().getSushiConfig();
+    return (sushiConfig == null) ? null : sushiConfig.getServiceType();
+  }
+
+  private String getHost() {
+    return CircuitBreakingServiceEndpoint.find(serviceEndpoint)
+        .map(CircuitBreakingServiceEndpoint::getHost)
+        .orElse(null);
+  }
+
   private List<CounterReport> handleFailedReport(QueueItem queueItem, Throwable t) {
     FetchItem item = queueItem.item;
     logInfo("{} Received {}", item, getMessageOrToString(t));
+    HarvesterMetrics.countFetchError(t);
+    if (t instanceof FatalProviderException) {
+      // stop the provider, remaining months stay untouched for the next run
+      logInfo("Fatal provider error.. stopping with {} FetchItems left in queue", queue.size());
+      queue.clear();
+      finished.tryFail(t);
+      undeploy();
+      return Collections.emptyList();
+    }
+    if (t instanceof CircuitOpenException) {
+      // host is unreachable, leave the month untouched for the next run
+      return Collections.emptyList();
+    }
     if (t instanceof TooManyRequestsException) {
       maxConcurrency = 1;
-      if (queueItem.retryCount < RETRY_COUNT_TOO_MANY_REQUESTS) {
+      boolean retry = queueItem.retryCount < RETRY_COUNT_TOO_MANY_REQUESTS;
+      statsCollector.tooManyRequests(retry);
+      if (retry) {
         logInfo("Too many requests.. adding {} back to queue", item);
         queue.add(new QueueItem(item, queueItem.retryCount + 1));
         return Collections.emptyList();
@@ -163,11 +252,15 @@ public class WorkerVerticle extends AbstractVerticle {
       List<FetchItem> expand = expand(item);
       // handle failed single month
       if (expand.size() <= 1) {
+        if (t instanceof ReportNotAvailableException) {
+          updatePublicationLag(item);
+        }
         logInfo("Returning null for {}", item);
         return createFailedReports(expand, t);
       } else {
         // handle failed multiple months
         logInfo("Expanded {} into {} FetchItems", item, expand.size());
+        statsCollector.itemExpanded();
         queue.addAll(createQueueItemList(expand, 0));
         return Collections.emptyList();
       }
@@ -199,42 +292,230 @@ public class WorkerVerticle extends AbstractVerticle {
   }
 
   private Future<Void> uploadReports(List<CounterReport> crs) {
-    return chainCall(
-        crs,
-        cr ->
-            counterReportsClient
-                .upsertReport(cr)
-                .onSuccess(
-                    resp -> {
-                      if (resp.statusCode() / 100 != 2) {
-                        failedUploadCount.incrementAndGet();
-                      } else {
-                        failedUploadCount.set(0);
-                      }
-                      logInfo(
-                          "Upload of {} {}",
-                          counterReportToString(cr),
-                          createMsgStatus(resp.statusCode(), resp.statusMessage()));
-                    })
-                .onFailure(
-                    t -> {
-                      failedUploadCount.incrementAndGet();
-                      log.error(createMsg("{} {}", counterReportToString(cr), t.getMessage()));
-                    })
-                .transform(
-                    ar -> {
-                      if (failedUploadCount.get() >= MAX_FAILED_UPLOAD_COUNT) {
-                        String msg =
-                            "Stopping after "
-                                + MAX_FAILED_UPLOAD_COUNT
-                                + " failed uploads in a row";
-                        finished.tryFail(msg);
-                        undeploy();
-                        return failedFuture(msg);
-                      } else {
-                        return succeededFuture();
-                      }
-                    }));
+    return chainCall(crs, this::uploadReport);
+  }
+
+  private Future<Void> uploadReport(CounterReport cr) {
+    String hash = ReportHashPgUtil.createHash(cr);
+    return isUnchanged(cr, hash)
+        .compose(
+            unchanged -> {
+              if (Boolean.TRUE.equals(unchanged)) {
+                logInfo("Skipping upload of {}, content unchanged", counterReportToString(cr));
+                updateHash(cr, hash);
+                return succeededFuture();
+              }
+              return upsertReport(cr, hash);
+            });
+  }
+
+  /**
+   * Checks if the content of a report equals the content of the last successful upload and if that
+   * upload is still present and valid.
+   */
+  private Future<Boolean> isUnchanged(CounterReport cr, String hash) {
+    if (hash == null) {
+      return succeededFuture(false);
+    }
+    return ReportHashPgUtil.getHash(vertx, tenantId, cr)
+        .compose(
+            storedHash -> {
+              CounterReport existing = reportIndex.get(cr.getReportName(), cr.getYearMonth());
+              return succeededFuture(
+                  hash.equals(storedHash)
+                      && existing != null
+                      && existing.getFailedAttempts() == null);
+            })
+        .otherwise(false);
+  }
+
+  private void updateHash(CounterReport cr, String hash) {
+    Future<?> future =
+        (hash == null)
+            ? ReportHashPgUtil.deleteHash(vertx, tenantId, cr)
+            : ReportHashPgUtil.upsertHash(vertx, tenantId, cr, hash);
+    future.onFailure(
+        t ->
+            log.error(
+                createMsg(
+                    "Error updating content hash of {}: {}",
+                    counterReportToString(cr),
+                    t.getMessage())));
+  }
+
+  private void updateRetryBackoff(CounterReport cr) {
+    String id =
+        RetryBackoffPgUtil.createId(
+            usageDataProvider.getId(), cr.getReportName(), cr.getYearMonth());
+    Future<?> future;
+    if (cr.getFailedAttempts() != null) {
+      RetryBackoff retryBackoff =
+          RetryBackoffPgUtil.createFailedState(
+              usageDataProvider.getId(),
+              cr,
+              retryBackoffs.get(id),
+              Instant.now(ClockProvider.getClock()));
+      retryBackoffs.put(id, retryBackoff);
+      future = RetryBackoffPgUtil.upsertRetryBackoff(vertx, tenantId, retryBackoff);
+    } else if (retryBackoffs.remove(id) != null) {
+      future = RetryBackoffPgUtil.deleteRetryBackoff(vertx, tenantId, id);
+    } else {
+      return;
+    }
+    future.onFailure(
+        t ->
+            log.error(
+                createMsg(
+                    "Error updating retry backoff of {}: {}",
+                    counterReportToString(cr),
+                    t.getMessage())));
+  }
+
+  /** Records that the month of a FetchItem was reported as not available by the provider. */
+  private void updatePublicationLag(FetchItem item) {
+    if (publicationLag != null
+        && PublicationLagPgUtil.recordNotAvailable(
+            publicationLag,
+            getYearMonthFromString(item.getBegin()),
+            LocalDate.now(ClockProvider.getClock()))) {
+      savePublicationLag();
+    }
+  }
+
+  /** Records that the month of a successfully uploaded report was available. */
+  private void updatePublicationLag(CounterReport cr) {
+    if (publicationLag != null
+        && cr.getFailedAttempts() == null
+        && PublicationLagPgUtil.recordAvailable(
+            publicationLag, getYearMonthFromString(cr.getYearMonth()))) {
+      savePublicationLag();
+    }
+  }
+
+  private void savePublicationLag() {
+    PublicationLagPgUtil.upsertPublicationLag(vertx, tenantId, publicationLag)
+        .onFailure(
+            t -> log.error(createMsg("Error updating publication lag: {}", t.getMessage())));
+  }
+
+  /** Removes FetchItems of months that the provider is not expected to have published yet. */
+  private Future<List<FetchItem>> filterPublishedItems(List<FetchItem> items) {
+    return PublicationLagPgUtil.getPublicationLag(vertx, tenantId, usageDataProvider.getId())
+        .map(
+            lag -> {
+              publicationLag = lag;
+              long holdBackDays = PublicationLagPgUtil.getHoldBackDays(lag);
+              LocalDate today = LocalDate.now(ClockProvider.getClock());
+              List<FetchItem> publishedItems =
+                  items.stream()
+                      .filter(
+                          item ->
+                              PublicationLagPgUtil.isPublished(
+                                  getYearMonthFromString(item.getBegin()), holdBackDays, today))
+                      .toList();
+              if (publishedItems.size() < items.size()) {
+                logInfo(
+                    "Deferring {} FetchItems not expected to be published before {} days after"
+                        + " the end of the month",
+                    items.size() - publishedItems.size(),
+                    holdBackDays);
+              }
+              return publishedItems;
+            })
+        .otherwise(
+            t -> {
+              log.error(createMsg("Error getting publication lag: {}", t.getMessage()));
+              return items;
+            });
+  }
+
+  /** Removes FetchItems of months that are not due for another attempt yet. */
+  private Future<List<FetchItem>> filterDueItems(List<FetchItem> items) {
+    return RetryBackoffPgUtil.getRetryBackoffs(vertx, tenantId, usageDataProvider.getId())
+        .map(
+            list -> {
+              list.forEach(rb -> retryBackoffs.put(rb.getId(), rb));
+              Instant now = Instant.now(ClockProvider.getClock());
+              List<FetchItem> dueItems =
+                  items.stream()
+                      .filter(
+                          item ->
+                              RetryBackoffPgUtil.isDue(
+                                  retryBackoffs.get(
+                                      RetryBackoffPgUtil.createId(
+                                          usageDataProvider.getId(),
+                                          item.getReportType(),
+                                          getYearMonthFromString(item.getBegin()).toString())),
+                                  now))
+                      .toList();
+              if (dueItems.size() < items.size()) {
+                logInfo(
+                    "Deferring {} FetchItems due to retry backoff", items.size() - dueItems.size());
+              }
+              return dueItems;
+            })
+        .otherwise(
+            t -> {
+              log.error(createMsg("Error getting retry backoff state: {}", t.getMessage()));
+              return items;
+            });
+  }
+
+  private Future<Void> upsertReport(CounterReport cr, String hash) {
+    UploadEvent event =
+        new UploadEvent(usageDataProvider.getId(), cr.getReportName(), cr.getYearMonth());
+    event.begin();
+    long start = System.nanoTime();
+    return counterReportsClient
+        .upsertReport(cr, reportIndex.get(cr.getReportName(), cr.getYearMonth()))
+        .onComplete(
+            ar -> {
+              long duration = System.nanoTime() - start;
+              HarvesterMetrics.recordUpload(
+                  ar.succeeded() ? ar.result().statusCode() : null, duration);
+              if (ar.succeeded() && ar.result().statusCode() / 100 == 2) {
+                statsCollector.uploaded(cr.getFailedReason() != null, duration);
+              } else {
+                statsCollector.uploadFailed(duration);
+              }
+              event.setStatusCode(ar.succeeded() ? ar.result().statusCode() : 0);
+              event.setResult(ar.cause());
+              event.commit();
+            })
+        .onSuccess(
+            resp -> {
+              if (resp.statusCode() / 100 != 2) {
+                failedUploadCount.incrementAndGet();
+              } else {
+                failedUploadCount.set(0);
+                progressTracker.reportUploaded(cr.getFailedReason() != null);
+                reportIndex.put(cr);
+                updateHash(cr, hash);
+                updateRetryBackoff(cr);
+                updatePublicationLag(cr);
+              }
+              logInfo(
+                  "Upload of {} {}",
+                  counterReportToString(cr),
+                  createMsgStatus(resp.statusCode(), resp.statusMessage()));
+            })
+        .onFailure(
+            t -> {
+              failedUploadCount.incrementAndGet();
+              log.error(createMsg("{} {}", counterReportToString(cr), t.getMessage()));
+            })
+        .transform(
+            ar -> {
+              if (failedUploadCount.get() >= MAX_FAILED_UPLOAD_COUNT) {
+                String msg =
+                    "Stopping after " + MAX_FAILED_UPLOAD_COUNT + " failed uploads in a row";
+                finished.tryFail(msg);
+                undeploy();
+                return failedFuture(msg);
+              } else {
+                return succeededFuture();
+              }
+            });
   }
 
   private Future<Integer> getMaxFailedAttempts() {
@@ -250,18 +531,56 @@ public class WorkerVerticle extends AbstractVerticle {
 
   private Future<List<FetchItem>> getFetchList(int maxFailedAttempts) {
     return counterReportsClient
-        .getFetchList(usageDataProvider, maxFailedAttempts)
+        .getFetchPlan(usageDataProvider, maxFailedAttempts)
         .map(
-            list -> {
+            plan -> {
+              reportIndex = plan.getReportIndex();
+              List<FetchItem> list = plan.getFetchItems();
               if (list.isEmpty()) {
                 logInfo("No reports need to be fetched.");
               }
               return list;
             })
+        .compose(this::filterDueItems)
+        .compose(this::filterPublishedItems)
         .map(FetchListUtil::collapse)
         .onFailure(t -> logInfo(t.getMessage()));
   }
 
+  /**
+   * Runs the preflight of the {@link ServiceEndpoint} and removes FetchItems of report types that
+   * are not offered by the provider. Fails if the service is not available.
+   */
+  private Future<List<FetchItem>> preflight(List<FetchItem> items) {
+    if (items.isEmpty()) {
+      return succeededFuture(items);
+    }
+    List<String> reportTypes = items.stream().map(FetchItem::getReportType).distinct().toList();
+    return serviceEndpoint
+        .preflight(reportTypes)
+        .map(
+            offered -> {
+              List<String> notOffered =
+                  reportTypes.stream().filter(rt -> !offered.contains(rt)).toList();
+              if (notOffered.isEmpty()) {
+                return items;
+              }
+              logInfo("Skipping reports not offered by the provider: {}", notOffered);
+              return items.stream()
+                  .filter(item -> offered.contains(item.getReportType()))
+                  .toList();
+            })
+        .recover(
+            t -> {
+              if (t instanceof ServiceUnavailableException
+                  || t instanceof FatalProviderException) {
+                return failedFuture(t);
+              }
+              logInfo("Preflight failed: {}", getMessageOrToString(t));
+              return succeededFuture(items);
+            });
+  }
+
   private void updateUDPLastHarvestingDate() {
     usageDataProvidersClient
         .updateUDPLastHarvestingDate(usageDataProvider, Date.from(Instant.now()))
@@ -286,6 +605,10 @@ public class WorkerVerticle extends AbstractVerticle {
         .toList();
   }
 
+  private void updateProgress() {
+    progressTracker.update(queue.size(), currentTasks.get());
+  }
+
   private String createMsg(String pattern, Object... args) {
     return Messages.createTenantProviderMsg(tenantId, usageDataProvider.getLabel(), pattern, args);
   }
@@ -0,0 +1,34 @@
+package org.olf.erm.usage.harvester.client;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/** An access token and its expiration, as returned by a login. */
+public class AccessToken {
+
+  private final String token;
+  private final Instant expiresAt;
+
+  /**
+   * Creates a new access token.
+   *
+   * @param token the token
+   * @param expiresAt expiration of the token, {@code null} if the token does not expire
+   */
+  public AccessToken(String token, Instant expiresAt) {
+    this.token = Objects.requireNonNull(token);
+    this.expiresAt = expiresAt;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public Instant getExpiresAt() {
+    return expiresAt;
+  }
+
+  public boolean isExpiredAt(Instant instant) {
+    return expiresAt != null && !instant.isBefore(expiresAt);
+  }
+}
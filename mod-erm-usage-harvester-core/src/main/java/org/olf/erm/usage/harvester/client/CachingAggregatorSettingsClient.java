@@ -0,0 +1,63 @@
+package org.olf.erm.usage.harvester.client;
+
+import io.vertx.core.Future;
+import java.time.Duration;
+import java.util.Optional;
+import org.folio.rest.jaxrs.model.Aggregator;
+import org.folio.rest.jaxrs.model.AggregatorSetting;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.olf.erm.usage.harvester.AsyncTtlCache;
+
+/**
+ * {@link ExtAggregatorSettingsClient} that caches AggregatorSettings per tenant, so that
+ * harvesting a tenant requests each AggregatorSetting once instead of once per provider harvested
+ * through it.
+ *
+ * <p>AggregatorSettings are cached for {@value #DEFAULT_TTL_SECONDS} seconds by default, which can
+ * be configured with the {@value #TTL_SECONDS_ENV_VAR} environment variable.
+ */
+public class CachingAggregatorSettingsClient implements ExtAggregatorSettingsClient {
+
+  public static final String TTL_SECONDS_ENV_VAR = "AGGREGATOR_SETTING_CACHE_TTL_SECONDS";
+  public static final long DEFAULT_TTL_SECONDS = 300;
+  private static final String SEPARATOR = "|";
+  private static final AsyncTtlCache<String, AggregatorSetting> cache =
+      new AsyncTtlCache<>(Duration.ofSeconds(getConfiguredTtlSeconds()));
+  private final String tenantId;
+  private final ExtAggregatorSettingsClient delegate;
+
+  public CachingAggregatorSettingsClient(String tenantId, ExtAggregatorSettingsClient delegate) {
+    this.tenantId = tenantId;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Future<AggregatorSetting> getAggregatorSetting(UsageDataProvider provider) {
+    String aggregatorId =
+        Optional.ofNullable(provider.getHarvestingConfig().getAggregator())
+            .map(Aggregator::getId)
+            .orElse(null);
+    if (aggregatorId == null) {
+      return delegate.getAggregatorSetting(provider);
+    }
+    return cache.get(
+        String.join(SEPARATOR, tenantId, aggregatorId),
+        () -> delegate.getAggregatorSetting(provider));
+  }
+
+  /** Removes all cached AggregatorSettings of a tenant. */
+  public static void invalidate(String tenantId) {
+    String prefix = tenantId + SEPARATOR;
+    cache.invalidateIf(key -> key.startsWith(prefix));
+  }
+
+  public static void clear() {
+    cache.clear();
+  }
+
+  public static long getConfiguredTtlSeconds() {
+    return Optional.ofNullable(System.getenv(TTL_SECONDS_ENV_VAR))
+        .map(Long::parseLong)
+        .orElse(DEFAULT_TTL_SECONDS);
+  }
+}
@@ -0,0 +1,24 @@
+package org.olf.erm.usage.harvester.client;
+
+import io.vertx.core.Future;
+
+/** {@link ExtConfigurationsClient} that serves values from the {@link ConfigurationCache}. */
+public class CachingConfigurationsClient implements ExtConfigurationsClient {
+
+  private final String tenantId;
+  private final ExtConfigurationsClient delegate;
+
+  public CachingConfigurationsClient(String tenantId, ExtConfigurationsClient delegate) {
+    this.tenantId = tenantId;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Future<String> getModConfigurationValue(String module, String configName) {
+    return ConfigurationCache.get(
+        tenantId,
+        module,
+        configName,
+        () -> delegate.getModConfigurationValue(module, configName));
+  }
+}
@@ -0,0 +1,158 @@
+package org.olf.erm.usage.harvester.client;
+
+import static org.olf.erm.usage.harvester.client.ExtConfigurationsClientImpl.NO_ENTRY;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.AsyncMap;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.olf.erm.usage.harvester.AsyncTtlCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches mod-configuration values per tenant, so that the harvest of a tenant requests each value
+ * once instead of once per provider. Missing configuration entries are cached as well.
+ *
+ * <p>Values are cached for {@value #DEFAULT_TTL_SECONDS} seconds by default, which can be
+ * configured with the {@value #TTL_SECONDS_ENV_VAR} environment variable. If {@value
+ * #CLUSTERED_ENV_VAR} is set to {@code true} and Vert.x is clustered, values are additionally
+ * shared with all nodes through a cluster-wide map. Invalidations are published to all nodes.
+ */
+public class ConfigurationCache {
+
+  public static final String TTL_SECONDS_ENV_VAR = "CONFIGURATION_CACHE_TTL_SECONDS";
+  public static final String CLUSTERED_ENV_VAR = "CONFIGURATION_CACHE_CLUSTERED";
+  public static final long DEFAULT_TTL_SECONDS = 300;
+  public static final String INVALIDATE_ADDRESS = "erm-usage-harvester.configurations.invalidate";
+  static final String MAP_NAME = "erm-usage-harvester.configurations";
+  private static final Logger log = LoggerFactory.getLogger(ConfigurationCache.class);
+  private static final String SEPARATOR = "|";
+  private static final String VALUE = "value";
+  private static final AsyncTtlCache<String, String> cache =
+      new AsyncTtlCache<>(
+          Duration.ofSeconds(getConfiguredTtlSeconds()), t -> NO_ENTRY.equals(t.getMessage()));
+  private static Vertx vertx;
+  private static boolean clustered = false;
+
+  private ConfigurationCache() {}
+
+  /**
+   * Starts consuming invalidations published by other nodes and enables the cluster-wide map if
+   * configured.
+   */
+  public static synchronized void register(Vertx vertx) {
+    if (ConfigurationCache.vertx != null) {
+      return;
+    }
+    ConfigurationCache.vertx = vertx;
+    clustered =
+        vertx.isClustered()
+            && Optional.ofNullable(System.getenv(CLUSTERED_ENV_VAR))
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+    vertx.eventBus().<String>consumer(INVALIDATE_ADDRESS, msg -> invalidateLocal(msg.body()));
+  }
+
+  /**
+   * Returns the cached value of a configuration entry or loads it.
+   *
+   * @param tenantId tenant id
+   * @param module module of the configuration entry
+   * @param configName name of the configuration entry
+   * @param loader loads the value, fails with {@link ExtConfigurationsClientImpl#NO_ENTRY} if
+   *     there is no entry
+   */
+  public static Future<String> get(
+      String tenantId, String module, String configName, Supplier<Future<String>> loader) {
+    String key = String.join(SEPARATOR, tenantId, module, configName);
+    return cache.get(key, () -> clustered ? getClusterWide(key, loader) : loader.get());
+  }
+
+  /** Gets a value from the cluster-wide map, or loads it and puts it into the map. */
+  private static Future<String> getClusterWide(String key, Supplier<Future<String>> loader) {
+    return getClusterWideMap()
+        .compose(
+            map ->
+                map.get(key)
+                    .compose(
+                        entry ->
+                            (entry != null)
+                                ? toValue(entry)
+                                : loader.get().transform(ar -> share(map, key, ar))));
+  }
+
+  private static Future<String> share(
+      AsyncMap<String, JsonObject> map, String key, AsyncResult<String> ar) {
+    if (ar.failed() && !NO_ENTRY.equals(ar.cause().getMessage())) {
+      return Future.failedFuture(ar.cause());
+    }
+    JsonObject entry = new JsonObject().put(VALUE, ar.result());
+    return map.put(key, entry, getTtlMillis())
+        .otherwise(
+            t -> {
+              log.warn("Error sharing configuration value {}: {}", key, t.getMessage());
+              return null;
+            })
+        .compose(v -> toValue(entry));
+  }
+
+  private static Future<AsyncMap<String, JsonObject>> getClusterWideMap() {
+    return vertx.sharedData().getClusterWideMap(MAP_NAME);
+  }
+
+  private static Future<String> toValue(JsonObject entry) {
+    String value = entry.getString(VALUE);
+    return (value == null) ? Future.failedFuture(NO_ENTRY) : Future.succeededFuture(value);
+  }
+
+  /** Removes all cached values of a tenant, on all nodes. */
+  public static void invalidate(String tenantId) {
+    String prefix = tenantId + SEPARATOR;
+    invalidateLocal(prefix);
+    if (vertx != null) {
+      vertx.eventBus().publish(INVALIDATE_ADDRESS, prefix);
+    }
+    if (clustered) {
+      getClusterWideMap()
+          .compose(
+              map ->
+                  map.keys()
+                      .compose(
+                          keys ->
+                              Future.join(
+                                  keys.stream()
+                                      .filter(k -> k.startsWith(prefix))
+                                      .map(map::remove)
+                                      .toList())))
+          .onFailure(
+              t ->
+                  log.warn(
+                      "Tenant: {}, error invalidating shared configuration values: {}",
+                      tenantId,
+                      t.getMessage()));
+    }
+  }
+
+  private static void invalidateLocal(String prefix) {
+    cache.invalidateIf(key -> key.startsWith(prefix));
+  }
+
+  public static void clear() {
+    cache.clear();
+  }
+
+  public static long getConfiguredTtlSeconds() {
+    return Optional.ofNullable(System.getenv(TTL_SECONDS_ENV_VAR))
+        .map(Long::parseLong)
+        .orElse(DEFAULT_TTL_SECONDS);
+  }
+
+  private static long getTtlMillis() {
+    return Duration.ofSeconds(getConfiguredTtlSeconds()).toMillis();
+  }
+}
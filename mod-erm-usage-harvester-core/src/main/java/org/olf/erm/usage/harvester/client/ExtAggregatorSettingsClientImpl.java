@@ -17,14 +17,25 @@ public class ExtAggregatorSettingsClientImpl extends AggregatorSettingsClient
     implements ExtAggregatorSettingsClient {
 
   public static final String PATH = "/aggregator-settings";
+  private final TokenizedClient<AggregatorSettingsClient> client;
 
   public ExtAggregatorSettingsClientImpl(String okapiUrl, String tenantId, String token) {
-    super(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
+    this(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
   }
 
   public ExtAggregatorSettingsClientImpl(
       String okapiUrl, String tenantId, String token, WebClient webClient) {
     super(okapiUrl, tenantId, token, webClient);
+    this.client = new TokenizedClient<>(TokenSupplier.of(token), t -> this);
+  }
+
+  /** Creates a client that sends the token returned by {@code tokenSupplier} with each request. */
+  public ExtAggregatorSettingsClientImpl(
+      String okapiUrl, String tenantId, TokenSupplier tokenSupplier, WebClient webClient) {
+    super(okapiUrl, tenantId, null, webClient);
+    this.client =
+        new TokenizedClient<>(
+            tokenSupplier, t -> new AggregatorSettingsClient(okapiUrl, tenantId, t, webClient));
   }
 
   @Override
@@ -34,7 +45,8 @@ public class ExtAggregatorSettingsClientImpl extends AggregatorSettingsClient
       return failedFuture(format("No aggregator present for provider %s", provider.getLabel()));
     }
 
-    return super.getAggregatorSettingsById(aggregator.getId(), null)
+    return client
+        .send(c -> c.getAggregatorSettingsById(aggregator.getId(), null))
         .transform(ar -> getResponseBodyIfStatus200(ar, AggregatorSetting.class))
         .transform(
             ar ->
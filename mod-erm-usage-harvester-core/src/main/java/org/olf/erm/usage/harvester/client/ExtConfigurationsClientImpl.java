@@ -17,20 +17,32 @@ public class ExtConfigurationsClientImpl extends ConfigurationsClient
 
   public static final String PATH = "/configurations/entries"; // NOSONAR
   public static final String NO_ENTRY = "No configuration entry found";
+  private final TokenizedClient<ConfigurationsClient> client;
 
   public ExtConfigurationsClientImpl(String okapiUrl, String tenantId, String token) {
-    super(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
+    this(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
   }
 
   public ExtConfigurationsClientImpl(
       String okapiUrl, String tenantId, String token, WebClient webClient) {
     super(okapiUrl, tenantId, token, webClient);
+    this.client = new TokenizedClient<>(TokenSupplier.of(token), t -> this);
+  }
+
+  /** Creates a client that sends the token returned by {@code tokenSupplier} with each request. */
+  public ExtConfigurationsClientImpl(
+      String okapiUrl, String tenantId, TokenSupplier tokenSupplier, WebClient webClient) {
+    super(okapiUrl, tenantId, null, webClient);
+    this.client =
+        new TokenizedClient<>(
+            tokenSupplier, t -> new ConfigurationsClient(okapiUrl, tenantId, t, webClient));
   }
 
   @Override
   public Future<String> getModConfigurationValue(String module, String configName) {
     final String queryStr = format("(module = %s and configName = %s)", module, configName);
-    return super.getConfigurationsEntries(queryStr, 0, 1, null, null)
+    return client
+        .send(c -> c.getConfigurationsEntries(queryStr, 0, 1, null, null))
         .transform(ar -> getResponseBodyIfStatus200(ar, Configs.class))
         .flatMap(
             config ->
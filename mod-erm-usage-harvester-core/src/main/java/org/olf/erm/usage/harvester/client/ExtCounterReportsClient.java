@@ -8,6 +8,7 @@ import java.util.List;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.olf.erm.usage.harvester.FetchItem;
+import org.olf.erm.usage.harvester.FetchPlan;
 
 public interface ExtCounterReportsClient {
 
@@ -19,6 +20,16 @@ public interface ExtCounterReportsClient {
 
   Future<HttpResponse<Buffer>> upsertReport(CounterReport report);
 
+  /**
+   * Uploads a report using an already known existing report. POSTs the report if {@code existing}
+   * is null and PUTs it otherwise. Falls back to {@link #upsertReport(CounterReport)} if the
+   * request fails due to a conflicting or missing record.
+   *
+   * @param report the report to upload
+   * @param existing the existing report as returned by {@link #getFetchPlan}, or null
+   */
+  Future<HttpResponse<Buffer>> upsertReport(CounterReport report, CounterReport existing);
+
   /**
    * Returns a List of FetchItems/Months that need fetching.
    *
@@ -27,6 +38,27 @@ public interface ExtCounterReportsClient {
    */
   Future<List<FetchItem>> getFetchList(UsageDataProvider provider, int maxFailedAttempts);
 
+  /**
+   * Returns a {@link FetchPlan} containing the FetchItems/Months that need fetching and an index of
+   * all existing reports in the harvesting period, including failed ones.
+   *
+   * @param provider UsageDataProvider
+   * @param maxFailedAttempts number of max failed attempts
+   */
+  Future<FetchPlan> getFetchPlan(UsageDataProvider provider, int maxFailedAttempts);
+
+  /**
+   * Returns all existing reports of a provider and report type in a period. Reports are returned
+   * without their content.
+   *
+   * @param providerId providerId
+   * @param reportName reportType
+   * @param start start month
+   * @param end end month
+   */
+  Future<List<CounterReport>> getExistingReports(
+      String providerId, String reportName, YearMonth start, YearMonth end);
+
   /**
    * Returns List of months that that dont need fetching.
    *
@@ -1,19 +1,19 @@
 package org.olf.erm.usage.harvester.client;
 
 import static io.vertx.core.Future.succeededFuture;
+import static java.util.Objects.requireNonNullElse;
 import static org.olf.erm.usage.harvester.DateUtil.getYearMonthFromString;
 import static org.olf.erm.usage.harvester.HttpResponseUtil.getResponseBodyIfStatus200;
 
-import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 import org.folio.rest.client.CounterReportsClient;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.CounterReports;
@@ -22,12 +22,15 @@ import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.folio.rest.tools.utils.VertxUtils;
 import org.olf.erm.usage.harvester.DateUtil;
 import org.olf.erm.usage.harvester.FetchItem;
+import org.olf.erm.usage.harvester.FetchPlan;
+import org.olf.erm.usage.harvester.ReportIndex;
 
 public class ExtCounterReportsClientImpl extends CounterReportsClient
     implements ExtCounterReportsClient {
 
   public static final String PATH = "/counter-reports";
-  private final String okapiUrl;
+  private static final Set<Integer> CONFLICT_STATUS_CODES = Set.of(409, 422);
+  private final TokenizedClient<CounterReportsClient> client;
 
   public ExtCounterReportsClientImpl(String okapiUrl, String tenantId, String token) {
     this(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
@@ -36,7 +39,16 @@ public class ExtCounterReportsClientImpl extends CounterReportsClient
   public ExtCounterReportsClientImpl(
       String okapiUrl, String tenantId, String token, WebClient webClient) {
     super(okapiUrl, tenantId, token, webClient);
-    this.okapiUrl = okapiUrl;
+    this.client = new TokenizedClient<>(TokenSupplier.of(token), t -> this);
+  }
+
+  /** Creates a client that sends the token returned by {@code tokenSupplier} with each request. */
+  public ExtCounterReportsClientImpl(
+      String okapiUrl, String tenantId, TokenSupplier tokenSupplier, WebClient webClient) {
+    super(okapiUrl, tenantId, null, webClient);
+    this.client =
+        new TokenizedClient<>(
+            tokenSupplier, t -> new CounterReportsClient(okapiUrl, tenantId, t, webClient));
   }
 
   @Override
@@ -45,7 +57,8 @@ public class ExtCounterReportsClientImpl extends CounterReportsClient
     String queryStr =
         String.format(
             "(providerId=%s AND yearMonth=%s AND reportName==%s)", providerId, month, reportName);
-    return super.getCounterReports(tiny, queryStr, null, null, 0, 1, null)
+    return client
+        .send(c -> c.getCounterReports(tiny, queryStr, null, null, 0, 1, null))
         .transform(ar -> getResponseBodyIfStatus200(ar, CounterReports.class))
         .flatMap(
             collection ->
@@ -56,34 +69,61 @@ public class ExtCounterReportsClientImpl extends CounterReportsClient
 
   @Override
   public Future<HttpResponse<Buffer>> upsertReport(CounterReport report) {
-    AtomicReference<String> requestUrl = new AtomicReference<>(okapiUrl + PATH);
     return this.getReport(
             report.getProviderId(), report.getReportName(), report.getYearMonth(), true)
+        .flatMap(existing -> postOrPutReport(report, existing));
+  }
+
+  @Override
+  public Future<HttpResponse<Buffer>> upsertReport(CounterReport report, CounterReport existing) {
+    String id = report.getId();
+    Integer failedAttempts = report.getFailedAttempts();
+    return postOrPutReport(report, existing)
         .flatMap(
-            existing -> {
-              if (existing == null) { // no report found
-                // POST the report
-                return this.postCounterReports(null, report);
-              } else {
-                requestUrl.updateAndGet(s -> s += "/" + existing.getId());
-                if (report.getFailedAttempts() != null) {
-                  report.setFailedAttempts(existing.getFailedAttempts() + 1);
-                }
-                report.setId(existing.getId());
-                return this.putCounterReportsById(report.getId(), null, report);
+            resp -> {
+              if (isConflict(resp, existing)) {
+                // undo the changes made for the outdated existing report
+                report.setId(id);
+                report.setFailedAttempts(failedAttempts);
+                return upsertReport(report);
               }
+              return succeededFuture(resp);
             });
   }
 
+  private Future<HttpResponse<Buffer>> postOrPutReport(
+      CounterReport report, CounterReport existing) {
+    if (existing == null) { // no report found
+      // POST the report
+      return client.send(c -> c.postCounterReports(null, report));
+    } else {
+      if (report.getFailedAttempts() != null) {
+        report.setFailedAttempts(requireNonNullElse(existing.getFailedAttempts(), 0) + 1);
+      }
+      report.setId(existing.getId());
+      return client.send(c -> c.putCounterReportsById(report.getId(), null, report));
+    }
+  }
+
+  private static boolean isConflict(HttpResponse<Buffer> resp, CounterReport existing) {
+    if (existing == null) {
+      return CONFLICT_STATUS_CODES.contains(resp.statusCode());
+    }
+    return resp.statusCode() == 404;
+  }
+
   @Override
   public Future<List<FetchItem>> getFetchList(UsageDataProvider provider, int maxFailedAttempts) {
+    return getFetchPlan(provider, maxFailedAttempts).map(FetchPlan::getFetchItems);
+  }
+
+  @Override
+  public Future<FetchPlan> getFetchPlan(UsageDataProvider provider, int maxFailedAttempts) {
     // check if harvesting status is 'active'
     if (!provider.getHarvestingConfig().getHarvestingStatus().equals(HarvestingStatus.ACTIVE)) {
       return Future.failedFuture("HarvestingStatus not active");
     }
 
-    Promise<List<FetchItem>> promise = Promise.promise();
-
     // TODO: check for date Strings to not be empty
     // TODO: check for nulls
     YearMonth startMonth =
@@ -92,23 +132,22 @@ public class ExtCounterReportsClientImpl extends CounterReportsClient
         DateUtil.getYearMonthFromStringWithLimit(
             provider.getHarvestingConfig().getHarvestingEnd(), YearMonth.now().minusMonths(1));
 
-    List<FetchItem> fetchList = new ArrayList<>();
-
-    @SuppressWarnings({"rawtypes", "java:S3740"})
-    List<Future> futures = new ArrayList<>();
-    provider
-        .getHarvestingConfig()
-        .getRequestedReports()
-        .forEach(
-            reportName ->
-                futures.add(
-                    this.getValidMonths(
-                            provider.getId(), reportName, startMonth, endMonth, maxFailedAttempts)
-                        .map(
-                            list -> {
+    List<FetchItem> fetchList = Collections.synchronizedList(new ArrayList<>());
+    ReportIndex reportIndex = new ReportIndex();
+
+    List<Future<Void>> futures =
+        provider.getHarvestingConfig().getRequestedReports().stream()
+            .map(
+                reportName ->
+                    this.getExistingReports(provider.getId(), reportName, startMonth, endMonth)
+                        .<Void>map(
+                            existingReports -> {
+                              existingReports.forEach(r -> reportIndex.put(reportName, r));
+                              List<YearMonth> validMonths =
+                                  getValidMonths(existingReports, maxFailedAttempts);
                               List<YearMonth> arrayList =
                                   DateUtil.getYearMonths(startMonth, endMonth);
-                              arrayList.removeAll(list);
+                              arrayList.removeAll(validMonths);
                               arrayList.forEach(
                                   li ->
                                       fetchList.add(
@@ -116,41 +155,43 @@ public class ExtCounterReportsClientImpl extends CounterReportsClient
                                               reportName,
                                               li.atDay(1).toString(),
                                               li.atEndOfMonth().toString())));
-                              return Future.succeededFuture();
-                            })));
-
-    CompositeFuture.all(futures)
-        .onComplete(
-            ar -> {
-              if (ar.succeeded()) {
-                promise.complete(fetchList);
-              } else {
-                promise.fail(ar.cause());
-              }
-            });
+                              return null;
+                            }))
+            .toList();
 
-    return promise.future();
+    return Future.all(futures).map(cf -> new FetchPlan(new ArrayList<>(fetchList), reportIndex));
   }
 
   @Override
   public Future<List<YearMonth>> getValidMonths(
       String providerId, String reportName, YearMonth start, YearMonth end, int maxFailedAttempts) {
+    return getExistingReports(providerId, reportName, start, end)
+        .map(reports -> getValidMonths(reports, maxFailedAttempts));
+  }
+
+  @Override
+  public Future<List<CounterReport>> getExistingReports(
+      String providerId, String reportName, YearMonth start, YearMonth end) {
     String queryStr =
         String.format(
-            "(providerId=%s AND "
-                + "((cql.allRecords=1 NOT failedAttempts=\"\") OR (failedAttempts>=%s)) AND "
-                + "reportName==%s AND yearMonth>=%s AND yearMonth<=%s)",
-            providerId, maxFailedAttempts, reportName, start.toString(), end.toString());
+            "(providerId=%s AND reportName==%s AND yearMonth>=%s AND yearMonth<=%s)",
+            providerId, reportName, start.toString(), end.toString());
 
-    return super.getCounterReports(true, queryStr, null, null, 0, Integer.MAX_VALUE, null)
+    return client
+        .send(c -> c.getCounterReports(true, queryStr, null, null, 0, Integer.MAX_VALUE, null))
         .transform(ar -> getResponseBodyIfStatus200(ar, CounterReports.class))
-        .flatMap(
-            result -> {
-              List<YearMonth> availableMonths = new ArrayList<>();
-              result
-                  .getCounterReports()
-                  .forEach(r -> availableMonths.add(YearMonth.parse(r.getYearMonth())));
-              return succeededFuture(availableMonths);
-            });
+        .map(CounterReports::getCounterReports);
+  }
+
+  /**
+   * Returns the months of reports that dont need fetching, i.e. reports that are valid or that
+   * reached the maximum number of failed attempts.
+   */
+  private static List<YearMonth> getValidMonths(
+      List<CounterReport> reports, int maxFailedAttempts) {
+    return reports.stream()
+        .filter(r -> r.getFailedAttempts() == null || r.getFailedAttempts() >= maxFailedAttempts)
+        .map(r -> YearMonth.parse(r.getYearMonth()))
+        .toList();
   }
 }
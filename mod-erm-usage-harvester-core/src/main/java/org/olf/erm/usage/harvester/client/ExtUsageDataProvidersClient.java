@@ -11,5 +11,13 @@ public interface ExtUsageDataProvidersClient {
 
   Future<UsageDataProviders> getActiveProviders();
 
+  /**
+   * Gets a page of the active providers, ordered by id.
+   *
+   * @param offset number of providers to skip
+   * @param limit maximum number of providers to return
+   */
+  Future<UsageDataProviders> getActiveProviders(int offset, int limit);
+
   Future<UsageDataProvider> getActiveProviderById(String providerId);
 }
@@ -20,19 +20,31 @@ public class ExtUsageDataProvidersClientImpl extends UsageDataProvidersClient
     implements ExtUsageDataProvidersClient {
 
   public static final String PATH = "/usage-data-providers";
+  private final TokenizedClient<UsageDataProvidersClient> client;
 
   public ExtUsageDataProvidersClientImpl(String okapiUrl, String tenantId, String token) {
-    super(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
+    this(okapiUrl, tenantId, token, WebClient.create(VertxUtils.getVertxFromContextOrNew()));
   }
 
   public ExtUsageDataProvidersClientImpl(
       String okapiUrl, String tenantId, String token, WebClient webClient) {
     super(okapiUrl, tenantId, token, webClient);
+    this.client = new TokenizedClient<>(TokenSupplier.of(token), t -> this);
+  }
+
+  /** Creates a client that sends the token returned by {@code tokenSupplier} with each request. */
+  public ExtUsageDataProvidersClientImpl(
+      String okapiUrl, String tenantId, TokenSupplier tokenSupplier, WebClient webClient) {
+    super(okapiUrl, tenantId, null, webClient);
+    this.client =
+        new TokenizedClient<>(
+            tokenSupplier, t -> new UsageDataProvidersClient(okapiUrl, tenantId, t, webClient));
   }
 
   @Override
   public Future<Void> updateUDPLastHarvestingDate(UsageDataProvider udp, Date date) {
-    return super.putUsageDataProvidersById(udp.getId(), null, udp.withHarvestingDate(date))
+    return client
+        .send(c -> c.putUsageDataProvidersById(udp.getId(), null, udp.withHarvestingDate(date)))
         .transform(
             ar -> {
               if (ar.succeeded()) {
@@ -60,24 +72,44 @@ public class ExtUsageDataProvidersClientImpl extends UsageDataProvidersClient
     final String queryStr =
         String.format("(harvestingConfig.harvestingStatus=%s)", HarvestingStatus.ACTIVE);
 
-    return super.getUsageDataProviders(
-            queryStr, null, UsageDataProvidersGetOrder.ASC, 0, Integer.MAX_VALUE, null)
+    return client
+        .send(
+            c ->
+                c.getUsageDataProviders(
+                    queryStr, null, UsageDataProvidersGetOrder.ASC, 0, Integer.MAX_VALUE, null))
+        .transform(ar -> getResponseBodyIfStatus200(ar, UsageDataProviders.class));
+  }
+
+  @Override
+  public Future<UsageDataProviders> getActiveProviders(int offset, int limit) {
+    final String queryStr =
+        String.format("(harvestingConfig.harvestingStatus=%s) sortby id", HarvestingStatus.ACTIVE);
+
+    return client
+        .send(
+            c ->
+                c.getUsageDataProviders(
+                    queryStr, null, UsageDataProvidersGetOrder.ASC, offset, limit, null))
         .transform(ar -> getResponseBodyIfStatus200(ar, UsageDataProviders.class));
   }
 
   @Override
   public Future<UsageDataProvider> getActiveProviderById(String providerId) {
-    return super.getUsageDataProvidersById(providerId, null)
+    return client
+        .send(c -> c.getUsageDataProvidersById(providerId, null))
         .transform(ar -> getResponseBodyIfStatus200(ar, UsageDataProvider.class))
         .transform(
             ar ->
                 (ar.succeeded())
                     ? Future.succeededFuture(ar.result())
                     : Future.failedFuture(createProviderMsg(providerId, ar.cause().getMessage())))
-        .flatMap(
-            udp ->
-                (udp.getHarvestingConfig().getHarvestingStatus().equals(HarvestingStatus.ACTIVE))
-                    ? succeededFuture(udp)
-                    : failedFuture(createProviderMsg(providerId, "HarvestingStatus not ACTIVE")));
+        .flatMap(ExtUsageDataProvidersClientImpl::requireActive);
+  }
+
+  /** Fails if the harvesting status of a provider is not active. */
+  public static Future<UsageDataProvider> requireActive(UsageDataProvider udp) {
+    return (udp.getHarvestingConfig().getHarvestingStatus().equals(HarvestingStatus.ACTIVE))
+        ? succeededFuture(udp)
+        : failedFuture(createProviderMsg(udp.getId(), "HarvestingStatus not ACTIVE"));
   }
 }
@@ -10,6 +10,13 @@ public interface OkapiClient {
 
   Future<String> loginSystemUser(String tenantId, SystemUser systemUser);
 
+  /**
+   * Logs in the system user of a tenant.
+   *
+   * @return the access token and its expiration, {@code null} if the system user is disabled
+   */
+  Future<AccessToken> loginSystemUserWithExpiry(String tenantId, SystemUser systemUser);
+
   Future<HttpResponse<Buffer>> startHarvester(String tenantId, String token);
 
   Future<List<String>> getTenants();
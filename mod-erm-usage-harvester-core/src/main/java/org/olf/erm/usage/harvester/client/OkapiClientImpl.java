@@ -15,6 +15,7 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -30,6 +31,7 @@ public class OkapiClientImpl implements OkapiClient {
   public static final String PATH_HARVESTER_START = "/erm-usage-harvester/start"; // NOSONAR
   public static final String PATH_TENANTS = "/_/proxy/tenants"; // NOSONAR
 
+  private static final String ACCESS_TOKEN_EXPIRATION = "accessTokenExpiration";
   private static final String ENV_SYSTEM_USER_ENABLED = "SYSTEM_USER_ENABLED";
 
   private final String okapiUrl;
@@ -82,8 +84,22 @@ public class OkapiClientImpl implements OkapiClient {
         .orElseThrow(() -> new OkapiClientException("Unable to extract token from login response"));
   }
 
+  private Instant getExpirationFromResponse(HttpResponse<Buffer> response) {
+    try {
+      return Instant.parse(response.bodyAsJsonObject().getString(ACCESS_TOKEN_EXPIRATION));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
   @Override
   public Future<String> loginSystemUser(String tenantId, SystemUser systemUser) {
+    return loginSystemUserWithExpiry(tenantId, systemUser)
+        .map(accessToken -> (accessToken == null) ? null : accessToken.getToken());
+  }
+
+  @Override
+  public Future<AccessToken> loginSystemUserWithExpiry(String tenantId, SystemUser systemUser) {
     if (!isSystemUserEnabled) {
       return Future.succeededFuture();
     }
@@ -108,7 +124,10 @@ public class OkapiClientImpl implements OkapiClient {
                     .putHeaders(headers)
                     .sendJson(systemUser.toJsonObject())
                     .map(this::throwIfStatusCodeNot201))
-        .map(this::getTokenFromResponse);
+        .map(
+            response ->
+                new AccessToken(
+                    getTokenFromResponse(response), getExpirationFromResponse(response)));
   }
 
   @Override
@@ -1,11 +1,16 @@
 package org.olf.erm.usage.harvester.client;
 
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
 import org.folio.rest.jaxrs.model.Aggregator;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.HarvestingConfig.HarvestVia;
+import org.folio.rest.jaxrs.model.SushiConfig;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.olf.erm.usage.harvester.CircuitBreakerRegistry;
+import org.olf.erm.usage.harvester.CircuitBreakingServiceEndpoint;
+import org.olf.erm.usage.harvester.SharedFetchServiceEndpoint;
 import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,15 +18,24 @@ import org.slf4j.LoggerFactory;
 public class ServiceEndpointFactory {
 
   private static final Logger log = LoggerFactory.getLogger(ServiceEndpointFactory.class);
+  private final Context context;
   private final ExtAggregatorSettingsClient aggregatorSettingsClient;
 
-  public ServiceEndpointFactory(ExtAggregatorSettingsClient aggregatorSettingsClient) {
+  /**
+   * Creates a new factory.
+   *
+   * @param context context that ServiceEndpoints are created on, as implementations use the Vert.x
+   *     instance of the current context
+   * @param aggregatorSettingsClient client to get the AggregatorSettings of providers
+   */
+  public ServiceEndpointFactory(
+      Context context, ExtAggregatorSettingsClient aggregatorSettingsClient) {
+    this.context = context;
     this.aggregatorSettingsClient = aggregatorSettingsClient;
   }
 
   public Future<ServiceEndpoint> createServiceEndpoint(UsageDataProvider usageDataProvider) {
     Promise<AggregatorSetting> aggrPromise = Promise.promise();
-    Promise<ServiceEndpoint> sepPromise = Promise.promise();
 
     boolean useAggregator =
         usageDataProvider.getHarvestingConfig().getHarvestVia().equals(HarvestVia.AGGREGATOR);
@@ -40,13 +54,50 @@ public class ServiceEndpointFactory {
         .future()
         .compose(
             as -> {
-              ServiceEndpoint sep = ServiceEndpoint.create(usageDataProvider, as);
-              if (sep != null) {
-                sepPromise.complete(sep);
-              } else {
-                sepPromise.fail("No service implementation available");
-              }
+              Promise<ServiceEndpoint> sepPromise = Promise.promise();
+              // a cached AggregatorSetting completes right away, on the caller's thread
+              context.runOnContext(v -> createServiceEndpoint(usageDataProvider, as, sepPromise));
               return sepPromise.future();
             });
   }
+
+  private static void createServiceEndpoint(
+      UsageDataProvider usageDataProvider,
+      AggregatorSetting as,
+      Promise<ServiceEndpoint> sepPromise) {
+    ServiceEndpoint sep;
+    try {
+      sep = ServiceEndpoint.create(usageDataProvider, as);
+    } catch (Exception e) {
+      sepPromise.fail(e);
+      return;
+    }
+    if (sep != null) {
+      // only requests that reach the host count for its circuit breaker
+      sepPromise.complete(
+          new SharedFetchServiceEndpoint(
+              withCircuitBreaker(sep, getServiceUrl(usageDataProvider, as)),
+              usageDataProvider,
+              as));
+    } else {
+      sepPromise.fail("No service implementation available");
+    }
+  }
+
+  private static String getServiceUrl(UsageDataProvider usageDataProvider, AggregatorSetting as) {
+    if (as != null) {
+      return as.getServiceUrl();
+    }
+    SushiConfig sushiConfig = usageDataProvider.getHarvestingConfig().getSushiConfig();
+    return (sushiConfig == null) ? null : sushiConfig.getServiceUrl();
+  }
+
+  /** Guards a ServiceEndpoint with the circuit breaker of its host, if the host is known. */
+  private static ServiceEndpoint withCircuitBreaker(ServiceEndpoint sep, String serviceUrl) {
+    String host = (serviceUrl == null) ? null : CircuitBreakerRegistry.getHost(serviceUrl);
+    if (host == null) {
+      return sep;
+    }
+    return new CircuitBreakingServiceEndpoint(sep, CircuitBreakerRegistry.get(host));
+  }
 }
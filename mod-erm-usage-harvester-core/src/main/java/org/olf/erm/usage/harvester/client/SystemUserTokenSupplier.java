@@ -0,0 +1,40 @@
+package org.olf.erm.usage.harvester.client;
+
+import io.vertx.core.Future;
+import org.olf.erm.usage.harvester.SystemUser;
+
+/**
+ * Supplies the current token of a tenant's system user, see {@link SystemUserTokens}.
+ *
+ * <p>If the system user of the tenant has no credentials or logging in fails, the fallback token is
+ * supplied. Rejected tokens are invalidated, so that the next request logs in again.
+ */
+class SystemUserTokenSupplier implements TokenSupplier {
+
+  private final OkapiClient okapiClient;
+  private final String tenantId;
+  private final String fallbackToken;
+  private final boolean hasCredentials;
+
+  SystemUserTokenSupplier(OkapiClient okapiClient, String tenantId, String fallbackToken) {
+    this.okapiClient = okapiClient;
+    this.tenantId = tenantId;
+    this.fallbackToken = fallbackToken;
+    this.hasCredentials = new SystemUser(tenantId).hasCredentials();
+  }
+
+  @Override
+  public Future<String> getToken() {
+    if (!hasCredentials) {
+      return Future.succeededFuture(fallbackToken);
+    }
+    return SystemUserTokens.getToken(okapiClient, tenantId)
+        .otherwiseEmpty()
+        .map(token -> (token != null) ? token : fallbackToken);
+  }
+
+  @Override
+  public void invalidate(String token) {
+    SystemUserTokens.invalidate(tenantId, token);
+  }
+}
@@ -0,0 +1,118 @@
+package org.olf.erm.usage.harvester.client;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.olf.erm.usage.harvester.ClockProvider;
+import org.olf.erm.usage.harvester.SystemUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the access tokens of the system users per tenant, so that the system user of a tenant is
+ * not logged in on every harvest and long running harvests do not fail with expired tokens.
+ *
+ * <p>Tokens are refreshed in the background once they expire within {@value
+ * #DEFAULT_REFRESH_SECONDS} seconds, which can be configured with the {@value
+ * #REFRESH_SECONDS_ENV_VAR} environment variable. Until then, the current token is used. Concurrent
+ * logins of the same tenant are shared. Tokens without expiration, as returned by {@code
+ * /authn/login}, are kept until they are rejected with a 401 response.
+ */
+public class SystemUserTokens {
+
+  public static final String REFRESH_SECONDS_ENV_VAR = "SYSTEM_USER_TOKEN_REFRESH_SECONDS";
+  public static final long DEFAULT_REFRESH_SECONDS = 60;
+  private static final Logger log = LoggerFactory.getLogger(SystemUserTokens.class);
+  private static final Map<String, AccessToken> tokens = new ConcurrentHashMap<>();
+  private static final Map<String, Future<AccessToken>> logins = new ConcurrentHashMap<>();
+
+  private SystemUserTokens() {}
+
+  /**
+   * Returns the current token of a tenant's system user, logging in if there is no valid token.
+   *
+   * @param okapiClient client used for logging in
+   * @param tenantId tenant id
+   * @return the token, {@code null} if the system user is disabled
+   */
+  public static Future<String> getToken(OkapiClient okapiClient, String tenantId) {
+    Instant now = Instant.now(ClockProvider.getClock());
+    AccessToken accessToken = tokens.get(tenantId);
+    if (accessToken != null && !accessToken.isExpiredAt(now)) {
+      if (accessToken.isExpiredAt(now.plus(getRefreshBefore()))) {
+        login(okapiClient, tenantId);
+      }
+      return Future.succeededFuture(accessToken.getToken());
+    }
+    return login(okapiClient, tenantId)
+        .map(loggedIn -> (loggedIn == null) ? null : loggedIn.getToken());
+  }
+
+  private static Future<AccessToken> login(OkapiClient okapiClient, String tenantId) {
+    Promise<AccessToken> promise = Promise.promise();
+    Future<AccessToken> login = logins.putIfAbsent(tenantId, promise.future());
+    if (login != null) {
+      return login;
+    }
+    okapiClient
+        .loginSystemUserWithExpiry(tenantId, new SystemUser(tenantId))
+        .onComplete(
+            ar -> {
+              if (ar.succeeded() && ar.result() != null) {
+                tokens.put(tenantId, ar.result());
+                log.debug(
+                    "Tenant: {}, logged in system user, token expires at {}",
+                    tenantId,
+                    ar.result().getExpiresAt());
+              } else if (ar.failed()) {
+                log.warn(
+                    "Tenant: {}, error logging in system user: {}",
+                    tenantId,
+                    ar.cause().getMessage());
+              }
+              logins.remove(tenantId, promise.future());
+              promise.handle(ar);
+            });
+    return promise.future();
+  }
+
+  /**
+   * Removes the token of a tenant if it is still the current one, so that the next request logs in
+   * again.
+   */
+  public static void invalidate(String tenantId, String token) {
+    tokens.computeIfPresent(
+        tenantId, (k, accessToken) -> accessToken.getToken().equals(token) ? null : accessToken);
+  }
+
+  public static void clear() {
+    tokens.clear();
+    logins.clear();
+  }
+
+  /**
+   * Returns a {@link TokenSupplier} of the current token of a tenant's system user. See {@link
+   * SystemUserTokenSupplier}.
+   *
+   * @param okapiClient client used for logging in
+   * @param tenantId tenant id
+   * @param fallbackToken token used if there are no credentials for the system user or logging in
+   *     fails
+   * @return the token supplier
+   */
+  public static TokenSupplier tokenSupplier(
+      OkapiClient okapiClient, String tenantId, String fallbackToken) {
+    return new SystemUserTokenSupplier(okapiClient, tenantId, fallbackToken);
+  }
+
+  public static Duration getRefreshBefore() {
+    return Duration.ofSeconds(
+        Optional.ofNullable(System.getenv(REFRESH_SECONDS_ENV_VAR))
+            .map(Long::parseLong)
+            .orElse(DEFAULT_REFRESH_SECONDS));
+  }
+}
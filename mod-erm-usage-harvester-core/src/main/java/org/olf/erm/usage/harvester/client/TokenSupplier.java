@@ -0,0 +1,26 @@
+package org.olf.erm.usage.harvester.client;
+
+import io.vertx.core.Future;
+
+/**
+ * Supplies the {@code X-Okapi-Token} of a request. The Ext*Client implementations get the token
+ * before each request, so that a token can be replaced while a harvest is running.
+ */
+@FunctionalInterface
+public interface TokenSupplier {
+
+  /**
+   * Returns the token for the next request.
+   *
+   * @return the token, {@code null} if no token is sent
+   */
+  Future<String> getToken();
+
+  /** Called if a token was rejected with a 401 response. */
+  default void invalidate(String token) {}
+
+  /** Returns a supplier of a fixed token. */
+  static TokenSupplier of(String token) {
+    return () -> Future.succeededFuture(token);
+  }
+}
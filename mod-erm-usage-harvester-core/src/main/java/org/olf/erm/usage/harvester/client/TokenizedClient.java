@@ -0,0 +1,59 @@
+package org.olf.erm.usage.harvester.client;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Sends the requests of a generated RMB client with the token supplied by a {@link TokenSupplier}
+ * at the time of each request. The generated clients only accept a fixed token, so a client is
+ * obtained for each token.
+ *
+ * <p>A request that is rejected with a 401 response is sent once more if the supplier returns
+ * another token after the rejected one was invalidated.
+ *
+ * @param <C> type of the generated client
+ */
+class TokenizedClient<C> {
+
+  private final TokenSupplier tokenSupplier;
+  private final Function<String, C> clientFactory;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param tokenSupplier supplier of the tokens
+   * @param clientFactory returns a generated client that sends the given token
+   */
+  TokenizedClient(TokenSupplier tokenSupplier, Function<String, C> clientFactory) {
+    this.tokenSupplier = tokenSupplier;
+    this.clientFactory = clientFactory;
+  }
+
+  Future<HttpResponse<Buffer>> send(Function<C, Future<HttpResponse<Buffer>>> request) {
+    return tokenSupplier
+        .getToken()
+        .flatMap(
+            token ->
+                request
+                    .apply(clientFactory.apply(token))
+                    .flatMap(
+                        resp -> {
+                          if (resp.statusCode() != 401) {
+                            return succeededFuture(resp);
+                          }
+                          tokenSupplier.invalidate(token);
+                          return tokenSupplier
+                              .getToken()
+                              .flatMap(
+                                  fresh ->
+                                      Objects.equals(fresh, token)
+                                          ? succeededFuture(resp)
+                                          : request.apply(clientFactory.apply(fresh)));
+                        }));
+  }
+}
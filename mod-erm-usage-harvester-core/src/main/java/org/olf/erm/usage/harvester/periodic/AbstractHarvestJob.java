@@ -8,11 +8,15 @@ public abstract class AbstractHarvestJob implements Job {
   public static final String DATAKEY_TOKEN = "token";
   public static final String DATAKEY_JOB_ID = "jobId";
   public static final String DATAKEY_PROVIDER_ID = "providerId";
+  public static final String DATAKEY_PROVIDER_SNAPSHOT = "providerSnapshot";
   public static final String DATAKEY_TIMESTAMP = "timestamp";
+  public static final String DATAKEY_PROGRESS = "progress";
+  public static final String DATAKEY_STATS = "stats";
 
   private String tenantId;
   private String token;
   private String providerId;
+  private String providerSnapshot;
 
   public void setTenantId(String tenantId) {
     this.tenantId = tenantId;
@@ -26,6 +30,10 @@ public abstract class AbstractHarvestJob implements Job {
     this.providerId = providerId;
   }
 
+  public void setProviderSnapshot(String providerSnapshot) {
+    this.providerSnapshot = providerSnapshot;
+  }
+
   public String getTenantId() {
     return tenantId;
   }
@@ -37,4 +45,9 @@ public abstract class AbstractHarvestJob implements Job {
   public String getProviderId() {
     return providerId;
   }
+
+  /** Returns the provider as JSON, as it was when the job was scheduled by a tenant job. */
+  public String getProviderSnapshot() {
+    return providerSnapshot;
+  }
 }
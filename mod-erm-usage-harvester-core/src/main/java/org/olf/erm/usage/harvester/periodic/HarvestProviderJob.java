@@ -1,13 +1,25 @@
 package org.olf.erm.usage.harvester.periodic;
 
 import static java.util.Objects.requireNonNull;
+import static org.olf.erm.usage.harvester.WorkerVerticle.CONFIG_MODULE;
 
 import io.vertx.core.Context;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.olf.erm.usage.harvester.CircuitBreakingServiceEndpoint;
+import org.olf.erm.usage.harvester.ProgressTracker;
 import org.olf.erm.usage.harvester.WorkerVerticle;
+import org.olf.erm.usage.harvester.client.CachingAggregatorSettingsClient;
+import org.olf.erm.usage.harvester.client.CachingConfigurationsClient;
 import org.olf.erm.usage.harvester.client.ExtAggregatorSettingsClient;
 import org.olf.erm.usage.harvester.client.ExtAggregatorSettingsClientImpl;
 import org.olf.erm.usage.harvester.client.ExtConfigurationsClient;
@@ -16,14 +28,27 @@ import org.olf.erm.usage.harvester.client.ExtCounterReportsClient;
 import org.olf.erm.usage.harvester.client.ExtCounterReportsClientImpl;
 import org.olf.erm.usage.harvester.client.ExtUsageDataProvidersClient;
 import org.olf.erm.usage.harvester.client.ExtUsageDataProvidersClientImpl;
+import org.olf.erm.usage.harvester.client.OkapiClient;
+import org.olf.erm.usage.harvester.client.OkapiClientImpl;
 import org.olf.erm.usage.harvester.client.ServiceEndpointFactory;
+import org.olf.erm.usage.harvester.client.SystemUserTokens;
+import org.olf.erm.usage.harvester.client.TokenSupplier;
+import org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts;
 import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+import org.quartz.JobDataMap;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class HarvestProviderJob extends AbstractHarvestJob {
 
+  public static final String CONFIG_NAME_REQUEST_TIMEOUTS = "requestTimeouts";
+  public static final String SNAPSHOT_MAX_AGE_SECONDS_ENV_VAR = "PROVIDER_SNAPSHOT_MAX_AGE_SECONDS";
+  public static final long DEFAULT_SNAPSHOT_MAX_AGE_SECONDS = 3600;
+  private static final Logger log = LoggerFactory.getLogger(HarvestProviderJob.class);
+
   @Override
   public void execute(JobExecutionContext context) throws JobExecutionException {
     String providerId;
@@ -43,32 +68,52 @@ public class HarvestProviderJob extends AbstractHarvestJob {
     }
 
     WebClient webClient = WebClient.create(vertxContext.owner());
+    OkapiClient okapiClient = new OkapiClientImpl(webClient, vertxContext.config());
+    TokenSupplier tokenSupplier = SystemUserTokens.tokenSupplier(okapiClient, tenantId, token);
     ExtConfigurationsClient configurationsClient =
-        new ExtConfigurationsClientImpl(okapiUrl, tenantId, token, webClient);
+        new CachingConfigurationsClient(
+            tenantId,
+            new ExtConfigurationsClientImpl(okapiUrl, tenantId, tokenSupplier, webClient));
     ExtAggregatorSettingsClient aggregatorSettingsClient =
-        new ExtAggregatorSettingsClientImpl(okapiUrl, tenantId, token, webClient);
+        new CachingAggregatorSettingsClient(
+            tenantId,
+            new ExtAggregatorSettingsClientImpl(okapiUrl, tenantId, tokenSupplier, webClient));
     ExtCounterReportsClient counterReportsClient =
-        new ExtCounterReportsClientImpl(okapiUrl, tenantId, token, webClient);
+        new ExtCounterReportsClientImpl(okapiUrl, tenantId, tokenSupplier, webClient);
     ExtUsageDataProvidersClient usageDataProvidersClient =
-        new ExtUsageDataProvidersClientImpl(okapiUrl, tenantId, token, webClient);
+        new ExtUsageDataProvidersClientImpl(okapiUrl, tenantId, tokenSupplier, webClient);
     int initialConcurrency = 4;
 
+    ServiceEndpoint serviceEndpoint = null;
+    WorkerVerticle workerVerticle = null;
+    ProgressTracker progressTracker =
+        new ProgressTracker(
+            vertxContext.owner(),
+            tenantId,
+            providerId,
+            JobInfoUtil.createJobInfo(context.getJobDetail()).withStartedAt(context.getFireTime()));
     try {
       UsageDataProvider usageDataProvider =
-          usageDataProvidersClient
-              .getActiveProviderById(providerId)
+          getProvider(usageDataProvidersClient, providerId, context)
               .toCompletionStage()
               .toCompletableFuture()
               .get();
 
-      ServiceEndpoint serviceEndpoint =
-          new ServiceEndpointFactory(aggregatorSettingsClient)
+      AdaptiveTimeouts.setOverride(
+          providerId,
+          getRequestTimeoutsOverride(configurationsClient, providerId)
+              .toCompletionStage()
+              .toCompletableFuture()
+              .get());
+
+      serviceEndpoint =
+          new ServiceEndpointFactory(vertxContext, aggregatorSettingsClient)
               .createServiceEndpoint(usageDataProvider)
               .toCompletionStage()
               .toCompletableFuture()
               .get();
 
-      WorkerVerticle workerVerticle =
+      workerVerticle =
           new WorkerVerticle(
               configurationsClient,
               counterReportsClient,
@@ -77,6 +122,7 @@ public class HarvestProviderJob extends AbstractHarvestJob {
               usageDataProvider,
               serviceEndpoint,
               initialConcurrency);
+      workerVerticle.setProgressTracker(progressTracker);
       CompletableFuture<String> cfDeploy =
           vertxContext
               .owner()
@@ -91,6 +137,64 @@ public class HarvestProviderJob extends AbstractHarvestJob {
       throw new JobExecutionException(e);
     } catch (Exception e) {
       throw new JobExecutionException(e);
+    } finally {
+      progressTracker.finish();
+      context.put(DATAKEY_PROGRESS, progressTracker.getProgress());
+      if (workerVerticle != null) {
+        context.put(DATAKEY_STATS, workerVerticle.getStats());
+      }
+      CircuitBreakingServiceEndpoint.find(serviceEndpoint)
+          .ifPresent(
+              cbse -> context.setResult(cbse.getOpenIntervals(context.getFireTime().toInstant())));
+      webClient.close();
     }
   }
+
+  /**
+   * Returns the provider snapshot handed over by the tenant job, if it is not older than {@link
+   * #getSnapshotMaxAge()}, otherwise fetches the provider. Snapshots save a request per provider of
+   * a tenant harvest. Queued jobs that start later fetch the provider again, so that they see
+   * changes made in the meantime.
+   */
+  private Future<UsageDataProvider> getProvider(
+      ExtUsageDataProvidersClient client, String providerId, JobExecutionContext context) {
+    JobDataMap jobDataMap = context.getJobDetail().getJobDataMap();
+    if (getProviderSnapshot() != null && jobDataMap.containsKey(DATAKEY_TIMESTAMP)) {
+      Instant takenAt = Instant.ofEpochMilli(jobDataMap.getLong(DATAKEY_TIMESTAMP));
+      if (takenAt.plus(getSnapshotMaxAge()).isAfter(context.getFireTime().toInstant())) {
+        try {
+          UsageDataProvider snapshot =
+              Json.decodeValue(getProviderSnapshot(), UsageDataProvider.class);
+          return ExtUsageDataProvidersClientImpl.requireActive(snapshot);
+        } catch (DecodeException e) {
+          log.warn(
+              "Tenant: {}, error decoding provider snapshot of {}: {}",
+              getTenantId(),
+              providerId,
+              e.getMessage());
+        }
+      }
+    }
+    return client.getActiveProviderById(providerId);
+  }
+
+  public static Duration getSnapshotMaxAge() {
+    return Duration.ofSeconds(
+        Optional.ofNullable(System.getenv(SNAPSHOT_MAX_AGE_SECONDS_ENV_VAR))
+            .map(Long::parseLong)
+            .orElse(DEFAULT_SNAPSHOT_MAX_AGE_SECONDS));
+  }
+
+  /**
+   * Gets the request timeouts configured for a provider. The configuration value is a JSON object
+   * that maps provider ids to {@link org.olf.erm.usage.harvester.endpoints.RequestTimeouts}
+   * overrides.
+   */
+  private static Future<JsonObject> getRequestTimeoutsOverride(
+      ExtConfigurationsClient configurationsClient, String providerId) {
+    return configurationsClient
+        .getModConfigurationValue(CONFIG_MODULE, CONFIG_NAME_REQUEST_TIMEOUTS)
+        .map(value -> new JsonObject(value).getJsonObject(providerId))
+        .otherwise((JsonObject) null);
+  }
 }
@@ -1,19 +1,35 @@
 package org.olf.erm.usage.harvester.periodic;
 
 import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.ext.web.client.WebClient;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
-import org.folio.rest.jaxrs.model.UsageDataProviders;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.olf.erm.usage.harvester.client.CachingAggregatorSettingsClient;
+import org.olf.erm.usage.harvester.client.ConfigurationCache;
+import org.olf.erm.usage.harvester.client.ExtUsageDataProvidersClient;
 import org.olf.erm.usage.harvester.client.ExtUsageDataProvidersClientImpl;
+import org.olf.erm.usage.harvester.client.OkapiClient;
+import org.olf.erm.usage.harvester.client.OkapiClientImpl;
+import org.olf.erm.usage.harvester.client.SystemUserTokens;
+import org.olf.erm.usage.harvester.client.TokenSupplier;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class HarvestTenantJob extends AbstractHarvestJob {
 
+  public static final String PAGE_SIZE_ENV_VAR = "PROVIDER_PAGE_SIZE";
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  private static final Logger log = LoggerFactory.getLogger(HarvestTenantJob.class);
+
   @Override
   public void execute(JobExecutionContext context) throws JobExecutionException {
     Context vertxContext;
@@ -23,26 +39,18 @@ public class HarvestTenantJob extends AbstractHarvestJob {
       throw new JobExecutionException(e);
     }
 
-    CompletableFuture<List<String>> complete =
+    // configuration changes take effect with the next harvest of the tenant
+    ConfigurationCache.invalidate(getTenantId());
+    CachingAggregatorSettingsClient.invalidate(getTenantId());
+    WebClient webClient = WebClient.create(vertxContext.owner());
+    OkapiClient okapiClient = new OkapiClientImpl(webClient, vertxContext.config());
+    TokenSupplier tokenSupplier =
+        SystemUserTokens.tokenSupplier(okapiClient, getTenantId(), getToken());
+    ExtUsageDataProvidersClient usageDataProvidersClient =
         new ExtUsageDataProvidersClientImpl(
-                vertxContext.config().getString("okapiUrl"), getTenantId(), getToken())
-            .getActiveProviders()
-            .map(UsageDataProviders::getUsageDataProviders)
-            .map(
-                udps ->
-                    udps.stream()
-                        .map(
-                            udp -> {
-                              try {
-                                SchedulingUtil.scheduleProviderJob(
-                                    context.getScheduler(), getTenantId(), getToken(), udp.getId());
-                              } catch (SchedulerException e) {
-                                return udp.getId();
-                              }
-                              return null;
-                            })
-                        .filter(Objects::nonNull)
-                        .collect(Collectors.toList()))
+            vertxContext.config().getString("okapiUrl"), getTenantId(), tokenSupplier, webClient);
+    CompletableFuture<List<String>> complete =
+        scheduleProviderJobs(context.getScheduler(), usageDataProvidersClient, 0, new ArrayList<>())
             .toCompletionStage()
             .toCompletableFuture();
     try {
@@ -52,6 +60,49 @@ public class HarvestTenantJob extends AbstractHarvestJob {
       throw new JobExecutionException(e);
     } catch (ExecutionException e) {
       throw new JobExecutionException(e);
+    } finally {
+      webClient.close();
     }
   }
+
+  /**
+   * Pages through the active providers and schedules the jobs of each page before loading the next
+   * one. The providers are handed to their jobs as snapshot.
+   *
+   * @return ids of the providers for which no job was scheduled
+   */
+  private Future<List<String>> scheduleProviderJobs(
+      Scheduler scheduler, ExtUsageDataProvidersClient client, int offset, List<String> skipped) {
+    int pageSize = getPageSize();
+    return client
+        .getActiveProviders(offset, pageSize)
+        .compose(
+            page -> {
+              List<UsageDataProvider> udps = page.getUsageDataProviders();
+              try {
+                skipped.addAll(
+                    SchedulingUtil.scheduleProviderJobsWithSnapshots(
+                        scheduler, getTenantId(), getToken(), udps));
+              } catch (SchedulerException e) {
+                log.error(
+                    "Tenant: {}, error scheduling provider jobs: {}",
+                    getTenantId(),
+                    e.getMessage());
+                udps.forEach(udp -> skipped.add(udp.getId()));
+              }
+              int next = offset + udps.size();
+              boolean hasNext =
+                  udps.size() >= pageSize
+                      && (page.getTotalRecords() == null || next < page.getTotalRecords());
+              return hasNext
+                  ? scheduleProviderJobs(scheduler, client, next, skipped)
+                  : Future.succeededFuture(skipped);
+            });
+  }
+
+  public static int getPageSize() {
+    return Optional.ofNullable(System.getenv(PAGE_SIZE_ENV_VAR))
+        .map(Integer::parseInt)
+        .orElse(DEFAULT_PAGE_SIZE);
+  }
 }
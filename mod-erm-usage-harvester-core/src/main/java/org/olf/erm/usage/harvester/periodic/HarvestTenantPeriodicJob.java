@@ -10,9 +10,9 @@ import io.vertx.ext.web.client.WebClient;
 import java.util.Date;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import org.olf.erm.usage.harvester.SystemUser;
 import org.olf.erm.usage.harvester.client.OkapiClient;
 import org.olf.erm.usage.harvester.client.OkapiClientImpl;
+import org.olf.erm.usage.harvester.client.SystemUserTokens;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.SchedulerException;
@@ -90,6 +90,6 @@ public class HarvestTenantPeriodicJob extends AbstractHarvestJob {
   }
 
   private Future<String> loginSystemUserIfEnabled(OkapiClient okapiClient, String tenantId) {
-    return okapiClient.loginSystemUser(tenantId, new SystemUser(tenantId));
+    return SystemUserTokens.getToken(okapiClient, tenantId);
   }
 }
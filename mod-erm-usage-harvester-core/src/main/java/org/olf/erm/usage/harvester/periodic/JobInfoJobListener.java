@@ -5,25 +5,27 @@ import static org.folio.rest.jaxrs.model.JobInfo.Result.FAILURE;
 import static org.folio.rest.jaxrs.model.JobInfo.Result.SUCCESS;
 import static org.folio.rest.jaxrs.model.JobInfo.Type.PERIODIC;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_JOB_ID;
+import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_PROGRESS;
+import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_STATS;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_TIMESTAMP;
 import static org.olf.erm.usage.harvester.periodic.JobInfoUtil.createJobInfo;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ExecutionException;
+import org.folio.rest.jaxrs.model.CircuitOpenInterval;
+import org.folio.rest.jaxrs.model.HarvestProgress;
+import org.folio.rest.jaxrs.model.HarvestStats;
 import org.folio.rest.jaxrs.model.JobInfo;
+import org.olf.erm.usage.harvester.HarvesterMetrics;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.listeners.JobListenerSupport;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 public class JobInfoJobListener extends JobListenerSupport {
 
-  private static final Logger log = LoggerFactory.getLogger(JobInfoJobListener.class);
-
   @Override
   public String getName() {
     return this.getClass().getSimpleName();
@@ -45,6 +47,21 @@ public class JobInfoJobListener extends JobListenerSupport {
     } else {
       jobInfo.withResult(SUCCESS);
     }
+    if (context.getResult() instanceof List<?> list) {
+      jobInfo.withCircuitOpenIntervals(
+          list.stream()
+              .filter(CircuitOpenInterval.class::isInstance)
+              .map(CircuitOpenInterval.class::cast)
+              .toList());
+    }
+    if (context.get(DATAKEY_PROGRESS) instanceof HarvestProgress progress) {
+      jobInfo.withProgress(progress);
+    }
+    if (context.get(DATAKEY_STATS) instanceof HarvestStats stats) {
+      jobInfo.withStats(stats);
+    }
+    HarvesterMetrics.recordJobDuration(
+        getTypeValue(jobInfo), jobException == null, context.getJobRunTime());
     upsertJobInfo(jobInfo, tenant);
   }
 
@@ -54,6 +71,11 @@ public class JobInfoJobListener extends JobListenerSupport {
     String tenant = jobDetail.getKey().getGroup();
 
     JobInfo jobInfo = createJobInfo(jobDetail);
+    if (context.getScheduledFireTime() != null) {
+      HarvesterMetrics.recordJobWait(
+          getTypeValue(jobInfo),
+          context.getFireTime().getTime() - context.getScheduledFireTime().getTime());
+    }
     if (PERIODIC.equals(jobInfo.getType())) {
       jobDetail.getJobDataMap().put(DATAKEY_JOB_ID, UUID.randomUUID().toString());
       jobDetail.getJobDataMap().put(DATAKEY_TIMESTAMP, Instant.now().toEpochMilli());
@@ -63,18 +85,11 @@ public class JobInfoJobListener extends JobListenerSupport {
     upsertJobInfo(jobInfo.withStartedAt(null).withNextStart(context.getNextFireTime()), tenant);
   }
 
+  private static String getTypeValue(JobInfo jobInfo) {
+    return (jobInfo.getType() == null) ? null : jobInfo.getType().value();
+  }
+
   private void upsertJobInfo(JobInfo jobInfo, String tenant) {
-    try {
-      JobInfoUtil.upsertJobInfo(jobInfo, tenant)
-          .onFailure(t -> log.warn("Error saving JobInfo", t))
-          .toCompletionStage()
-          .toCompletableFuture()
-          .get();
-    } catch (InterruptedException e) {
-      log.warn(e.getMessage(), e);
-      Thread.currentThread().interrupt();
-    } catch (ExecutionException e) {
-      log.warn(e.getMessage(), e);
-    }
+    JobInfoWriteBuffer.getInstance().upsert(jobInfo, tenant);
   }
 }
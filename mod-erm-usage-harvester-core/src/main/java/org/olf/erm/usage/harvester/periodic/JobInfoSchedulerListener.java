@@ -2,9 +2,9 @@ package org.olf.erm.usage.harvester.periodic;
 
 import static org.folio.rest.jaxrs.model.JobInfo.Type.PERIODIC;
 
-import io.vertx.core.Future;
-import io.vertx.sqlclient.Row;
-import io.vertx.sqlclient.RowSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.folio.rest.jaxrs.model.JobInfo;
 import org.quartz.JobDetail;
 import org.quartz.Scheduler;
@@ -19,23 +19,13 @@ import org.slf4j.LoggerFactory;
 public class JobInfoSchedulerListener extends SchedulerListenerSupport {
 
   private static final Logger log = LoggerFactory.getLogger(JobInfoSchedulerListener.class);
-
-  @Override
-  public void jobAdded(JobDetail jobDetail) {
-    try {
-      Scheduler scheduler = StdSchedulerFactory.getDefaultScheduler();
-      scheduler.pauseJob(jobDetail.getKey());
-    } catch (SchedulerException e) {
-      log.warn(e.getMessage(), e);
-    }
-  }
+  private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 10;
 
   @Override
   public void jobScheduled(Trigger trigger) {
-    Scheduler scheduler;
     JobDetail jobDetail;
     try {
-      scheduler = StdSchedulerFactory.getDefaultScheduler();
+      Scheduler scheduler = StdSchedulerFactory.getDefaultScheduler();
       jobDetail = scheduler.getJobDetail(trigger.getJobKey());
     } catch (SchedulerException e) {
       log.error(e.getMessage(), e);
@@ -46,37 +36,39 @@ public class JobInfoSchedulerListener extends SchedulerListenerSupport {
     String tenantId = trigger.getJobKey().getGroup();
 
     // if we are scheduling a new periodic, then an existing one needs to be removed from db
-    Future<RowSet<Row>> deleteFuture = Future.succeededFuture();
     if (PERIODIC.value().equals(name)) {
-      deleteFuture = JobInfoUtil.deletePeriodicJobInfo(tenantId);
+      JobInfoWriteBuffer.getInstance().deletePeriodicJobInfo(tenantId);
     }
 
-    deleteFuture
-        .compose(
-            rs -> {
-              JobInfo jobInfo = JobInfoUtil.createJobInfo(jobDetail);
-              return JobInfoUtil.upsertJobInfo(
-                      jobInfo
-                          .withStartedAt(trigger.getPreviousFireTime())
-                          .withNextStart(trigger.getNextFireTime()),
-                      tenantId)
-                  .onFailure(t -> log.warn("Error updating JobInfo", t));
-            })
-        .onComplete(
-            ar -> {
-              try {
-                scheduler.resumeTrigger(trigger.getKey());
-              } catch (SchedulerException e) {
-                log.error(e.getMessage(), e);
-              }
-            });
+    JobInfo jobInfo = JobInfoUtil.createJobInfo(jobDetail);
+    JobInfoWriteBuffer.getInstance()
+        .upsert(
+            jobInfo
+                .withStartedAt(trigger.getPreviousFireTime())
+                .withNextStart(trigger.getNextFireTime()),
+            tenantId);
   }
 
   @Override
   public void jobUnscheduled(TriggerKey triggerKey) {
     if (PERIODIC.value().equals(triggerKey.getName())) {
-      JobInfoUtil.deletePeriodicJobInfo(triggerKey.getGroup())
-          .onFailure(t -> log.warn("Error deleting JobInfo", t));
+      JobInfoWriteBuffer.getInstance().deletePeriodicJobInfo(triggerKey.getGroup());
+    }
+  }
+
+  @Override
+  public void schedulerShuttingDown() {
+    try {
+      JobInfoWriteBuffer.getInstance()
+          .flush()
+          .toCompletionStage()
+          .toCompletableFuture()
+          .get(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      log.warn(e.getMessage(), e);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException e) {
+      log.warn("Error saving pending JobInfos", e);
     }
   }
 }
@@ -11,6 +11,7 @@ import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.PERIODIC_JOB_K
 import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.TENANT_JOB_KEY;
 
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 import java.util.List;
@@ -45,12 +46,15 @@ public class JobInfoUtil {
   }
 
   public static Future<RowSet<Row>> deletePeriodicJobInfo(String tenantId) {
+    return deletePeriodicJobInfo(getVertxFromContextOrNew(), tenantId);
+  }
+
+  public static Future<RowSet<Row>> deletePeriodicJobInfo(Vertx vertx, String tenantId) {
     Criterion deleteCriterion =
         new Criterion()
             .addCriterion(
                 new Criteria().addField("'type'").setOperation("=").setVal(PERIODIC.value()))
             .addCriterion(new Criteria().addField("'nextStart'").setOperation("!=").setVal("null"));
-    return PostgresClient.getInstance(getVertxFromContextOrNew(), tenantId)
-        .delete(TABLE_NAME_JOBS, deleteCriterion);
+    return PostgresClient.getInstance(vertx, tenantId).delete(TABLE_NAME_JOBS, deleteCriterion);
   }
 }
@@ -0,0 +1,187 @@
+package org.olf.erm.usage.harvester.periodic;
+
+import static org.folio.rest.tools.utils.VertxUtils.getVertxFromContextOrNew;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.folio.rest.jaxrs.model.JobInfo;
+import org.olf.erm.usage.harvester.HarvesterMetrics;
+import org.olf.erm.usage.harvester.JobInfoPgUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind buffer for {@link JobInfo} updates made by the scheduler listeners.
+ *
+ * <p>Updates are collected per tenant and written after {@value #FLUSH_DELAY_MS} ms, or as soon
+ * as {@value #MAX_BATCH_SIZE} updates are pending, using batched upserts. Since an upsert replaces
+ * the whole JobInfo, only the latest pending update of each job is written. Flushes of a tenant
+ * are executed one after another, so updates of a job made on this node are written in the order
+ * they were made. Updates made on other nodes of a clustered scheduler are not ordered, instead an
+ * update never replaces a finished JobInfo with an unfinished one, see {@link
+ * JobInfoPgUtil#upsertJobInfos}.
+ */
+public class JobInfoWriteBuffer {
+
+  public static final long FLUSH_DELAY_MS = 100;
+  public static final int MAX_BATCH_SIZE = 100;
+  private static final Logger log = LoggerFactory.getLogger(JobInfoWriteBuffer.class);
+  private static final JobInfoWriteBuffer INSTANCE = new JobInfoWriteBuffer();
+  private final Map<String, TenantBuffer> buffers = new ConcurrentHashMap<>();
+  private Vertx vertx;
+
+  JobInfoWriteBuffer() {}
+
+  public static JobInfoWriteBuffer getInstance() {
+    return INSTANCE;
+  }
+
+  /** Sets the Vertx instance used for timers and database access. */
+  public synchronized void setVertx(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  private synchronized Vertx getVertx() {
+    if (vertx == null) {
+      vertx = getVertxFromContextOrNew();
+    }
+    return vertx;
+  }
+
+  /** Queues an upsert of a JobInfo, replacing any pending update of the same job. */
+  public void upsert(JobInfo jobInfo, String tenantId) {
+    getBuffer(tenantId).upsert(jobInfo);
+  }
+
+  /**
+   * Queues the deletion of the periodic JobInfo, which is executed before any update queued
+   * afterwards.
+   *
+   * @see JobInfoUtil#deletePeriodicJobInfo(String)
+   */
+  public void deletePeriodicJobInfo(String tenantId) {
+    getBuffer(tenantId).deletePeriodicJobInfo();
+  }
+
+  /** Writes all pending updates. */
+  public Future<Void> flush() {
+    return Future.join(buffers.values().stream().map(TenantBuffer::flush).toList()).mapEmpty();
+  }
+
+  private TenantBuffer getBuffer(String tenantId) {
+    return buffers.computeIfAbsent(tenantId, TenantBuffer::new);
+  }
+
+  private class TenantBuffer {
+
+    private final String tenantId;
+    private final Map<String, JobInfo> pending = new LinkedHashMap<>();
+    private boolean deletePeriodic = false;
+    private boolean flushScheduled = false;
+    private Future<Void> lastFlush = Future.succeededFuture();
+
+    TenantBuffer(String tenantId) {
+      this.tenantId = tenantId;
+    }
+
+    synchronized void upsert(JobInfo jobInfo) {
+      if (jobInfo.getId() == null) {
+        jobInfo.setId(UUID.randomUUID().toString());
+      }
+      pending.remove(jobInfo.getId());
+      pending.put(jobInfo.getId(), jobInfo);
+      if (pending.size() >= MAX_BATCH_SIZE) {
+        flush();
+      } else {
+        scheduleFlush();
+      }
+    }
+
+    synchronized void deletePeriodicJobInfo() {
+      // pending periodic updates would be deleted as well
+      pending.values().removeIf(JobInfoWriteBuffer::isDeletedPeriodicJobInfo);
+      deletePeriodic = true;
+      scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+      if (!flushScheduled) {
+        flushScheduled = true;
+        getVertx().setTimer(FLUSH_DELAY_MS, id -> flush());
+      }
+    }
+
+    synchronized Future<Void> flush() {
+      flushScheduled = false;
+      lastFlush = lastFlush.transform(ar -> write());
+      return lastFlush;
+    }
+
+    private Future<Void> write() {
+      List<JobInfo> jobInfos;
+      boolean delete;
+      synchronized (this) {
+        jobInfos = new ArrayList<>(pending.values());
+        delete = deletePeriodic;
+        pending.clear();
+        deletePeriodic = false;
+      }
+      if (jobInfos.isEmpty() && !delete) {
+        return Future.succeededFuture();
+      }
+
+      Future<Void> future =
+          delete
+              ? timed("delete", () -> JobInfoUtil.deletePeriodicJobInfo(getVertx(), tenantId))
+                  .<Void>mapEmpty()
+                  .recover(
+                      t -> {
+                        log.warn("Tenant: {}, error deleting JobInfo", tenantId, t);
+                        return Future.succeededFuture();
+                      })
+              : Future.succeededFuture();
+      for (int i = 0; i < jobInfos.size(); i += MAX_BATCH_SIZE) {
+        List<JobInfo> batch = jobInfos.subList(i, Math.min(i + MAX_BATCH_SIZE, jobInfos.size()));
+        future =
+            future.compose(
+                v ->
+                    timed(
+                            "upsert",
+                            () -> JobInfoPgUtil.upsertJobInfos(getVertx(), tenantId, batch))
+                        .<Void>mapEmpty()
+                        .recover(
+                            t -> {
+                              log.warn(
+                                  "Tenant: {}, error saving {} JobInfos",
+                                  tenantId,
+                                  batch.size(),
+                                  t);
+                              return Future.succeededFuture();
+                            }));
+      }
+      return future;
+    }
+  }
+
+  private static <T> Future<T> timed(String operation, Supplier<Future<T>> write) {
+    long start = System.nanoTime();
+    return write
+        .get()
+        .onComplete(
+            ar ->
+                HarvesterMetrics.recordJobInfoWrite(
+                    operation, ar.succeeded(), System.nanoTime() - start));
+  }
+
+  /** Checks if a JobInfo matches the criteria of {@link JobInfoUtil#deletePeriodicJobInfo}. */
+  static boolean isDeletedPeriodicJobInfo(JobInfo jobInfo) {
+    return JobInfo.Type.PERIODIC.equals(jobInfo.getType()) && jobInfo.getNextStart() != null;
+  }
+}
@@ -2,23 +2,34 @@ package org.olf.erm.usage.harvester.periodic;
 
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_JOB_ID;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_PROVIDER_ID;
+import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_PROVIDER_SNAPSHOT;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_TENANT;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_TIMESTAMP;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_TOKEN;
 import static org.quartz.impl.matchers.GroupMatcher.jobGroupEquals;
 
+import io.vertx.core.json.Json;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.folio.rest.jaxrs.model.PeriodicConfig;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.DateBuilder;
 import org.quartz.Job;
 import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.quartz.JobKey;
+import org.quartz.ObjectAlreadyExistsException;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
@@ -36,11 +47,21 @@ public class SchedulingUtil {
 
   private static JobDetail createJobDetail(
       Class<? extends Job> jobClass, JobKey jobKey, String token, String providerId) {
+    return createJobDetail(jobClass, jobKey, token, providerId, null);
+  }
+
+  private static JobDetail createJobDetail(
+      Class<? extends Job> jobClass,
+      JobKey jobKey,
+      String token,
+      String providerId,
+      String providerSnapshot) {
     return JobBuilder.newJob(jobClass)
         .withIdentity(jobKey)
         .usingJobData(DATAKEY_TENANT, jobKey.getGroup())
         .usingJobData(DATAKEY_TOKEN, token)
         .usingJobData(DATAKEY_PROVIDER_ID, providerId)
+        .usingJobData(DATAKEY_PROVIDER_SNAPSHOT, providerSnapshot)
         .usingJobData(DATAKEY_TIMESTAMP, Instant.now().toEpochMilli())
         .usingJobData(DATAKEY_JOB_ID, UUID.randomUUID().toString())
         .build();
@@ -49,16 +70,107 @@ public class SchedulingUtil {
   public static void scheduleProviderJob(
       Scheduler scheduler, String tenantId, String token, String providerId)
       throws SchedulerException {
+    scheduleProviderJob(scheduler, tenantId, token, providerId, null);
+  }
+
+  private static void scheduleProviderJob(
+      Scheduler scheduler, String tenantId, String token, String providerId, String snapshot)
+      throws SchedulerException {
     JobKey jobKey = new JobKey(providerId, tenantId);
     if (scheduler.checkExists(jobKey)) {
       throw new SchedulerException(
           "A job for provider with id '" + providerId + "' is already scheduled/running");
     } else {
-      JobDetail jobDetail = createJobDetail(HarvestProviderJob.class, jobKey, token, providerId);
+      JobDetail jobDetail =
+          createJobDetail(HarvestProviderJob.class, jobKey, token, providerId, snapshot);
       scheduler.scheduleJob(jobDetail, TriggerBuilder.newTrigger().startNow().build());
     }
   }
 
+  /**
+   * Schedules jobs for multiple providers of a tenant with a single call to the scheduler.
+   *
+   * <p>Providers that already have a scheduled or running job are skipped. If a job of one of the
+   * providers got scheduled concurrently, the jobs are scheduled one by one instead.
+   *
+   * @param scheduler the scheduler
+   * @param tenantId the tenant
+   * @param token token used by the jobs
+   * @param providerIds ids of the providers
+   * @return ids of the providers for which no job was scheduled
+   * @throws SchedulerException if the jobs could not be scheduled
+   */
+  public static List<String> scheduleProviderJobs(
+      Scheduler scheduler, String tenantId, String token, List<String> providerIds)
+      throws SchedulerException {
+    return scheduleProviderJobs(scheduler, tenantId, token, providerIds, Map.of());
+  }
+
+  /**
+   * Schedules jobs for multiple providers of a tenant like {@link #scheduleProviderJobs(Scheduler,
+   * String, String, List)}, handing the providers to the jobs as snapshot.
+   *
+   * @param scheduler the scheduler
+   * @param tenantId the tenant
+   * @param token token used by the jobs
+   * @param providers the providers
+   * @return ids of the providers for which no job was scheduled
+   * @throws SchedulerException if the jobs could not be scheduled
+   */
+  public static List<String> scheduleProviderJobsWithSnapshots(
+      Scheduler scheduler, String tenantId, String token, List<UsageDataProvider> providers)
+      throws SchedulerException {
+    Map<String, String> snapshots = new LinkedHashMap<>();
+    providers.forEach(udp -> snapshots.putIfAbsent(udp.getId(), Json.encode(udp)));
+    return scheduleProviderJobs(
+        scheduler, tenantId, token, new ArrayList<>(snapshots.keySet()), snapshots);
+  }
+
+  private static List<String> scheduleProviderJobs(
+      Scheduler scheduler,
+      String tenantId,
+      String token,
+      List<String> providerIds,
+      Map<String, String> snapshots)
+      throws SchedulerException {
+    Set<String> existing =
+        scheduler.getJobKeys(jobGroupEquals(tenantId)).stream()
+            .map(JobKey::getName)
+            .collect(Collectors.toSet());
+
+    List<String> skipped = new ArrayList<>();
+    Map<JobDetail, Set<? extends Trigger>> jobs = new LinkedHashMap<>();
+    for (String providerId : new LinkedHashSet<>(providerIds)) {
+      if (existing.contains(providerId)) {
+        skipped.add(providerId);
+      } else {
+        JobKey jobKey = new JobKey(providerId, tenantId);
+        jobs.put(
+            createJobDetail(
+                HarvestProviderJob.class, jobKey, token, providerId, snapshots.get(providerId)),
+            Set.of(TriggerBuilder.newTrigger().startNow().build()));
+      }
+    }
+    if (jobs.isEmpty()) {
+      return skipped;
+    }
+
+    try {
+      scheduler.scheduleJobs(jobs, false);
+    } catch (ObjectAlreadyExistsException e) {
+      log.warn("Tenant: {}, scheduling provider jobs one by one: {}", tenantId, e.getMessage());
+      for (JobDetail jobDetail : jobs.keySet()) {
+        String providerId = jobDetail.getKey().getName();
+        try {
+          scheduleProviderJob(scheduler, tenantId, token, providerId, snapshots.get(providerId));
+        } catch (SchedulerException ex) {
+          skipped.add(providerId);
+        }
+      }
+    }
+    return skipped;
+  }
+
   public static void scheduleTenantJob(Scheduler scheduler, String tenantId, String token)
       throws SchedulerException {
     boolean jobForTenantExists =
@@ -0,0 +1,177 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncTtlCacheTest {
+
+  private static final Instant NOW = Instant.parse("2023-01-02T03:00:00Z");
+
+  @After
+  public void tearDown() {
+    ClockProvider.setClock(Clock.systemUTC());
+  }
+
+  @Test
+  public void testSingleFlight() {
+    AsyncTtlCache<String, String> cache = new AsyncTtlCache<>(Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+    Promise<String> promise = Promise.promise();
+
+    Future<String> f1 = cache.get("key", () -> load(loads, promise.future()));
+    Future<String> f2 = cache.get("key", () -> load(loads, promise.future()));
+    assertThat(f1.isComplete()).isFalse();
+    promise.complete("value");
+
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(f1.result()).isEqualTo("value");
+    assertThat(f2.result()).isEqualTo("value");
+  }
+
+  @Test
+  public void testExpiry() {
+    ClockProvider.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    AsyncTtlCache<String, String> cache = new AsyncTtlCache<>(Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get("key", () -> load(loads, Future.succeededFuture("v1")));
+    ClockProvider.setClock(Clock.fixed(NOW.plusSeconds(59), ZoneOffset.UTC));
+    assertThat(cache.get("key", () -> load(loads, Future.succeededFuture("v2"))).result())
+        .isEqualTo("v1");
+    ClockProvider.setClock(Clock.fixed(NOW.plusSeconds(60), ZoneOffset.UTC));
+    assertThat(cache.get("key", () -> load(loads, Future.succeededFuture("v3"))).result())
+        .isEqualTo("v3");
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testZeroTtl() {
+    AsyncTtlCache<String, String> cache = new AsyncTtlCache<>(Duration.ZERO);
+    AtomicInteger loads = new AtomicInteger();
+    Promise<String> promise = Promise.promise();
+
+    cache.get("key", () -> load(loads, promise.future()));
+    cache.get("key", () -> load(loads, promise.future()));
+    promise.complete("v1");
+    assertThat(cache.size()).isZero();
+    assertThat(cache.get("key", () -> load(loads, Future.succeededFuture("v2"))).result())
+        .isEqualTo("v2");
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRemoveExpired() {
+    ClockProvider.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    AsyncTtlCache<String, String> cache = new AsyncTtlCache<>(Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+    cache.get("key", () -> load(loads, Future.succeededFuture("value")));
+    cache.get("loading", () -> load(loads, Promise.<String>promise().future()));
+
+    cache.removeExpired();
+    assertThat(cache.size()).isEqualTo(2);
+    ClockProvider.setClock(Clock.fixed(NOW.plusSeconds(60), ZoneOffset.UTC));
+    cache.removeExpired();
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testMaxSize() {
+    ClockProvider.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    AsyncTtlCache<String, String> cache =
+        new AsyncTtlCache<>(Duration.ofMinutes(1), t -> false, 2);
+    AtomicInteger loads = new AtomicInteger();
+    Promise<String> loading = Promise.promise();
+    cache.get("loading", () -> load(loads, loading.future()));
+    cache.get("first", () -> load(loads, Future.succeededFuture("v1")));
+    ClockProvider.setClock(Clock.fixed(NOW.plusSeconds(1), ZoneOffset.UTC));
+    cache.get("second", () -> load(loads, Future.succeededFuture("v2")));
+    cache.get("third", () -> load(loads, Future.succeededFuture("v3")));
+
+    // keys that are still loading are kept, the key expiring first is removed
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.get("second", () -> load(loads, Future.succeededFuture("new"))).result())
+        .isEqualTo("v2");
+    assertThat(cache.get("first", () -> load(loads, Future.succeededFuture("new"))).result())
+        .isEqualTo("new");
+    assertThat(loads.get()).isEqualTo(5);
+  }
+
+  @Test
+  public void testMaxWeight() {
+    ClockProvider.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    AsyncTtlCache<String, String> cache =
+        new AsyncTtlCache<>(Duration.ofMinutes(1), t -> false, 10, String::length);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get("first", () -> load(loads, Future.succeededFuture("12345")));
+    ClockProvider.setClock(Clock.fixed(NOW.plusSeconds(1), ZoneOffset.UTC));
+    cache.get("second", () -> load(loads, Future.succeededFuture("1234")));
+    assertThat(cache.size()).isEqualTo(2);
+
+    // the key expiring first is removed to stay within the maximum weight
+    cache.get("third", () -> load(loads, Future.succeededFuture("12")));
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get("second", () -> load(loads, Future.succeededFuture("new"))).result())
+        .isEqualTo("1234");
+
+    // values exceeding the maximum weight are not kept
+    cache.get("large", () -> load(loads, Future.succeededFuture("12345678901")));
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(loads.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void testFailures() {
+    AsyncTtlCache<String, String> cache =
+        new AsyncTtlCache<>(Duration.ofMinutes(1), t -> "cached".equals(t.getMessage()));
+    AtomicInteger loads = new AtomicInteger();
+
+    assertThat(cache.get("key", () -> load(loads, Future.failedFuture("error"))).failed())
+        .isTrue();
+    assertThat(cache.get("key", () -> load(loads, Future.failedFuture("cached"))).cause())
+        .hasMessage("cached");
+    assertThat(cache.get("key", () -> load(loads, Future.succeededFuture("value"))).cause())
+        .hasMessage("cached");
+    assertThat(
+            cache
+                .get(
+                    "other",
+                    () -> {
+                      throw new IllegalStateException("thrown");
+                    })
+                .cause())
+        .hasMessage("thrown");
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testInvalidate() {
+    AsyncTtlCache<String, String> cache = new AsyncTtlCache<>(Duration.ofMinutes(1));
+    AtomicInteger loads = new AtomicInteger();
+    cache.get("a|1", () -> load(loads, Future.succeededFuture("a1")));
+    cache.get("a|2", () -> load(loads, Future.succeededFuture("a2")));
+    cache.get("b|1", () -> load(loads, Future.succeededFuture("b1")));
+
+    cache.invalidate("b|1");
+    assertThat(cache.size()).isEqualTo(2);
+    cache.invalidateIf(key -> key.startsWith("a|"));
+    assertThat(cache.size()).isZero();
+    assertThat(cache.get("a|1", () -> load(loads, Future.succeededFuture("new"))).result())
+        .isEqualTo("new");
+    assertThat(loads.get()).isEqualTo(4);
+  }
+
+  private static Future<String> load(AtomicInteger loads, Future<String> result) {
+    loads.incrementAndGet();
+    return result;
+  }
+}
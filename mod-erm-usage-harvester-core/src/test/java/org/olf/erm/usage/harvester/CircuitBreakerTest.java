@@ -0,0 +1,183 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.net.ConnectException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.CircuitBreaker.State;
+import org.olf.erm.usage.harvester.endpoints.InvalidReportException;
+import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+
+@RunWith(VertxUnitRunner.class)
+public class CircuitBreakerTest {
+
+  private static final Instant NOW = Instant.parse("2023-01-02T03:00:00Z");
+  private static final Duration OPEN_DURATION = Duration.ofMinutes(5);
+  private static final String HOST = "sushi.example.com";
+
+  @After
+  public void tearDown() {
+    ClockProvider.setClock(Clock.systemUTC());
+  }
+
+  @Test
+  public void testStateTransitions() {
+    CircuitBreaker cb = new CircuitBreaker(HOST, 3, OPEN_DURATION);
+    cb.onFailure(NOW);
+    cb.onFailure(NOW);
+    cb.onSuccess(NOW);
+    cb.onFailure(NOW);
+    cb.onFailure(NOW);
+    assertThat(cb.getState()).isEqualTo(State.CLOSED);
+    assertThat(cb.tryAcquire(NOW)).isTrue();
+
+    cb.onFailure(NOW);
+    assertThat(cb.getState()).isEqualTo(State.OPEN);
+    assertThat(cb.tryAcquire(NOW.plus(OPEN_DURATION).minusSeconds(1))).isFalse();
+
+    // failed probe
+    assertThat(cb.tryAcquire(NOW.plus(OPEN_DURATION))).isTrue();
+    assertThat(cb.getState()).isEqualTo(State.HALF_OPEN);
+    assertThat(cb.tryAcquire(NOW.plus(OPEN_DURATION))).isFalse();
+    cb.onFailure(NOW.plus(OPEN_DURATION));
+    assertThat(cb.getState()).isEqualTo(State.OPEN);
+    assertThat(cb.tryAcquire(NOW.plus(OPEN_DURATION.multipliedBy(2)).minusSeconds(1))).isFalse();
+
+    // successful probe
+    Instant closedAt = NOW.plus(OPEN_DURATION.multipliedBy(2));
+    assertThat(cb.tryAcquire(closedAt)).isTrue();
+    cb.onSuccess(closedAt);
+    assertThat(cb.getState()).isEqualTo(State.CLOSED);
+
+    assertThat(cb.getOpenIntervals(NOW))
+        .singleElement()
+        .satisfies(
+            i -> {
+              assertThat(i.getHost()).isEqualTo(HOST);
+              assertThat(i.getOpenedAt()).isEqualTo(Date.from(NOW));
+              assertThat(i.getClosedAt()).isEqualTo(Date.from(closedAt));
+            });
+    assertThat(cb.getOpenIntervals(closedAt.plusSeconds(1))).isEmpty();
+  }
+
+  @Test
+  public void testGetHost() {
+    assertThat(CircuitBreakerRegistry.getHost("https://SUSHI.example.com/counter/r5"))
+        .isEqualTo(HOST);
+    assertThat(CircuitBreakerRegistry.getHost("http://localhost:8081/"))
+        .isEqualTo("localhost:8081");
+    assertThat(CircuitBreakerRegistry.getHost("no url")).isNull();
+  }
+
+  @Test
+  public void testCircuitBreakingServiceEndpoint(TestContext context) {
+    ClockProvider.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    AtomicInteger calls = new AtomicInteger();
+    ServiceEndpoint failing =
+        (report, begin, end) -> {
+          calls.incrementAndGet();
+          return Future.failedFuture(new ConnectException("Connection refused"));
+        };
+    CircuitBreaker cb = new CircuitBreaker(HOST, 2, OPEN_DURATION);
+    ServiceEndpoint sep = new CircuitBreakingServiceEndpoint(failing, cb);
+
+    sep.fetchReport("JR1", "2018-01-01", "2018-01-31")
+        .recover(t -> sep.fetchReport("JR1", "2018-02-01", "2018-02-28"))
+        .recover(t -> sep.fetchReport("JR1", "2018-03-01", "2018-03-31"))
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t).isInstanceOf(CircuitOpenException.class);
+                  assertThat(calls.get()).isEqualTo(2);
+                  assertThat(cb.getState()).isEqualTo(State.OPEN);
+                }));
+  }
+
+  @Test
+  public void testCircuitBreakingServiceEndpointIgnoresReportErrors(TestContext context) {
+    CircuitBreaker cb = new CircuitBreaker(HOST, 1, OPEN_DURATION);
+    ServiceEndpoint sep =
+        new CircuitBreakingServiceEndpoint(
+            (report, begin, end) -> Future.failedFuture(new InvalidReportException("invalid")),
+            cb);
+
+    sep.fetchReport("JR1", "2018-01-01", "2018-01-31")
+        .recover(t -> sep.fetchReport("JR1", "2018-02-01", "2018-02-28"))
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t).isInstanceOf(InvalidReportException.class);
+                  assertThat(cb.getState()).isEqualTo(State.CLOSED);
+                }));
+  }
+
+  @Test
+  public void testCircuitBreakingServiceEndpointPreflight(TestContext context) {
+    ClockProvider.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    AtomicInteger calls = new AtomicInteger();
+    ServiceEndpoint failing =
+        new ServiceEndpoint() {
+          @Override
+          public Future<List<String>> preflight(List<String> reportTypes) {
+            calls.incrementAndGet();
+            return Future.failedFuture(new ConnectException("Connection refused"));
+          }
+
+          @Override
+          public Future<List<CounterReport>> fetchReport(
+              String report, String beginDate, String endDate) {
+            return Future.failedFuture("not implemented");
+          }
+        };
+    CircuitBreaker cb = new CircuitBreaker(HOST, 1, OPEN_DURATION);
+    ServiceEndpoint sep = new CircuitBreakingServiceEndpoint(failing, cb);
+
+    sep.preflight(List.of("TR"))
+        .recover(t -> sep.preflight(List.of("TR")))
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t).isInstanceOf(CircuitOpenException.class);
+                  assertThat(calls.get()).isEqualTo(1);
+                  assertThat(cb.getState()).isEqualTo(State.OPEN);
+                }));
+  }
+
+  @Test
+  public void testCircuitBreakingServiceEndpointDefaultPreflightIsNoProbe() {
+    CircuitBreaker cb = new CircuitBreaker(HOST, 1, OPEN_DURATION);
+    cb.onFailure(NOW);
+    ClockProvider.setClock(Clock.fixed(NOW.plus(OPEN_DURATION), ZoneOffset.UTC));
+    ServiceEndpoint sep =
+        new CircuitBreakingServiceEndpoint(
+            (report, begin, end) -> Future.succeededFuture(List.of()), cb);
+
+    assertThat(sep.preflight(List.of("TR")).result()).containsExactly("TR");
+    assertThat(cb.getState()).isEqualTo(State.OPEN);
+    assertThat(sep.fetchReport("TR", "2018-01-01", "2018-01-31").succeeded()).isTrue();
+    assertThat(cb.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  public void testIsTransportFailure() {
+    assertThat(
+            CircuitBreakingServiceEndpoint.isTransportFailure(
+                new RuntimeException(new ConnectException())))
+        .isTrue();
+    assertThat(CircuitBreakingServiceEndpoint.isTransportFailure(new RuntimeException("404")))
+        .isFalse();
+  }
+}
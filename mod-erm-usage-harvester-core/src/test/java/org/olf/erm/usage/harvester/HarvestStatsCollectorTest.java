@@ -0,0 +1,69 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.util.concurrent.TimeUnit;
+import org.folio.rest.jaxrs.model.HarvestStats;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.endpoints.FetchObservers;
+
+@RunWith(VertxUnitRunner.class)
+public class HarvestStatsCollectorTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+  private static final String URL = "https://sushi.example.com/r5";
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testGetStats(TestContext context) {
+    HarvestStatsCollector collector = new HarvestStatsCollector();
+    Context vertxContext = vertx.getOrCreateContext();
+    collector.attach(vertxContext);
+
+    collector.itemStarted(1);
+    collector.itemStarted(3);
+    collector.itemStarted(2);
+    collector.itemExpanded();
+    collector.tooManyRequests(true);
+    collector.tooManyRequests(false);
+    collector.fetched(true, TimeUnit.MILLISECONDS.toNanos(500));
+    collector.fetched(false, TimeUnit.MILLISECONDS.toNanos(50));
+    collector.uploaded(false, TimeUnit.MILLISECONDS.toNanos(20));
+    collector.uploaded(true, TimeUnit.MILLISECONDS.toNanos(10));
+    collector.uploadFailed(TimeUnit.MILLISECONDS.toNanos(5));
+    // responses outside of the harvest's context are not counted
+    FetchObservers.onResponse(URL, "TR", 1000, 1000);
+
+    Async async = context.async();
+    vertxContext.runOnContext(
+        v -> {
+          FetchObservers.onResponse(URL, "TR", 300, 2048);
+          FetchObservers.onResponse(URL, "DR", 100, -1);
+
+          HarvestStats stats = collector.getStats();
+          assertThat(stats.getFetchItems()).isEqualTo(3);
+          assertThat(stats.getPeakConcurrency()).isEqualTo(3);
+          assertThat(stats.getExpandedItems()).isEqualTo(1);
+          assertThat(stats.getTooManyRequests()).isEqualTo(2);
+          assertThat(stats.getRetriedItems()).isEqualTo(1);
+          assertThat(stats.getUploadedReports()).isEqualTo(1);
+          assertThat(stats.getFailedReports()).isEqualTo(1);
+          assertThat(stats.getBytesDownloaded()).isEqualTo(2048);
+          assertThat(stats.getFetchTimeMillis()).isEqualTo(450);
+          assertThat(stats.getParseTimeMillis()).isEqualTo(100);
+          assertThat(stats.getUploadTimeMillis()).isEqualTo(35);
+          async.complete();
+        });
+  }
+}
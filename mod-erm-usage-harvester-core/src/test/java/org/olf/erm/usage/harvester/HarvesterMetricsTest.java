@@ -0,0 +1,64 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Meter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.olf.erm.usage.harvester.endpoints.FetchObservers;
+import org.olf.erm.usage.harvester.endpoints.InvalidReportException;
+
+public class HarvesterMetricsTest {
+
+  @Test
+  public void testGetCounterCode() {
+    assertThat(
+            HarvesterMetrics.getCounterCode(
+                "{\"Code\":3030,\"Severity\":\"Error\",\"Message\":\"No Usage Available\"}"))
+        .isEqualTo("3030");
+    assertThat(HarvesterMetrics.getCounterCode("Report not valid: Code=3031")).isEqualTo("3031");
+    assertThat(HarvesterMetrics.getCounterCode("Connection refused")).isEqualTo("unknown");
+    assertThat(HarvesterMetrics.getCounterCode(null)).isEqualTo("unknown");
+  }
+
+  @Test
+  public void testScrape() {
+    HarvesterMetrics.recordFetch("cs50", "sushi.example.com", true, 1_000_000);
+    HarvesterMetrics.countFetchError(new InvalidReportException("{\"Code\":3030}"));
+    HarvesterMetrics.countSharedFetch();
+    HarvesterMetrics.recordUpload(201, 1_000_000);
+    HarvesterMetrics.recordJobWait("provider", 10);
+    HarvesterMetrics.recordJobDuration("provider", true, 100);
+    HarvesterMetrics.recordJobInfoWrite("upsert", true, 1_000_000);
+    FetchObservers.onResponse("https://sushi.example.com/r5", "TR", 100, 2048);
+
+    assertThat(HarvesterMetrics.scrape())
+        .contains(
+            "harvester_fetch_seconds_count{host=\"sushi.example.com\",outcome=\"success\","
+                + "serviceType=\"cs50\",} 1.0",
+            "harvester_fetch_errors_total{code=\"3030\",exception=\"InvalidReportException\",}",
+            "harvester_fetch_shared_total",
+            "harvester_upload_seconds_count{status=\"201\",}",
+            "harvester_job_wait_seconds_count{type=\"provider\",}",
+            "harvester_job_duration_seconds_count{outcome=\"success\",type=\"provider\",}",
+            "harvester_jobinfo_write_seconds_count{operation=\"upsert\",outcome=\"success\",}",
+            "harvester_fetch_response_size_bytes_sum{host=\"sushi.example.com\",report=\"TR\",}"
+                + " 2048.0");
+  }
+
+  @Test
+  public void testWorkerGauges() {
+    AtomicInteger queueSize = new AtomicInteger(3);
+    List<Meter> gauges =
+        HarvesterMetrics.registerWorkerGauges("diku", "provider1", queueSize::get, () -> 1);
+    queueSize.set(5);
+    assertThat(HarvesterMetrics.scrape())
+        .contains(
+            "harvester_queue_size{provider=\"provider1\",tenant=\"diku\",} 5.0",
+            "harvester_inflight{provider=\"provider1\",tenant=\"diku\",} 1.0");
+
+    HarvesterMetrics.remove(gauges);
+    assertThat(HarvesterMetrics.scrape()).doesNotContain("provider=\"provider1\"");
+  }
+}
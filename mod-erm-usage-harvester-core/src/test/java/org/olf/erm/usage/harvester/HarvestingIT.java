@@ -32,6 +32,7 @@ import com.github.tomakehurst.wiremock.http.Request;
 import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonArray;
@@ -39,6 +40,8 @@ import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -66,6 +69,9 @@ import org.folio.rest.jaxrs.model.SushiConfig;
 import org.folio.rest.jaxrs.model.SushiCredentials;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.folio.rest.jaxrs.model.UsageDataProviders;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.tools.utils.NetworkUtils;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -212,12 +218,31 @@ public class HarvestingIT {
     shutdownSchedulers();
   }
 
+  private static Future<Void> clearTables() {
+    List<Future<RowSet<Row>>> futures =
+        tenants.stream()
+            .flatMap(
+                tenant ->
+                    Stream.of(
+                            RetryBackoffPgUtil.TABLE_NAME_RETRY_BACKOFF,
+                            ReportHashPgUtil.TABLE_NAME_REPORT_HASHES,
+                            PublicationLagPgUtil.TABLE_NAME_PUBLICATION_LAG)
+                        .map(
+                            table ->
+                                PostgresClient.getInstance(vertx, tenant)
+                                    .delete(table, new Criterion(new Criteria()))))
+            .toList();
+    return Future.all(futures).mapEmpty();
+  }
+
   @Before
-  public void before() {
+  public void before(TestContext context) {
+    clearTables().onComplete(context.asyncAssertSuccess());
     resetTenantUDPMap();
     baseRule.resetRequests();
     serviceProviderARule.resetRequests();
     serviceProviderBRule.resetRequests();
+    CircuitBreakerRegistry.clear();
 
     baseRule.stubFor(
         get(urlPathEqualTo(providerPath))
@@ -642,6 +667,43 @@ public class HarvestingIT {
     async.await(10000);
   }
 
+  @Test
+  public void testStopOnFatalProviderError(TestContext context) {
+    UsageDataProvider usageDataProvider = tenantUDPMap.get(TENANTA).get(0);
+    usageDataProvider.getHarvestingConfig().setHarvestingStart("2018-01");
+    usageDataProvider.getHarvestingConfig().setHarvestingEnd("2018-12");
+    usageDataProvider.getHarvestingConfig().getSushiConfig().setServiceType("wvitpff");
+
+    Async async = context.async();
+    given()
+        .headers(OKAPI_HEADERS)
+        .get(okapiUrl + HARVESTER_START_PATH + "/dcb0eec3-f63c-440b-adcd-acca2ec44f39")
+        .then()
+        .statusCode(200);
+
+    vertx.setPeriodic(
+        1000,
+        id -> {
+          if (vertx.deploymentIDs().size() <= 1) {
+            context.verify(
+                v -> {
+                  assertThat(
+                          listAppender.getEvents().stream()
+                              .map(LogEvent::getMessage)
+                              .map(Message::getFormattedMessage))
+                      .anyMatch(msg -> msg.contains("Error during processing, 401 - Unauthorized"));
+                  serviceProviderARule.verify(1, getRequestedFor(urlPathEqualTo("/")));
+                  baseRule.verify(0, postRequestedFor(urlEqualTo(reportsPath)));
+                  baseRule.verify(1, putRequestedFor(urlMatching(providerPath + "/.*")));
+                });
+            vertx.cancelTimer(id);
+            async.complete();
+          }
+        });
+
+    async.await(10000);
+  }
+
   @Test
   public void testFailedUploadsMax(TestContext context) {
     UsageDataProvider usageDataProvider = tenantUDPMap.get(TENANTA).get(0);
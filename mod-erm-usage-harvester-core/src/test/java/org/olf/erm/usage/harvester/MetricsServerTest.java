@@ -0,0 +1,42 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class MetricsServerTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close().onComplete(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testMetrics(TestContext context) {
+    HarvesterMetrics.countSharedFetch();
+    WebClient client = WebClient.create(vertx);
+    MetricsServer.start(vertx, 0)
+        .compose(
+            server ->
+                client
+                    .get(server.actualPort(), "localhost", MetricsServer.PATH)
+                    .send()
+                    .compose(
+                        resp -> {
+                          assertThat(resp.statusCode()).isEqualTo(200);
+                          assertThat(resp.bodyAsString()).contains("harvester_fetch_shared_total");
+                          return client.get(server.actualPort(), "localhost", "/other").send();
+                        }))
+        .onComplete(
+            context.asyncAssertSuccess(resp -> assertThat(resp.statusCode()).isEqualTo(404)));
+  }
+}
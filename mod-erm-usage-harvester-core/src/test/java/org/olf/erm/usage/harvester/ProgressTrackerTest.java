@@ -0,0 +1,171 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import org.folio.rest.jaxrs.model.HarvestProgress;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class ProgressTrackerTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+  private static final String TENANT = "tenant";
+  private static final String PROVIDER_ID = "35f68a61-b12c-4f14-a3b7-8518a0ef42fa";
+
+  @BeforeClass
+  public static void beforeClass() {
+    ProgressRegistry.register(vertx);
+  }
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @After
+  public void tearDown() {
+    ProgressRegistry.clear();
+    ClockProvider.setClock(Clock.systemUTC());
+  }
+
+  @Test
+  public void testPublishProgress(TestContext context) {
+    ProgressTracker tracker = new ProgressTracker(vertx, TENANT, PROVIDER_ID, null);
+    tracker.start();
+    tracker.update(3, 2);
+    tracker.itemProcessed();
+    tracker.reportUploaded(false);
+    tracker.reportUploaded(true);
+
+    Async async = context.async();
+    vertx.setPeriodic(
+        100,
+        id -> {
+          if (!ProgressRegistry.get(TENANT, PROVIDER_ID).isEmpty()) {
+            vertx.cancelTimer(id);
+            assertThat(ProgressRegistry.get(TENANT, PROVIDER_ID))
+                .singleElement()
+                .satisfies(
+                    p -> {
+                      assertThat(p.getQueuedItems()).isEqualTo(3);
+                      assertThat(p.getInFlightItems()).isEqualTo(2);
+                      assertThat(p.getProcessedItems()).isEqualTo(1);
+                      assertThat(p.getUploadedReports()).isEqualTo(1);
+                      assertThat(p.getFailedReports()).isEqualTo(1);
+                      assertThat(p.getFinished()).isFalse();
+                    });
+            assertThat(ProgressRegistry.get("otherTenant", null)).isEmpty();
+            assertThat(ProgressRegistry.get(TENANT, "otherProvider")).isEmpty();
+            tracker.finish();
+            async.complete();
+          }
+        });
+  }
+
+  @Test
+  public void testFinish(TestContext context) {
+    ProgressTracker tracker = new ProgressTracker(vertx, TENANT, PROVIDER_ID, null);
+    tracker.start();
+    tracker.update(3, 2);
+    tracker.finish();
+    tracker.update(1, 1);
+
+    HarvestProgress progress = tracker.getProgress();
+    assertThat(progress.getFinished()).isTrue();
+    assertThat(progress.getQueuedItems()).isZero();
+    assertThat(progress.getInFlightItems()).isZero();
+
+    Async async = context.async();
+    vertx.setPeriodic(
+        100,
+        id -> {
+          if (!ProgressRegistry.get(TENANT, null).isEmpty()) {
+            vertx.cancelTimer(id);
+            assertThat(ProgressRegistry.get(TENANT, null))
+                .singleElement()
+                .satisfies(p -> assertThat(p.getFinished()).isTrue());
+            async.complete();
+          }
+        });
+  }
+
+  @Test
+  public void testRetention() {
+    Instant now = Instant.parse("2023-01-02T03:00:00Z");
+    ClockProvider.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    HarvestProgress finished =
+        new HarvestProgress()
+            .withProviderId(PROVIDER_ID)
+            .withFinished(true)
+            .withUpdatedAt(Date.from(now));
+    ProgressRegistry.put(TENANT, finished);
+    // an older update is ignored
+    ProgressRegistry.put(
+        TENANT,
+        JsonObject.mapFrom(finished)
+            .mapTo(HarvestProgress.class)
+            .withFinished(false)
+            .withUpdatedAt(Date.from(now.minusSeconds(1))));
+    assertThat(ProgressRegistry.get(TENANT, null))
+        .singleElement()
+        .satisfies(p -> assertThat(p.getFinished()).isTrue());
+
+    ClockProvider.setClock(
+        Clock.fixed(
+            now.plusSeconds(ProgressRegistry.RETENTION_MINUTES * 60 + 1), ZoneOffset.UTC));
+    assertThat(ProgressRegistry.get(TENANT, null)).isEmpty();
+  }
+
+  @Test
+  public void testStaleUnfinishedProgressExpires() {
+    Instant now = Instant.parse("2023-01-02T03:00:00Z");
+    ClockProvider.setClock(Clock.fixed(now, ZoneOffset.UTC));
+    ProgressRegistry.put(
+        TENANT,
+        new HarvestProgress()
+            .withProviderId(PROVIDER_ID)
+            .withFinished(false)
+            .withUpdatedAt(Date.from(now)));
+
+    ClockProvider.setClock(
+        Clock.fixed(now.plusMillis(ProgressRegistry.STALE_AFTER_MS), ZoneOffset.UTC));
+    assertThat(ProgressRegistry.get(TENANT, null)).hasSize(1);
+
+    ClockProvider.setClock(
+        Clock.fixed(now.plusMillis(ProgressRegistry.STALE_AFTER_MS + 1), ZoneOffset.UTC));
+    assertThat(ProgressRegistry.get(TENANT, null)).isEmpty();
+  }
+
+  @Test
+  public void testUnchangedProgressIsPublishedAgain(TestContext context) {
+    ProgressTracker tracker = new ProgressTracker(vertx, TENANT, PROVIDER_ID, null);
+    Date startedAt = tracker.getProgress().getUpdatedAt();
+    tracker.start();
+    Async async = context.async();
+    vertx.setPeriodic(
+        ProgressTracker.PUBLISH_INTERVAL_MS,
+        id ->
+            ProgressRegistry.get(TENANT, PROVIDER_ID).stream()
+                .filter(p -> p.getUpdatedAt().after(startedAt))
+                .findFirst()
+                .ifPresent(
+                    p -> {
+                      vertx.cancelTimer(id);
+                      tracker.finish();
+                      async.complete();
+                    }));
+  }
+}
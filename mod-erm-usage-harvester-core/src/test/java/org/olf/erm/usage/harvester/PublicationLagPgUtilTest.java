@@ -0,0 +1,89 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.PublicationLagPgUtil.MAX_OBSERVATIONS;
+import static org.olf.erm.usage.harvester.PublicationLagPgUtil.createPublicationLag;
+import static org.olf.erm.usage.harvester.PublicationLagPgUtil.getHoldBackDays;
+import static org.olf.erm.usage.harvester.PublicationLagPgUtil.isPublished;
+import static org.olf.erm.usage.harvester.PublicationLagPgUtil.recordAvailable;
+import static org.olf.erm.usage.harvester.PublicationLagPgUtil.recordNotAvailable;
+
+import io.vertx.core.json.JsonObject;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import org.junit.Test;
+
+public class PublicationLagPgUtilTest {
+
+  private static final String PROVIDER_ID = "35f68a61-b12c-4f14-a3b7-8518a0ef42fa";
+  private static final YearMonth MONTH = YearMonth.of(2023, 1);
+
+  @Test
+  public void testHoldBackDays() {
+    JsonObject lag = createPublicationLag(PROVIDER_ID);
+    assertThat(getHoldBackDays(lag)).isZero();
+
+    assertThat(recordNotAvailable(lag, MONTH, LocalDate.of(2023, 2, 3))).isTrue();
+    assertThat(recordNotAvailable(lag, MONTH, LocalDate.of(2023, 2, 8))).isTrue();
+    assertThat(recordNotAvailable(lag, MONTH, LocalDate.of(2023, 2, 5))).isFalse();
+    // not counted until the month becomes available
+    assertThat(getHoldBackDays(lag)).isZero();
+
+    assertThat(recordAvailable(lag, MONTH)).isTrue();
+    assertThat(recordAvailable(lag, MONTH)).isFalse();
+    assertThat(getHoldBackDays(lag)).isEqualTo(8);
+
+    recordNotAvailable(lag, MONTH.plusMonths(1), LocalDate.of(2023, 3, 12));
+    recordAvailable(lag, MONTH.plusMonths(1));
+    assertThat(getHoldBackDays(lag)).isEqualTo(8);
+
+    recordNotAvailable(lag, MONTH.plusMonths(2), LocalDate.of(2023, 4, 15));
+    recordAvailable(lag, MONTH.plusMonths(2));
+    assertThat(getHoldBackDays(lag)).isEqualTo(12);
+  }
+
+  @Test
+  public void testSingleLatePublicationDoesNotDominate() {
+    JsonObject lag = createPublicationLag(PROVIDER_ID);
+    for (int i = 0; i < MAX_OBSERVATIONS - 1; i++) {
+      YearMonth month = MONTH.plusMonths(i);
+      recordNotAvailable(lag, month, month.plusMonths(1).atDay(4));
+      recordAvailable(lag, month);
+    }
+    YearMonth lateMonth = MONTH.plusMonths(MAX_OBSERVATIONS - 1L);
+    recordNotAvailable(lag, lateMonth, lateMonth.plusMonths(1).atDay(1).plusDays(40));
+    recordAvailable(lag, lateMonth);
+    assertThat(getHoldBackDays(lag)).isEqualTo(4);
+  }
+
+  @Test
+  public void testMonthsWithoutUsageAreIgnored() {
+    JsonObject lag = createPublicationLag(PROVIDER_ID);
+    assertThat(recordNotAvailable(lag, MONTH, LocalDate.of(2023, 2, 3))).isTrue();
+    assertThat(recordNotAvailable(lag, MONTH.minusYears(1), LocalDate.of(2023, 2, 3))).isFalse();
+    assertThat(recordAvailable(lag, MONTH.minusMonths(1))).isFalse();
+    assertThat(getHoldBackDays(lag)).isZero();
+  }
+
+  @Test
+  public void testMaxObservations() {
+    JsonObject lag = createPublicationLag(PROVIDER_ID);
+    recordNotAvailable(lag, MONTH, LocalDate.of(2023, 2, 20));
+    recordAvailable(lag, MONTH);
+    for (int i = 1; i <= MAX_OBSERVATIONS; i++) {
+      YearMonth month = MONTH.plusMonths(i);
+      recordNotAvailable(lag, month, month.plusMonths(1).atDay(3));
+      recordAvailable(lag, month);
+    }
+    assertThat(lag.getJsonArray("observations")).hasSize(MAX_OBSERVATIONS);
+    assertThat(getHoldBackDays(lag)).isEqualTo(3);
+  }
+
+  @Test
+  public void testIsPublished() {
+    assertThat(isPublished(MONTH, 0, LocalDate.of(2023, 2, 1))).isTrue();
+    assertThat(isPublished(MONTH, 5, LocalDate.of(2023, 2, 5))).isFalse();
+    assertThat(isPublished(MONTH, 5, LocalDate.of(2023, 2, 6))).isTrue();
+    assertThat(isPublished(MONTH.minusMonths(1), 5, LocalDate.of(2023, 2, 1))).isTrue();
+  }
+}
@@ -0,0 +1,105 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.ReportHashPgUtil.createHash;
+import static org.olf.erm.usage.harvester.ReportHashPgUtil.createId;
+
+import java.util.Map;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.Report;
+import org.junit.Test;
+
+public class ReportHashPgUtilTest {
+
+  private static CounterReport createCounterReport(Report report) {
+    return new CounterReport()
+        .withProviderId("providerId")
+        .withReportName("JR1")
+        .withYearMonth("2020-01")
+        .withRelease("4")
+        .withReport(report);
+  }
+
+  @Test
+  public void testCreateHashIgnoresPropertyOrder() {
+    CounterReport cr1 =
+        createCounterReport(
+            new Report().withAdditionalProperty("a", "1").withAdditionalProperty("b", "2"));
+    CounterReport cr2 =
+        createCounterReport(
+            new Report().withAdditionalProperty("b", "2").withAdditionalProperty("a", "1"));
+    assertThat(createHash(cr1)).isNotNull().isEqualTo(createHash(cr2));
+  }
+
+  @Test
+  public void testCreateHashDiffers() {
+    CounterReport cr1 = createCounterReport(new Report().withAdditionalProperty("a", "1"));
+    CounterReport cr2 = createCounterReport(new Report().withAdditionalProperty("a", "2"));
+    CounterReport cr3 =
+        createCounterReport(new Report().withAdditionalProperty("a", "1")).withRelease("5");
+    assertThat(createHash(cr1)).isNotEqualTo(createHash(cr2)).isNotEqualTo(createHash(cr3));
+  }
+
+  @Test
+  public void testCreateHashIgnoresCreated() {
+    CounterReport cr1 =
+        createCounterReport(
+            new Report()
+                .withAdditionalProperty(
+                    "Report_Header",
+                    Map.of(
+                        "Report_ID", "TR",
+                        "Created", "2024-01-01T10:00:00Z",
+                        "Created_By", "Vendor A"))
+                .withAdditionalProperty("Report_Items", "items"));
+    CounterReport cr2 =
+        createCounterReport(
+            new Report()
+                .withAdditionalProperty(
+                    "Report_Header",
+                    Map.of(
+                        "Report_ID", "TR",
+                        "Created", "2024-02-15T12:30:00Z",
+                        "Created_By", "Vendor A, node 2"))
+                .withAdditionalProperty("Report_Items", "items"));
+    CounterReport cr3 =
+        createCounterReport(
+            new Report()
+                .withAdditionalProperty(
+                    "Report_Header",
+                    Map.of("Report_ID", "DR", "Created", "2024-01-01T10:00:00Z"))
+                .withAdditionalProperty("Report_Items", "items"));
+    assertThat(createHash(cr1)).isNotNull().isEqualTo(createHash(cr2));
+    assertThat(createHash(cr1)).isNotEqualTo(createHash(cr3));
+  }
+
+  @Test
+  public void testCreateHashIgnoresCounter4Created() {
+    CounterReport cr1 =
+        createCounterReport(
+            new Report()
+                .withAdditionalProperty("created", "2019-03-13T12:42:16.260Z")
+                .withAdditionalProperty("id", "1552480936260")
+                .withAdditionalProperty("name", "JR1"));
+    CounterReport cr2 =
+        createCounterReport(
+            new Report()
+                .withAdditionalProperty("created", "2019-03-14T08:00:00.000Z")
+                .withAdditionalProperty("id", "1552550400000")
+                .withAdditionalProperty("name", "JR1"));
+    assertThat(createHash(cr1)).isNotNull().isEqualTo(createHash(cr2));
+  }
+
+  @Test
+  public void testCreateHashWithoutReport() {
+    assertThat(createHash(createCounterReport(null))).isNull();
+  }
+
+  @Test
+  public void testCreateId() {
+    CounterReport cr = createCounterReport(null);
+    assertThat(createId(cr))
+        .isEqualTo(createId(createCounterReport(new Report())))
+        .isNotEqualTo(createId(createCounterReport(null).withYearMonth("2020-02")));
+  }
+}
@@ -0,0 +1,85 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.RetryBackoffPgUtil.DUE_TOLERANCE;
+import static org.olf.erm.usage.harvester.RetryBackoffPgUtil.MAX_DELAY;
+import static org.olf.erm.usage.harvester.RetryBackoffPgUtil.calculateNextAttempt;
+import static org.olf.erm.usage.harvester.RetryBackoffPgUtil.createFailedState;
+import static org.olf.erm.usage.harvester.RetryBackoffPgUtil.isDue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.RetryBackoff;
+import org.junit.Test;
+
+public class RetryBackoffPgUtilTest {
+
+  private static final Instant NOW = Instant.parse("2023-01-02T03:00:00Z");
+  private static final String PROVIDER_ID = "35f68a61-b12c-4f14-a3b7-8518a0ef42fa";
+
+  @Test
+  public void testCalculateNextAttempt() {
+    assertThat(calculateNextAttempt(1, NOW)).isEqualTo(NOW.plus(Duration.ofDays(1)));
+    assertThat(calculateNextAttempt(2, NOW)).isEqualTo(NOW.plus(Duration.ofDays(2)));
+    assertThat(calculateNextAttempt(4, NOW)).isEqualTo(NOW.plus(Duration.ofDays(8)));
+    assertThat(calculateNextAttempt(10, NOW)).isEqualTo(NOW.plus(MAX_DELAY));
+    assertThat(calculateNextAttempt(Integer.MAX_VALUE, NOW)).isEqualTo(NOW.plus(MAX_DELAY));
+  }
+
+  @Test
+  public void testIsDue() {
+    assertThat(isDue(null, NOW)).isTrue();
+    assertThat(isDue(new RetryBackoff(), NOW)).isTrue();
+    assertThat(isDue(new RetryBackoff().withNextAttemptAt(Date.from(NOW)), NOW)).isTrue();
+    assertThat(isDue(new RetryBackoff().withNextAttemptAt(Date.from(NOW.plus(DUE_TOLERANCE))), NOW))
+        .isTrue();
+    assertThat(
+            isDue(
+                new RetryBackoff()
+                    .withNextAttemptAt(Date.from(NOW.plus(DUE_TOLERANCE).plusSeconds(1))),
+                NOW))
+        .isFalse();
+  }
+
+  /**
+   * Runs of a daily schedule start at 03:00, the failing requests are made a few minutes later.
+   * Each attempt must happen in the run after the delay, not one run later.
+   */
+  @Test
+  public void testDailySchedule() {
+    RetryBackoff state = null;
+    Instant lastAttempt = NOW;
+    for (long expectedDays : new long[] {1, 2, 4, 8, 16, 32, 32}) {
+      Instant failedAt = lastAttempt.plus(Duration.ofMinutes(10));
+      state = createFailedState(PROVIDER_ID, new CounterReport(), state, failedAt);
+      Instant run = lastAttempt.plus(Duration.ofDays(1));
+      while (!isDue(state, run)) {
+        run = run.plus(Duration.ofDays(1));
+      }
+      assertThat(Duration.between(lastAttempt, run)).isEqualTo(Duration.ofDays(expectedDays));
+      lastAttempt = run;
+    }
+  }
+
+  @Test
+  public void testCreateFailedState() {
+    CounterReport report =
+        new CounterReport()
+            .withReportName("JR1")
+            .withYearMonth("2020-01")
+            .withFailedReason("some reason");
+    RetryBackoff first = createFailedState(PROVIDER_ID, report, null, NOW);
+    assertThat(first.getId())
+        .isEqualTo(RetryBackoffPgUtil.createId(PROVIDER_ID, "JR1", "2020-01"));
+    assertThat(first.getFailedCount()).isEqualTo(1);
+    assertThat(first.getFailedReason()).isEqualTo("some reason");
+    assertThat(first.getNextAttemptAt()).isEqualTo(Date.from(NOW.plus(Duration.ofDays(1))));
+
+    RetryBackoff second = createFailedState(PROVIDER_ID, report, first, NOW);
+    assertThat(second.getId()).isEqualTo(first.getId());
+    assertThat(second.getFailedCount()).isEqualTo(2);
+    assertThat(second.getNextAttemptAt()).isEqualTo(Date.from(NOW.plus(Duration.ofDays(2))));
+  }
+}
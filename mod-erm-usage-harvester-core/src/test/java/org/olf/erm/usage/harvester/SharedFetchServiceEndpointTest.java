@@ -0,0 +1,190 @@
+package org.olf.erm.usage.harvester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.Json;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.HarvestingConfig;
+import org.folio.rest.jaxrs.model.HarvestingConfig.HarvestVia;
+import org.folio.rest.jaxrs.model.Report;
+import org.folio.rest.jaxrs.model.SushiConfig;
+import org.folio.rest.jaxrs.model.SushiCredentials;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.junit.After;
+import org.junit.Test;
+import org.olf.erm.usage.harvester.CircuitBreaker.State;
+import org.olf.erm.usage.harvester.SharedFetchServiceEndpoint.SharedReport;
+import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+
+public class SharedFetchServiceEndpointTest {
+
+  private final List<Promise<List<CounterReport>>> requests = new ArrayList<>();
+  private final ServiceEndpoint delegate =
+      (report, beginDate, endDate) -> {
+        Promise<List<CounterReport>> promise = Promise.promise();
+        requests.add(promise);
+        return promise.future();
+      };
+
+  @After
+  public void tearDown() {
+    SharedFetchServiceEndpoint.clear();
+  }
+
+  private static UsageDataProvider createProvider(String id, String customerId) {
+    return new UsageDataProvider()
+        .withId(id)
+        .withHarvestingConfig(
+            new HarvestingConfig()
+                .withReportRelease(5)
+                .withHarvestVia(HarvestVia.SUSHI)
+                .withSushiConfig(
+                    new SushiConfig()
+                        .withServiceType("cs50")
+                        .withServiceUrl("https://example.com/sushi")))
+        .withSushiCredentials(
+            new SushiCredentials()
+                .withCustomerId(customerId)
+                .withRequestorId("reqId")
+                .withApiKey("apiKey"));
+  }
+
+  private static CounterReport createReport(String providerId) {
+    return new CounterReport()
+        .withId("3b7c0c22-63ae-4e41-9b83-8c0c0f1b6a5a")
+        .withProviderId(providerId)
+        .withReportName("TR")
+        .withYearMonth("2024-01")
+        .withReport(new Report());
+  }
+
+  @Test
+  public void testFingerprint() {
+    String fingerprint =
+        SharedFetchServiceEndpoint.createFingerprint(createProvider("a", "custId"), null);
+    assertThat(SharedFetchServiceEndpoint.createFingerprint(createProvider("b", "custId"), null))
+        .isEqualTo(fingerprint);
+    assertThat(SharedFetchServiceEndpoint.createFingerprint(createProvider("a", "other"), null))
+        .isNotEqualTo(fingerprint);
+    assertThat(fingerprint).doesNotContain("custId", "reqId", "apiKey");
+  }
+
+  @Test
+  public void testFetchIsShared() {
+    ServiceEndpoint tenantA =
+        new SharedFetchServiceEndpoint(delegate, createProvider("providerA", "custId"), null);
+    ServiceEndpoint tenantB =
+        new SharedFetchServiceEndpoint(delegate, createProvider("providerB", "custId"), null);
+
+    Future<List<CounterReport>> resultA = tenantA.fetchReport("TR", "2024-01-01", "2024-01-31");
+    Future<List<CounterReport>> resultB = tenantB.fetchReport("TR", "2024-01-01", "2024-01-31");
+    assertThat(requests).hasSize(1);
+    requests.get(0).complete(List.of(createReport("providerA")));
+
+    CounterReport reportA = resultA.result().get(0);
+    CounterReport reportB = resultB.result().get(0);
+    assertThat(reportA.getProviderId()).isEqualTo("providerA");
+    assertThat(reportB.getProviderId()).isEqualTo("providerB");
+    assertThat(reportA).isNotSameAs(reportB);
+    assertThat(reportA.getId()).isNotEqualTo(reportB.getId());
+    assertThat(reportB.getReportName()).isEqualTo("TR");
+    assertThat(reportB.getYearMonth()).isEqualTo("2024-01");
+    assertThat(reportB.getReport()).isSameAs(reportA.getReport());
+  }
+
+  @Test
+  public void testSharedResultIsHandedBackOnCallerContext() throws Exception {
+    Vertx vertx = Vertx.vertx();
+    try {
+      Context context = vertx.getOrCreateContext();
+      ServiceEndpoint tenantA =
+          new SharedFetchServiceEndpoint(delegate, createProvider("providerA", "custId"), null);
+      ServiceEndpoint tenantB =
+          new SharedFetchServiceEndpoint(delegate, createProvider("providerB", "custId"), null);
+
+      tenantA.fetchReport("TR", "2024-01-01", "2024-01-31");
+      CompletableFuture<Void> joined = new CompletableFuture<>();
+      CompletableFuture<Context> continuedOn = new CompletableFuture<>();
+      context.runOnContext(
+          v -> {
+            tenantB
+                .fetchReport("TR", "2024-01-01", "2024-01-31")
+                .onComplete(ar -> continuedOn.complete(Vertx.currentContext()));
+            joined.complete(null);
+          });
+      joined.get(5, TimeUnit.SECONDS);
+      assertThat(requests).hasSize(1);
+
+      requests.get(0).complete(List.of(createReport("providerA")));
+      assertThat(continuedOn.get(5, TimeUnit.SECONDS)).isSameAs(context);
+    } finally {
+      vertx.close();
+    }
+  }
+
+  @Test
+  public void testSharedFailureCountsOnceForCircuitBreaker() {
+    CircuitBreaker cb = new CircuitBreaker("example.com", 2, Duration.ofMinutes(5));
+    ServiceEndpoint guarded = new CircuitBreakingServiceEndpoint(delegate, cb);
+    ServiceEndpoint tenantA =
+        new SharedFetchServiceEndpoint(guarded, createProvider("providerA", "custId"), null);
+    ServiceEndpoint tenantB =
+        new SharedFetchServiceEndpoint(guarded, createProvider("providerB", "custId"), null);
+
+    Future<List<CounterReport>> resultA = tenantA.fetchReport("TR", "2024-01-01", "2024-01-31");
+    Future<List<CounterReport>> resultB = tenantB.fetchReport("TR", "2024-01-01", "2024-01-31");
+    requests.get(0).fail(new ConnectException("Connection refused"));
+
+    assertThat(resultA.failed()).isTrue();
+    assertThat(resultB.failed()).isTrue();
+    assertThat(cb.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  public void testFetchIsNotSharedWithOtherCredentials() {
+    ServiceEndpoint tenantA =
+        new SharedFetchServiceEndpoint(delegate, createProvider("providerA", "custId"), null);
+    ServiceEndpoint tenantB =
+        new SharedFetchServiceEndpoint(delegate, createProvider("providerB", "other"), null);
+
+    tenantA.fetchReport("TR", "2024-01-01", "2024-01-31");
+    tenantB.fetchReport("TR", "2024-01-01", "2024-01-31");
+    tenantA.fetchReport("DR", "2024-01-01", "2024-01-31");
+    assertThat(requests).hasSize(3);
+  }
+
+  @Test
+  public void testCompletedFetchIsNotKeptByDefault() {
+    ServiceEndpoint tenantA =
+        new SharedFetchServiceEndpoint(delegate, createProvider("providerA", "custId"), null);
+    ServiceEndpoint tenantB =
+        new SharedFetchServiceEndpoint(delegate, createProvider("providerB", "custId"), null);
+
+    tenantA.fetchReport("TR", "2024-01-01", "2024-01-31");
+    requests.get(0).fail("error");
+    tenantB.fetchReport("TR", "2024-01-01", "2024-01-31");
+    requests.get(1).complete(List.of(createReport("providerB")));
+    tenantA.fetchReport("TR", "2024-01-01", "2024-01-31");
+    assertThat(requests).hasSize(3);
+  }
+
+  @Test
+  public void testSize() {
+    CounterReport report = createReport("providerA");
+    long size = SharedFetchServiceEndpoint.getSize(SharedReport.share(List.of(report)));
+    assertThat(size).isGreaterThan(Json.encodeToBuffer(report.getReport()).length());
+    assertThat(SharedFetchServiceEndpoint.getSize(SharedReport.share(List.of(report, report))))
+        .isEqualTo(2 * size);
+    assertThat(SharedFetchServiceEndpoint.getSize(null)).isZero();
+  }
+}
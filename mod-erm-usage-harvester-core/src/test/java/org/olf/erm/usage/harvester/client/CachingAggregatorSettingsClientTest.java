@@ -0,0 +1,98 @@
+package org.olf.erm.usage.harvester.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import java.util.ArrayList;
+import java.util.List;
+import org.folio.rest.jaxrs.model.Aggregator;
+import org.folio.rest.jaxrs.model.AggregatorSetting;
+import org.folio.rest.jaxrs.model.HarvestingConfig;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.junit.After;
+import org.junit.Test;
+
+public class CachingAggregatorSettingsClientTest {
+
+  @After
+  public void tearDown() {
+    CachingAggregatorSettingsClient.clear();
+  }
+
+  private static UsageDataProvider createProvider(String aggregatorId) {
+    return new UsageDataProvider()
+        .withHarvestingConfig(
+            new HarvestingConfig().withAggregator(new Aggregator().withId(aggregatorId)));
+  }
+
+  @Test
+  public void testCachePerTenant() {
+    CountingClient client = new CountingClient(false);
+    ExtAggregatorSettingsClient tenant1 = new CachingAggregatorSettingsClient("tenant1", client);
+    ExtAggregatorSettingsClient tenant2 = new CachingAggregatorSettingsClient("tenant2", client);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(tenant1.getAggregatorSetting(createProvider("a1")).result().getId())
+          .isEqualTo("a1");
+    }
+    tenant1.getAggregatorSetting(createProvider("a2"));
+    tenant2.getAggregatorSetting(createProvider("a1"));
+    assertThat(client.requests).containsExactly("a1", "a2", "a1");
+
+    CachingAggregatorSettingsClient.invalidate("tenant1");
+    tenant1.getAggregatorSetting(createProvider("a1"));
+    tenant2.getAggregatorSetting(createProvider("a1"));
+    assertThat(client.requests).containsExactly("a1", "a2", "a1", "a1");
+  }
+
+  @Test
+  public void testConcurrentRequestsAreShared() {
+    Promise<AggregatorSetting> promise = Promise.promise();
+    List<String> requests = new ArrayList<>();
+    ExtAggregatorSettingsClient cachingClient =
+        new CachingAggregatorSettingsClient(
+            "tenant1",
+            provider -> {
+              requests.add(provider.getHarvestingConfig().getAggregator().getId());
+              return promise.future();
+            });
+
+    Future<AggregatorSetting> first = cachingClient.getAggregatorSetting(createProvider("a1"));
+    Future<AggregatorSetting> second = cachingClient.getAggregatorSetting(createProvider("a1"));
+    promise.complete(new AggregatorSetting().withId("a1"));
+    assertThat(requests).containsExactly("a1");
+    assertThat(first.result()).isSameAs(second.result());
+  }
+
+  @Test
+  public void testErrorsAreNotCached() {
+    CountingClient client = new CountingClient(true);
+    ExtAggregatorSettingsClient cachingClient =
+        new CachingAggregatorSettingsClient("tenant1", client);
+
+    assertThat(cachingClient.getAggregatorSetting(createProvider("a1")).failed()).isTrue();
+    assertThat(cachingClient.getAggregatorSetting(createProvider("a1")).failed()).isTrue();
+    assertThat(client.requests).containsExactly("a1", "a1");
+  }
+
+  /** Client that records requested aggregator ids. */
+  private static class CountingClient implements ExtAggregatorSettingsClient {
+
+    private final boolean fail;
+    private final List<String> requests = new ArrayList<>();
+
+    CountingClient(boolean fail) {
+      this.fail = fail;
+    }
+
+    @Override
+    public Future<AggregatorSetting> getAggregatorSetting(UsageDataProvider provider) {
+      String id = provider.getHarvestingConfig().getAggregator().getId();
+      requests.add(id);
+      return fail
+          ? Future.failedFuture("Failed getting AggregatorSetting")
+          : Future.succeededFuture(new AggregatorSetting().withId(id));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.olf.erm.usage.harvester.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.client.ExtConfigurationsClientImpl.NO_ENTRY;
+
+import io.vertx.core.Future;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConfigurationCacheTest {
+
+  private static final String MODULE = "ERM-USAGE-HARVESTER";
+
+  @After
+  public void tearDown() {
+    ConfigurationCache.clear();
+  }
+
+  @Test
+  public void testCachePerTenant() {
+    CountingClient client = new CountingClient(Map.of("maxFailedAttempts", "3"));
+    ExtConfigurationsClient tenant1 = new CachingConfigurationsClient("tenant1", client);
+    ExtConfigurationsClient tenant2 = new CachingConfigurationsClient("tenant2", client);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(tenant1.getModConfigurationValue(MODULE, "maxFailedAttempts").result())
+          .isEqualTo("3");
+      assertThat(tenant1.getModConfigurationValue(MODULE, "daysToKeepLogs").cause())
+          .hasMessage(NO_ENTRY);
+    }
+    tenant2.getModConfigurationValue(MODULE, "maxFailedAttempts");
+    assertThat(client.requests)
+        .containsEntry("maxFailedAttempts", 2)
+        .containsEntry("daysToKeepLogs", 1);
+
+    ConfigurationCache.invalidate("tenant1");
+    tenant1.getModConfigurationValue(MODULE, "maxFailedAttempts");
+    tenant2.getModConfigurationValue(MODULE, "maxFailedAttempts");
+    assertThat(client.requests).containsEntry("maxFailedAttempts", 3);
+  }
+
+  @Test
+  public void testErrorsAreNotCached() {
+    CountingClient client = new CountingClient(null);
+    ExtConfigurationsClient cachingClient = new CachingConfigurationsClient("tenant1", client);
+
+    assertThat(cachingClient.getModConfigurationValue(MODULE, "maxFailedAttempts").failed())
+        .isTrue();
+    assertThat(cachingClient.getModConfigurationValue(MODULE, "maxFailedAttempts").failed())
+        .isTrue();
+    assertThat(client.requests).containsEntry("maxFailedAttempts", 2);
+  }
+
+  /** Client that counts requests and fails for all requests if no values are given. */
+  private static class CountingClient implements ExtConfigurationsClient {
+
+    private final Map<String, String> values;
+    private final Map<String, Integer> requests = new HashMap<>();
+
+    CountingClient(Map<String, String> values) {
+      this.values = values;
+    }
+
+    @Override
+    public Future<String> getModConfigurationValue(String module, String configName) {
+      requests.merge(configName, 1, Integer::sum);
+      if (values == null) {
+        return Future.failedFuture("Failed getting configuration value");
+      }
+      String value = values.get(configName);
+      return (value == null) ? Future.failedFuture(NO_ENTRY) : Future.succeededFuture(value);
+    }
+  }
+}
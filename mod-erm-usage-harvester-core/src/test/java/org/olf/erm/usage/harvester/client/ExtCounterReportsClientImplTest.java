@@ -1,9 +1,11 @@
 package org.olf.erm.usage.harvester.client;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
@@ -105,6 +107,125 @@ public class ExtCounterReportsClientImplTest {
         .onComplete(context.asyncAssertSuccess(v -> verify(putRequestedFor(urlEqualTo(urlId)))));
   }
 
+  @Test
+  public void upsertReportWithoutExisting(TestContext context) {
+    stubFor(post(urlEqualTo(PATH)).willReturn(aResponse().withStatus(201)));
+
+    counterReportsClient
+        .upsertReport(cr, null)
+        .onComplete(
+            context.asyncAssertSuccess(
+                v -> {
+                  verify(exactly(0), getRequestedFor(urlPathEqualTo(PATH)));
+                  verify(postRequestedFor(urlEqualTo(PATH)));
+                }));
+  }
+
+  @Test
+  public void upsertReportWithExisting(TestContext context) {
+    final String id = "43d7e87c-fb32-4ce2-81f9-11fe75c29bbb";
+    stubFor(put(urlEqualTo(PATH + "/" + id)).willReturn(aResponse().withStatus(204)));
+
+    counterReportsClient
+        .upsertReport(cr, new CounterReport().withId(id))
+        .onComplete(
+            context.asyncAssertSuccess(
+                v -> {
+                  verify(exactly(0), getRequestedFor(urlPathEqualTo(PATH)));
+                  verify(putRequestedFor(urlEqualTo(PATH + "/" + id)));
+                }));
+  }
+
+  @Test
+  public void upsertReportWithConflict(TestContext context) {
+    final String urlId = PATH + "/43d7e87c-fb32-4ce2-81f9-11fe75c29bbb";
+    stubFor(
+        get(urlPathEqualTo(PATH))
+            .willReturn(aResponse().withStatus(200).withBodyFile("counter-reports-one.json")));
+    stubFor(post(urlEqualTo(PATH)).willReturn(aResponse().withStatus(422)));
+    stubFor(put(urlEqualTo(urlId)).willReturn(aResponse().withStatus(204)));
+
+    counterReportsClient
+        .upsertReport(cr, null)
+        .onComplete(
+            context.asyncAssertSuccess(
+                resp -> {
+                  assertThat(resp.statusCode()).isEqualTo(204);
+                  verify(exactly(1), getRequestedFor(urlPathEqualTo(PATH)));
+                  verify(putRequestedFor(urlEqualTo(urlId)));
+                }));
+  }
+
+  @Test
+  public void upsertReportWithBadRequest(TestContext context) {
+    stubFor(post(urlEqualTo(PATH)).willReturn(aResponse().withStatus(400)));
+
+    counterReportsClient
+        .upsertReport(cr, null)
+        .onComplete(
+            context.asyncAssertSuccess(
+                resp -> {
+                  assertThat(resp.statusCode()).isEqualTo(400);
+                  verify(exactly(0), getRequestedFor(urlPathEqualTo(PATH)));
+                  verify(exactly(1), postRequestedFor(urlEqualTo(PATH)));
+                }));
+  }
+
+  @Test
+  public void upsertReportWithOutdatedExisting(TestContext context) {
+    final String staleId = "1d8e9d38-2b4c-4f3e-9a57-6c7b0b1f3d11";
+    final String urlId = PATH + "/43d7e87c-fb32-4ce2-81f9-11fe75c29bbb";
+    stubFor(
+        get(urlPathEqualTo(PATH))
+            .willReturn(aResponse().withStatus(200).withBodyFile("counter-reports-one.json")));
+    stubFor(put(urlEqualTo(PATH + "/" + staleId)).willReturn(aResponse().withStatus(404)));
+    stubFor(put(urlEqualTo(urlId)).willReturn(aResponse().withStatus(204)));
+    CounterReport report =
+        Json.decodeValue(Json.encode(cr), CounterReport.class).withFailedAttempts(1);
+
+    counterReportsClient
+        .upsertReport(report, new CounterReport().withId(staleId).withFailedAttempts(3))
+        .onComplete(
+            context.asyncAssertSuccess(
+                resp -> {
+                  assertThat(resp.statusCode()).isEqualTo(204);
+                  verify(
+                      putRequestedFor(urlEqualTo(urlId))
+                          .withRequestBody(
+                              matchingJsonPath(
+                                  "$.id", equalTo("43d7e87c-fb32-4ce2-81f9-11fe75c29bbb")))
+                          .withRequestBody(matchingJsonPath("$.failedAttempts", equalTo("1"))));
+                }));
+  }
+
+  @Test
+  public void testGetFetchPlan(TestContext context) {
+    UsageDataProvider provider = createSampleUsageDataProvider();
+    provider.getHarvestingConfig().setHarvestingEnd("2018-03");
+    CounterReports reports = createCounterSampleReports();
+    reports.getCounterReports().forEach(r -> r.setId(UUID.randomUUID().toString()));
+    reports.getCounterReports().get(0).setFailedAttempts(1);
+
+    stubFor(
+        get(urlPathEqualTo(PATH))
+            .willReturn(aResponse().withStatus(200).withBody(Json.encodePrettily(reports))));
+
+    counterReportsClient
+        .getFetchPlan(provider, 5)
+        .onComplete(
+            context.asyncAssertSuccess(
+                plan -> {
+                  assertThat(plan.getFetchItems())
+                      .hasSize(6)
+                      .contains(new FetchItem("JR1", "2017-12-01", "2017-12-31"));
+                  assertThat(plan.getReportIndex().size()).isEqualTo(9);
+                  assertThat(plan.getReportIndex().get("JR2", "2017-12"))
+                      .satisfies(r -> assertThat(r.getFailedAttempts()).isEqualTo(1));
+                  assertThat(plan.getReportIndex().get("JR2", "2018-01"))
+                      .satisfies(r -> assertThat(r.getFailedAttempts()).isNull());
+                }));
+  }
+
   @Test
   public void testGetValidMonths(TestContext context) {
     String encode = Json.encodePrettily(createCounterSampleReports());
@@ -1,13 +1,16 @@
 package org.olf.erm.usage.harvester.client;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
 import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -98,6 +101,24 @@ public class ExtUsageDataProvidersClientImplTest {
             context.asyncAssertSuccess(udps -> assertThat(udps.getTotalRecords()).isEqualTo(3)));
   }
 
+  @Test
+  public void getActiveProvidersPage(TestContext context) {
+    stubFor(
+        get(urlPathMatching(PATH))
+            .willReturn(aResponse().withBodyFile("usage-data-providers.json")));
+
+    udpClient
+        .getActiveProviders(50, 25)
+        .onComplete(
+            context.asyncAssertSuccess(
+                udps ->
+                    verify(
+                        getRequestedFor(urlPathEqualTo(PATH))
+                            .withQueryParam("offset", equalTo("50"))
+                            .withQueryParam("limit", equalTo("25"))
+                            .withQueryParam("query", containing("sortby id")))));
+  }
+
   @Test
   public void getActiveProvidersResponseBodyIsNull(TestContext context) {
     stubFor(get(urlPathMatching(PATH)).willReturn(aResponse().withBody("")));
@@ -20,6 +20,7 @@ import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.ext.web.client.WebClient;
+import java.time.Instant;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.okapi.common.XOkapiHeaders;
 import org.junit.After;
@@ -82,6 +83,41 @@ public class OkapiClientImplTest {
         .onComplete(context.asyncAssertSuccess(s -> assertThat(s).isEqualTo("expiryToken")));
   }
 
+  @Test
+  public void testLoginWithExpiryExpiration(TestContext context) {
+    stubFor(
+        post(urlEqualTo(PATH_LOGIN_EXPIRY))
+            .willReturn(
+                aResponse()
+                    .withStatus(201)
+                    .withHeader("Set-Cookie", "folioAccessToken=expiryToken")
+                    .withBody("{\"accessTokenExpiration\":\"2024-01-01T10:00:00Z\"}")));
+    okapiClient
+        .loginSystemUserWithExpiry(tenantId, SYSTEM_USER)
+        .onComplete(
+            context.asyncAssertSuccess(
+                t -> {
+                  assertThat(t.getToken()).isEqualTo("expiryToken");
+                  assertThat(t.getExpiresAt()).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+                }));
+  }
+
+  @Test
+  public void testLegacyLoginNoExpiration(TestContext context) {
+    stubFor(post(urlEqualTo(PATH_LOGIN_EXPIRY)).willReturn(aResponse().withStatus(404)));
+    stubFor(
+        post(urlEqualTo(PATH_LOGIN))
+            .willReturn(aResponse().withStatus(201).withHeader(XOkapiHeaders.TOKEN, "someToken")));
+    okapiClient
+        .loginSystemUserWithExpiry(tenantId, SYSTEM_USER)
+        .onComplete(
+            context.asyncAssertSuccess(
+                t -> {
+                  assertThat(t.getToken()).isEqualTo("someToken");
+                  assertThat(t.getExpiresAt()).isNull();
+                }));
+  }
+
   @Test
   public void testLegacyLoginFailure(TestContext context) {
     stubFor(post(urlEqualTo(PATH_LOGIN_EXPIRY)).willReturn(aResponse().withStatus(404)));
@@ -4,6 +4,8 @@ import static io.vertx.core.Future.succeededFuture;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.io.Resources;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.Json;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -12,15 +14,24 @@ import java.nio.charset.StandardCharsets;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.HarvestingConfig.HarvestVia;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.CircuitBreakingServiceEndpoint;
+import org.olf.erm.usage.harvester.SharedFetchServiceEndpoint;
 
 @RunWith(VertxUnitRunner.class)
 public class ServiceEndpointFactoryTest {
 
+  private static final Vertx vertx = Vertx.vertx();
   private UsageDataProvider usageDataProvider;
 
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close().onComplete(context.asyncAssertSuccess());
+  }
+
   @Before
   public void setUp() throws IOException {
     usageDataProvider =
@@ -32,15 +43,22 @@ public class ServiceEndpointFactoryTest {
 
   @Test
   public void testCreateServiceEndpoint(TestContext context) {
-    new ServiceEndpointFactory(provider -> null)
+    new ServiceEndpointFactory(vertx.getOrCreateContext(), provider -> null)
         .createServiceEndpoint(usageDataProvider)
-        .onComplete(context.asyncAssertSuccess(sep -> assertThat(sep).isNotNull()));
+        .onComplete(
+            context.asyncAssertSuccess(
+                sep -> {
+                  assertThat(sep).isInstanceOf(SharedFetchServiceEndpoint.class);
+                  assertThat(((SharedFetchServiceEndpoint) sep).getDelegate())
+                      .isInstanceOf(CircuitBreakingServiceEndpoint.class);
+                  assertThat(CircuitBreakingServiceEndpoint.find(sep)).isPresent();
+                }));
   }
 
   @Test
   public void testGetServiceEndpointNoImplementation(TestContext context) throws IOException {
     usageDataProvider.getHarvestingConfig().getSushiConfig().setServiceType("test3");
-    new ServiceEndpointFactory(provider -> null)
+    new ServiceEndpointFactory(vertx.getOrCreateContext(), provider -> null)
         .createServiceEndpoint(usageDataProvider)
         .onComplete(
             context.asyncAssertFailure(
@@ -55,7 +73,7 @@ public class ServiceEndpointFactoryTest {
             Resources.toString(
                 Resources.getResource("__files/aggregator-setting.json"), StandardCharsets.UTF_8),
             AggregatorSetting.class);
-    new ServiceEndpointFactory(provider -> succeededFuture(aggregatorSetting))
+    new ServiceEndpointFactory(vertx.getOrCreateContext(), provider -> succeededFuture(aggregatorSetting))
         .createServiceEndpoint(usageDataProvider)
         .onComplete(context.asyncAssertSuccess(sep -> assertThat(sep).isNotNull()));
   }
@@ -65,7 +83,7 @@ public class ServiceEndpointFactoryTest {
     usageDataProvider.getHarvestingConfig().setHarvestVia(HarvestVia.AGGREGATOR);
     usageDataProvider.getHarvestingConfig().setAggregator(null);
 
-    new ServiceEndpointFactory(provider -> null)
+    new ServiceEndpointFactory(vertx.getOrCreateContext(), provider -> null)
         .createServiceEndpoint(usageDataProvider)
         .onComplete(context.asyncAssertSuccess(sep -> assertThat(sep).isNotNull()));
   }
@@ -75,8 +93,20 @@ public class ServiceEndpointFactoryTest {
     usageDataProvider.getHarvestingConfig().setHarvestVia(HarvestVia.AGGREGATOR);
     usageDataProvider.getHarvestingConfig().getAggregator().setId(null);
 
-    new ServiceEndpointFactory(provider -> null)
+    new ServiceEndpointFactory(vertx.getOrCreateContext(), provider -> null)
         .createServiceEndpoint(usageDataProvider)
         .onComplete(context.asyncAssertSuccess(sep -> assertThat(sep).isNotNull()));
   }
+
+  @Test
+  public void testServiceEndpointIsCreatedOnContext(TestContext context) {
+    usageDataProvider.getHarvestingConfig().setHarvestVia(HarvestVia.AGGREGATOR);
+    Context vertxContext = vertx.getOrCreateContext();
+    AggregatorSetting aggregatorSetting = new AggregatorSetting().withServiceType("test1");
+    new ServiceEndpointFactory(vertxContext, provider -> succeededFuture(aggregatorSetting))
+        .createServiceEndpoint(usageDataProvider)
+        .onComplete(
+            context.asyncAssertSuccess(
+                sep -> assertThat(Vertx.currentContext()).isSameAs(vertxContext)));
+  }
 }
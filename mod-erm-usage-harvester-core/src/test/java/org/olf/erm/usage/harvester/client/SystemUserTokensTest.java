@@ -0,0 +1,194 @@
+package org.olf.erm.usage.harvester.client;
+
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.ClockProvider;
+import org.olf.erm.usage.harvester.SystemUser;
+import uk.org.webcompere.systemstubs.rules.EnvironmentVariablesRule;
+
+@RunWith(VertxUnitRunner.class)
+public class SystemUserTokensTest {
+
+  private static final String TENANT = "tenanta";
+  private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+  @Rule public EnvironmentVariablesRule envs = new EnvironmentVariablesRule();
+
+  private FakeOkapiClient okapiClient;
+
+  @Before
+  public void before() {
+    SystemUserTokens.clear();
+    ClockProvider.setClock(Clock.fixed(NOW, UTC));
+    okapiClient = new FakeOkapiClient();
+  }
+
+  @After
+  public void after() {
+    ClockProvider.setClock(Clock.systemUTC());
+  }
+
+  @Test
+  public void testTokenIsCached(TestContext context) {
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    okapiClient.complete(0, "token1", NOW.plusSeconds(600));
+
+    SystemUserTokens.getToken(okapiClient, TENANT)
+        .onComplete(
+            context.asyncAssertSuccess(
+                token -> {
+                  assertThat(token).isEqualTo("token1");
+                  assertThat(okapiClient.logins).hasSize(1);
+                }));
+  }
+
+  @Test
+  public void testConcurrentLoginsAreShared(TestContext context) {
+    Future<String> first = SystemUserTokens.getToken(okapiClient, TENANT);
+    Future<String> second = SystemUserTokens.getToken(okapiClient, TENANT);
+    assertThat(okapiClient.logins).hasSize(1);
+
+    okapiClient.complete(0, "token1", NOW.plusSeconds(600));
+    Future.all(first, second)
+        .onComplete(
+            context.asyncAssertSuccess(
+                cf -> assertThat(List.of(first.result(), second.result())).containsOnly("token1")));
+  }
+
+  @Test
+  public void testTokenIsRefreshedBeforeExpiry(TestContext context) {
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    okapiClient.complete(0, "token1", NOW.plusSeconds(30));
+
+    // the current token is still used while refreshing
+    SystemUserTokens.getToken(okapiClient, TENANT)
+        .onComplete(context.asyncAssertSuccess(token -> assertThat(token).isEqualTo("token1")));
+    assertThat(okapiClient.logins).hasSize(2);
+
+    okapiClient.complete(1, "token2", NOW.plusSeconds(600));
+    SystemUserTokens.getToken(okapiClient, TENANT)
+        .onComplete(context.asyncAssertSuccess(token -> assertThat(token).isEqualTo("token2")));
+    assertThat(okapiClient.logins).hasSize(2);
+  }
+
+  @Test
+  public void testExpiredTokenIsNotUsed(TestContext context) {
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    okapiClient.complete(0, "token1", NOW);
+
+    Future<String> token = SystemUserTokens.getToken(okapiClient, TENANT);
+    assertThat(token.isComplete()).isFalse();
+    okapiClient.complete(1, "token2", NOW.plusSeconds(600));
+    token.onComplete(context.asyncAssertSuccess(t -> assertThat(t).isEqualTo("token2")));
+  }
+
+  @Test
+  public void testFailedLoginIsNotCached(TestContext context) {
+    SystemUserTokens.getToken(okapiClient, TENANT).onComplete(context.asyncAssertFailure());
+    okapiClient.logins.get(0).fail("login failed");
+
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    assertThat(okapiClient.logins).hasSize(2);
+  }
+
+  @Test
+  public void testInvalidate() {
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    okapiClient.complete(0, "token1", null);
+
+    SystemUserTokens.invalidate(TENANT, "otherToken");
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    assertThat(okapiClient.logins).hasSize(1);
+
+    SystemUserTokens.invalidate(TENANT, "token1");
+    SystemUserTokens.getToken(okapiClient, TENANT);
+    assertThat(okapiClient.logins).hasSize(2);
+  }
+
+  @Test
+  public void testTokenSupplier(TestContext context) {
+    envs.set("TENANTA_USER_NAME", "user");
+    envs.set("TENANTA_USER_PASS", "pass");
+    TokenSupplier tokenSupplier = SystemUserTokens.tokenSupplier(okapiClient, TENANT, "fallback");
+
+    Future<String> first = tokenSupplier.getToken();
+    okapiClient.complete(0, "token1", NOW.plusSeconds(600));
+    assertThat(first.result()).isEqualTo("token1");
+
+    // the rejected token is invalidated
+    tokenSupplier.invalidate("token1");
+    Future<String> second = tokenSupplier.getToken();
+    okapiClient.complete(1, "token2", NOW.plusSeconds(600));
+    second.onComplete(context.asyncAssertSuccess(token -> assertThat(token).isEqualTo("token2")));
+  }
+
+  @Test
+  public void testTokenSupplierLoginFailed(TestContext context) {
+    envs.set("TENANTA_USER_NAME", "user");
+    envs.set("TENANTA_USER_PASS", "pass");
+
+    Future<String> token =
+        SystemUserTokens.tokenSupplier(okapiClient, TENANT, "fallback").getToken();
+    okapiClient.logins.get(0).fail("login failed");
+    token.onComplete(context.asyncAssertSuccess(t -> assertThat(t).isEqualTo("fallback")));
+  }
+
+  @Test
+  public void testTokenSupplierWithoutCredentials(TestContext context) {
+    SystemUserTokens.tokenSupplier(okapiClient, TENANT, "fallback")
+        .getToken()
+        .onComplete(
+            context.asyncAssertSuccess(
+                token -> {
+                  assertThat(token).isEqualTo("fallback");
+                  assertThat(okapiClient.logins).isEmpty();
+                }));
+  }
+
+  private static class FakeOkapiClient implements OkapiClient {
+
+    private final List<Promise<AccessToken>> logins = new ArrayList<>();
+
+    void complete(int login, String token, Instant expiresAt) {
+      logins.get(login).complete(new AccessToken(token, expiresAt));
+    }
+
+    @Override
+    public Future<String> loginSystemUser(String tenantId, SystemUser systemUser) {
+      return loginSystemUserWithExpiry(tenantId, systemUser).map(AccessToken::getToken);
+    }
+
+    @Override
+    public Future<AccessToken> loginSystemUserWithExpiry(String tenantId, SystemUser systemUser) {
+      Promise<AccessToken> promise = Promise.promise();
+      logins.add(promise);
+      return promise.future();
+    }
+
+    @Override
+    public Future<HttpResponse<Buffer>> startHarvester(String tenantId, String token) {
+      return Future.failedFuture("not implemented");
+    }
+
+    @Override
+    public Future<List<String>> getTenants() {
+      return Future.failedFuture("not implemented");
+    }
+  }
+}
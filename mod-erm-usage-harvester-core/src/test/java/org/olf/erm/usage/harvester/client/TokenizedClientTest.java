@@ -0,0 +1,130 @@
+package org.olf.erm.usage.harvester.client;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.client.ExtConfigurationsClientImpl.PATH;
+
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.Json;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.WebClient;
+import java.util.ArrayList;
+import java.util.List;
+import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.jaxrs.model.Config;
+import org.folio.rest.jaxrs.model.Configs;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class TokenizedClientTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+  private static final String TENANT = "someTenant";
+
+  @Rule
+  public WireMockRule wireMockRule = new WireMockRule(new WireMockConfiguration().dynamicPort());
+
+  private final List<String> invalidated = new ArrayList<>();
+  private String currentToken;
+  private final TokenSupplier tokenSupplier =
+      new TokenSupplier() {
+        @Override
+        public Future<String> getToken() {
+          return Future.succeededFuture(currentToken);
+        }
+
+        @Override
+        public void invalidate(String token) {
+          invalidated.add(token);
+          currentToken = "token2";
+        }
+      };
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Before
+  public void setUp() {
+    currentToken = "token1";
+    Configs configs =
+        new Configs()
+            .withTotalRecords(1)
+            .withConfigs(
+                List.of(
+                    new Config().withModule("testmodule").withConfigName("test").withValue("5")));
+    stubFor(
+        get(urlPathEqualTo(PATH))
+            .withHeader(XOkapiHeaders.TOKEN, equalTo("token1"))
+            .willReturn(aResponse().withStatus(401)));
+    stubFor(
+        get(urlPathEqualTo(PATH))
+            .withHeader(XOkapiHeaders.TOKEN, equalTo("token2"))
+            .willReturn(aResponse().withStatus(200).withBody(Json.encode(configs))));
+  }
+
+  private ExtConfigurationsClient createClient(TokenSupplier tokenSupplier) {
+    return new ExtConfigurationsClientImpl(
+        wireMockRule.baseUrl(), TENANT, tokenSupplier, WebClient.create(vertx));
+  }
+
+  @Test
+  public void testTokenIsSuppliedPerRequest(TestContext context) {
+    currentToken = "token2";
+    ExtConfigurationsClient client = createClient(tokenSupplier);
+    client
+        .getModConfigurationValue("testmodule", "test")
+        .compose(
+            value -> {
+              currentToken = "token3";
+              return client.getModConfigurationValue("testmodule", "test");
+            })
+        // there is no stub for token3
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  wireMockRule.verify(
+                      getRequestedFor(urlPathEqualTo(PATH))
+                          .withHeader(XOkapiHeaders.TOKEN, equalTo("token2")));
+                  wireMockRule.verify(
+                      getRequestedFor(urlPathEqualTo(PATH))
+                          .withHeader(XOkapiHeaders.TOKEN, equalTo("token3")));
+                }));
+  }
+
+  @Test
+  public void testRequestIsRetriedWithFreshToken(TestContext context) {
+    createClient(tokenSupplier)
+        .getModConfigurationValue("testmodule", "test")
+        .onComplete(
+            context.asyncAssertSuccess(
+                value -> {
+                  assertThat(value).isEqualTo("5");
+                  assertThat(invalidated).containsExactly("token1");
+                  wireMockRule.verify(2, getRequestedFor(urlPathEqualTo(PATH)));
+                }));
+  }
+
+  @Test
+  public void testRequestIsNotRetriedWithSameToken(TestContext context) {
+    createClient(TokenSupplier.of("token1"))
+        .getModConfigurationValue("testmodule", "test")
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> wireMockRule.verify(1, getRequestedFor(urlPathEqualTo(PATH)))));
+  }
+}
@@ -0,0 +1,30 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ServiceEndpointProvidersTest {
+
+  @Test
+  public void testGet() {
+    assertThat(ServiceEndpointProviders.get("test1")).isInstanceOf(Test1Provider.class);
+    assertThat(ServiceEndpointProviders.get("test2")).isInstanceOf(Test2Provider.class);
+    assertThat(ServiceEndpointProviders.get("unknown")).isNull();
+    assertThat(ServiceEndpointProviders.get(null)).isNull();
+  }
+
+  @Test
+  public void testProvidersAreLoadedOnce() {
+    assertThat(ServiceEndpointProviders.getAll()).isSameAs(ServiceEndpointProviders.getAll());
+    assertThat(ServiceEndpointProviders.get("test1"))
+        .isSameAs(ServiceEndpointProviders.get("test1"));
+    assertThat(ServiceEndpoint.getAvailableProviders())
+        .containsExactlyElementsOf(ServiceEndpointProviders.getAll());
+  }
+
+  @Test
+  public void testWarmUp() {
+    ServiceEndpointProviders.warmUp();
+  }
+}
@@ -38,6 +38,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.olf.erm.usage.harvester.PostgresContainerRule;
+import org.olf.erm.usage.harvester.client.SystemUserTokens;
 import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
@@ -101,6 +102,7 @@ public class HarvestTenantPeriodicJobIT {
         post(PATH_LOGIN)
             .willReturn(aResponse().withStatus(201).withHeader(XOkapiHeaders.TOKEN, "someToken")));
     WireMock.resetAllRequests();
+    SystemUserTokens.clear();
     scheduler = StdSchedulerFactory.getDefaultScheduler();
     scheduler.clear();
     scheduler.getContext().put("vertxContext", vertxContext);
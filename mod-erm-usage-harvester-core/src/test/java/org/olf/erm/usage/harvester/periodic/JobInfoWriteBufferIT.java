@@ -0,0 +1,160 @@
+package org.olf.erm.usage.harvester.periodic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.folio.rest.impl.ErmUsageHarvesterAPI.TABLE_NAME_JOBS;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.util.Date;
+import java.util.UUID;
+import org.folio.rest.jaxrs.model.JobInfo;
+import org.folio.rest.jaxrs.model.JobInfo.Result;
+import org.folio.rest.jaxrs.model.JobInfo.Type;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.interfaces.Results;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.PostgresContainerRule;
+
+@RunWith(VertxUnitRunner.class)
+public class JobInfoWriteBufferIT {
+
+  private static final Vertx vertx = Vertx.vertx();
+  private static final String TENANT = "writebuffer";
+
+  @ClassRule public static PostgresContainerRule pgRule = new PostgresContainerRule(vertx, TENANT);
+
+  @Rule public Timeout timeout = Timeout.seconds(10);
+
+  private static JobInfo createJobInfo(Type type) {
+    return new JobInfo()
+        .withId(UUID.randomUUID().toString())
+        .withType(type)
+        .withTimestamp(System.currentTimeMillis());
+  }
+
+  @Test
+  public void testCoalescingAndOrdering(TestContext context) {
+    JobInfoWriteBuffer buffer = new JobInfoWriteBuffer();
+    buffer.setVertx(vertx);
+
+    JobInfo provider = createJobInfo(Type.PROVIDER).withProviderId("provider");
+    JobInfo oldPeriodic = createJobInfo(Type.PERIODIC).withNextStart(new Date());
+    JobInfo newPeriodic = createJobInfo(Type.PERIODIC).withNextStart(new Date());
+    buffer.upsert(provider.withStartedAt(new Date()), TENANT);
+    buffer.upsert(oldPeriodic, TENANT);
+    buffer.upsert(provider.withResult(Result.SUCCESS).withFinishedAt(new Date()), TENANT);
+    buffer.deletePeriodicJobInfo(TENANT);
+    buffer.upsert(newPeriodic, TENANT);
+
+    buffer
+        .flush()
+        .compose(
+            v ->
+                PostgresClient.getInstance(vertx, TENANT)
+                    .get(TABLE_NAME_JOBS, JobInfo.class, new Criterion(), false))
+        .map(Results::getResults)
+        .onComplete(
+            context.asyncAssertSuccess(
+                list -> {
+                  assertThat(list)
+                      .extracting(JobInfo::getId, JobInfo::getResult)
+                      .contains(
+                          tuple(provider.getId(), Result.SUCCESS), tuple(newPeriodic.getId(), null))
+                      .doesNotContain(tuple(oldPeriodic.getId(), null));
+                  assertThat(list).extracting(JobInfo::getId).doesNotHaveDuplicates();
+                }));
+  }
+
+  @Test
+  public void testFinishedJobInfoIsNotReplacedByUnfinished(TestContext context) {
+    JobInfoWriteBuffer nodeA = new JobInfoWriteBuffer();
+    nodeA.setVertx(vertx);
+    JobInfoWriteBuffer nodeB = new JobInfoWriteBuffer();
+    nodeB.setVertx(vertx);
+
+    JobInfo finished =
+        createJobInfo(Type.PROVIDER)
+            .withProviderId("provider")
+            .withStartedAt(new Date())
+            .withFinishedAt(new Date())
+            .withResult(Result.SUCCESS);
+    JobInfo scheduled =
+        new JobInfo()
+            .withId(finished.getId())
+            .withType(Type.PROVIDER)
+            .withProviderId("provider")
+            .withTimestamp(finished.getTimestamp());
+    JobInfo failed =
+        new JobInfo()
+            .withId(finished.getId())
+            .withType(Type.PROVIDER)
+            .withProviderId("provider")
+            .withTimestamp(finished.getTimestamp())
+            .withFinishedAt(new Date())
+            .withResult(Result.FAILURE);
+
+    nodeB.upsert(finished, TENANT);
+    nodeB
+        .flush()
+        .compose(
+            v -> {
+              // delayed update of the node that scheduled the job
+              nodeA.upsert(scheduled, TENANT);
+              return nodeA.flush();
+            })
+        .compose(
+            v ->
+                PostgresClient.getInstance(vertx, TENANT)
+                    .getById(TABLE_NAME_JOBS, finished.getId(), JobInfo.class))
+        .compose(
+            jobInfo -> {
+              assertThat(jobInfo.getResult()).isEqualTo(Result.SUCCESS);
+              nodeA.upsert(failed, TENANT);
+              return nodeA.flush();
+            })
+        .compose(
+            v ->
+                PostgresClient.getInstance(vertx, TENANT)
+                    .getById(TABLE_NAME_JOBS, finished.getId(), JobInfo.class))
+        .onComplete(
+            context.asyncAssertSuccess(
+                jobInfo -> assertThat(jobInfo.getResult()).isEqualTo(Result.FAILURE)));
+  }
+
+  @Test
+  public void testBatching(TestContext context) {
+    JobInfoWriteBuffer buffer = new JobInfoWriteBuffer();
+    buffer.setVertx(vertx);
+    String providerId = UUID.randomUUID().toString();
+    int count = JobInfoWriteBuffer.MAX_BATCH_SIZE * 2 + 1;
+    for (int i = 0; i < count; i++) {
+      buffer.upsert(createJobInfo(Type.PROVIDER).withProviderId(providerId), TENANT);
+    }
+
+    buffer
+        .flush()
+        .compose(
+            v ->
+                PostgresClient.getInstance(vertx, TENANT)
+                    .get(
+                        TABLE_NAME_JOBS,
+                        JobInfo.class,
+                        new Criterion()
+                            .addCriterion(
+                                new Criteria()
+                                    .addField("'providerId'")
+                                    .setOperation("=")
+                                    .setVal(providerId)),
+                        false))
+        .onComplete(
+            context.asyncAssertSuccess(res -> assertThat(res.getResults()).hasSize(count)));
+  }
+}
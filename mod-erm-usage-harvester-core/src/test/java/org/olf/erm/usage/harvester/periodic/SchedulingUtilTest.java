@@ -4,24 +4,33 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.folio.rest.jaxrs.model.PeriodicConfig.PeriodicInterval.WEEKLY;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_PROVIDER_ID;
+import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_PROVIDER_SNAPSHOT;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_TENANT;
 import static org.olf.erm.usage.harvester.periodic.AbstractHarvestJob.DATAKEY_TOKEN;
 import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.PERIODIC_JOB_KEY;
 import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.TENANT_JOB_KEY;
 import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.createOrUpdateJob;
 import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.scheduleProviderJob;
+import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.scheduleProviderJobs;
+import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.scheduleProviderJobsWithSnapshots;
 import static org.olf.erm.usage.harvester.periodic.SchedulingUtil.scheduleTenantJob;
 
+import io.vertx.core.json.Json;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import org.folio.rest.jaxrs.model.PeriodicConfig;
 import org.folio.rest.jaxrs.model.PeriodicConfig.PeriodicInterval;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.quartz.JobDataMap;
 import org.quartz.JobKey;
@@ -30,9 +39,13 @@ import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.TriggerKey;
 import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class SchedulingUtilTest {
 
+  private static final Logger log = LoggerFactory.getLogger(SchedulingUtilTest.class);
   private static final String TENANT = "testtenant";
   private static final String TOKEN = "someToken";
   private static final String PROVIDER_ID = "someid-123";
@@ -241,6 +254,67 @@ public class SchedulingUtilTest {
         .hasMessageContaining(PROVIDER_ID);
   }
 
+  @Test
+  public void testScheduleProviderJobs() throws SchedulerException {
+    scheduleProviderJob(defaultScheduler, TENANT, TOKEN, PROVIDER_ID);
+    List<String> skipped =
+        scheduleProviderJobs(
+            defaultScheduler, TENANT, TOKEN, List.of("provider1", PROVIDER_ID, "provider2"));
+    assertThat(skipped).containsExactly(PROVIDER_ID);
+    assertThat(defaultScheduler.getJobKeys(GroupMatcher.jobGroupEquals(TENANT)))
+        .extracting(JobKey::getName)
+        .containsExactlyInAnyOrder(PROVIDER_ID, "provider1", "provider2");
+    JobDataMap jobDataMap =
+        defaultScheduler.getJobDetail(new JobKey("provider1", TENANT)).getJobDataMap();
+    assertThat(jobDataMap.getString(DATAKEY_TENANT)).isEqualTo(TENANT);
+    assertThat(jobDataMap.getString(DATAKEY_TOKEN)).isEqualTo(TOKEN);
+    assertThat(jobDataMap.getString(DATAKEY_PROVIDER_ID)).isEqualTo("provider1");
+  }
+
+  @Test
+  public void testScheduleProviderJobsWithSnapshots() throws SchedulerException {
+    UsageDataProvider provider1 = new UsageDataProvider().withId("provider1").withLabel("p1");
+    UsageDataProvider provider2 = new UsageDataProvider().withId("provider2").withLabel("p2");
+    List<String> skipped =
+        scheduleProviderJobsWithSnapshots(
+            defaultScheduler, TENANT, TOKEN, List.of(provider1, provider2));
+    assertThat(skipped).isEmpty();
+    JobDataMap jobDataMap =
+        defaultScheduler.getJobDetail(new JobKey("provider2", TENANT)).getJobDataMap();
+    assertThat(jobDataMap.getString(DATAKEY_PROVIDER_ID)).isEqualTo("provider2");
+    UsageDataProvider snapshot =
+        Json.decodeValue(jobDataMap.getString(DATAKEY_PROVIDER_SNAPSHOT), UsageDataProvider.class);
+    assertThat(snapshot.getId()).isEqualTo("provider2");
+    assertThat(snapshot.getLabel()).isEqualTo("p2");
+  }
+
+  /** Compares the scheduling latency of scheduling 1000 provider jobs one by one and in bulk. */
+  @Ignore("Benchmark, run manually")
+  @Test
+  public void testScheduleProviderJobsLatency() throws SchedulerException {
+    List<String> providerIds = IntStream.range(0, 1000).mapToObj(i -> "provider" + i).toList();
+
+    long start = System.nanoTime();
+    for (String providerId : providerIds) {
+      scheduleProviderJob(defaultScheduler, TENANT, TOKEN, providerId);
+    }
+    long singleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    defaultScheduler.clear();
+
+    start = System.nanoTime();
+    List<String> skipped = scheduleProviderJobs(defaultScheduler, TENANT, TOKEN, providerIds);
+    long bulkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    log.info(
+        "Scheduling {} provider jobs took {} ms one by one and {} ms in bulk",
+        providerIds.size(),
+        singleMillis,
+        bulkMillis);
+    assertThat(skipped).isEmpty();
+    assertThat(defaultScheduler.getJobKeys(GroupMatcher.jobGroupEquals(TENANT)))
+        .hasSize(providerIds.size());
+  }
+
   @Test
   public void testScheduleTenantJob() throws SchedulerException {
     assertThatCode(
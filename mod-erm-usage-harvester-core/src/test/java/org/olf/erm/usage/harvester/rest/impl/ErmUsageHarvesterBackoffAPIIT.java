@@ -0,0 +1,144 @@
+package org.olf.erm.usage.harvester.rest.impl;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.RetryBackoffPgUtil.TABLE_NAME_RETRY_BACKOFF;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.parsing.Parser;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.folio.okapi.common.XOkapiHeaders;
+import org.folio.rest.jaxrs.model.CounterReport;
+import org.folio.rest.jaxrs.model.RetryBackoff;
+import org.folio.rest.jaxrs.model.RetryBackoffs;
+import org.folio.rest.persist.Criteria.Criteria;
+import org.folio.rest.persist.Criteria.Criterion;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.NetworkUtils;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.PostgresContainerRule;
+import org.olf.erm.usage.harvester.RetryBackoffPgUtil;
+
+@RunWith(VertxUnitRunner.class)
+public class ErmUsageHarvesterBackoffAPIIT {
+
+  private static final String TENANT = "tenant1";
+  private static final String PROVIDER_ID1 = "35f68a61-b12c-4f14-a3b7-8518a0ef42fa";
+  private static final String PROVIDER_ID2 = "6697f576-78d4-4712-ae18-2612ccdcd66d";
+  private static final String PARAM_PROVIDER_ID = "providerId";
+  private static final Map<String, String> OKAPI_HEADERS =
+      Map.of(XOkapiHeaders.TENANT, TENANT, XOkapiHeaders.TOKEN, "some_token");
+  private static final Vertx vertx = Vertx.vertx();
+
+  @ClassRule
+  public static PostgresContainerRule postgresContainerRule =
+      new PostgresContainerRule(vertx, TENANT);
+
+  @BeforeClass
+  public static void beforeClass(TestContext context) {
+    int port = NetworkUtils.nextFreePort();
+    RestAssured.reset();
+    RestAssured.port = port;
+    RestAssured.basePath = "/erm-usage-harvester/backoff";
+    RestAssured.requestSpecification = new RequestSpecBuilder().addHeaders(OKAPI_HEADERS).build();
+    RestAssured.defaultParser = Parser.JSON;
+
+    JsonObject cfg = new JsonObject().put("http.port", port).put("testing", true);
+    vertx
+        .deployVerticle("org.folio.rest.RestVerticle", new DeploymentOptions().setConfig(cfg))
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+    RestAssured.reset();
+  }
+
+  @Before
+  public void before(TestContext context) {
+    List<RetryBackoff> retryBackoffs =
+        IntStream.rangeClosed(1, 3)
+            .boxed()
+            .flatMap(
+                i ->
+                    List.of(PROVIDER_ID1, PROVIDER_ID2).stream()
+                        .map(
+                            providerId ->
+                                RetryBackoffPgUtil.createFailedState(
+                                    providerId,
+                                    new CounterReport()
+                                        .withReportName("JR1")
+                                        .withYearMonth("2020-0" + i)
+                                        .withFailedReason("failed"),
+                                    null,
+                                    Instant.now())))
+            .toList();
+    PostgresClient pgClient = PostgresClient.getInstance(vertx, TENANT);
+    pgClient
+        .delete(TABLE_NAME_RETRY_BACKOFF, new Criterion(new Criteria()))
+        .compose(rs -> pgClient.saveBatch(TABLE_NAME_RETRY_BACKOFF, retryBackoffs))
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  private RetryBackoffs getRetryBackoffs(Map<String, Object> params) {
+    return given()
+        .params(params)
+        .get()
+        .then()
+        .statusCode(200)
+        .extract()
+        .as(RetryBackoffs.class);
+  }
+
+  @Test
+  public void testGetRetryBackoffs() {
+    RetryBackoffs all = getRetryBackoffs(Map.of("limit", 100));
+    assertThat(all.getTotalRecords()).isEqualTo(6);
+    assertThat(all.getRetryBackoffs())
+        .allSatisfy(
+            rb -> {
+              assertThat(rb.getFailedCount()).isEqualTo(1);
+              assertThat(rb.getNextAttemptAt()).isAfter(rb.getLastFailedAt());
+            });
+
+    RetryBackoffs provider1 = getRetryBackoffs(Map.of(PARAM_PROVIDER_ID, PROVIDER_ID1));
+    assertThat(provider1.getTotalRecords()).isEqualTo(3);
+    assertThat(provider1.getRetryBackoffs())
+        .extracting(RetryBackoff::getProviderId)
+        .containsOnly(PROVIDER_ID1);
+
+    RetryBackoffs page = getRetryBackoffs(Map.of("limit", 2, "offset", 5));
+    assertThat(page.getRetryBackoffs()).hasSize(1);
+  }
+
+  @Test
+  public void testDeleteRetryBackoffsOfProvider() {
+    given().param(PARAM_PROVIDER_ID, PROVIDER_ID1).delete().then().statusCode(204);
+    RetryBackoffs result = getRetryBackoffs(Map.of());
+    assertThat(result.getTotalRecords()).isEqualTo(3);
+    assertThat(result.getRetryBackoffs())
+        .extracting(RetryBackoff::getProviderId)
+        .containsOnly(PROVIDER_ID2);
+  }
+
+  @Test
+  public void testDeleteAllRetryBackoffs() {
+    given().delete().then().statusCode(204);
+    assertThat(getRetryBackoffs(Map.of()).getTotalRecords()).isZero();
+  }
+}
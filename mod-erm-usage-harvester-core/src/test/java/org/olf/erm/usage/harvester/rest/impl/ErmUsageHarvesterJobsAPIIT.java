@@ -1,10 +1,7 @@
 package org.olf.erm.usage.harvester.rest.impl;
 
-import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
-import static com.github.tomakehurst.wiremock.client.WireMock.noContent;
 import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
-import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
@@ -12,10 +9,10 @@ import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static io.restassured.RestAssured.given;
 import static java.time.ZoneOffset.UTC;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.folio.rest.impl.ErmUsageHarvesterAPI.DEFAULT_DAYS_TO_KEEP_LOGS;
 import static org.folio.rest.impl.ErmUsageHarvesterAPI.STALE_JOB_ERROR_MSG;
 import static org.folio.rest.impl.ErmUsageHarvesterAPI.TABLE_NAME_JOBS;
 import static org.folio.rest.jaxrs.model.JobInfo.Result.FAILURE;
+import static org.olf.erm.usage.harvester.JobInfoPgUtil.FIRST_PAGE_CURSOR;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
@@ -39,7 +36,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -63,6 +61,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.olf.erm.usage.harvester.ClockProvider;
 import org.olf.erm.usage.harvester.PostgresContainerRule;
+import org.olf.erm.usage.harvester.client.ConfigurationCache;
 
 @RunWith(VertxUnitRunner.class)
 public class ErmUsageHarvesterJobsAPIIT {
@@ -74,6 +73,7 @@ public class ErmUsageHarvesterJobsAPIIT {
   private static final String PARAM_QUERY = "query";
   private static final String PARAM_PROVIDER_ID = "providerId";
   private static final String PARAM_TIMESTAMP = "timestamp";
+  private static final String PARAM_CURSOR = "cursor";
   private static final Map<String, String> OKAPI_HEADERS =
       Map.of(XOkapiHeaders.TENANT, TENANT, XOkapiHeaders.TOKEN, TOKEN);
 
@@ -171,6 +171,56 @@ public class ErmUsageHarvesterJobsAPIIT {
         .doesNotContainAnyElementsOf(getPage2.getJobInfos());
   }
 
+  @Test
+  public void testCursorPaging() {
+    JobInfos page1 = new GetJobsRequest().withParams(PARAM_CURSOR, FIRST_PAGE_CURSOR).send();
+    assertThat(page1).satisfies(hasResultSizes(10, expectedJobInfos.getTotalRecords()));
+    assertThat(page1.getNextCursor()).isNotNull();
+
+    JobInfos page2 = new GetJobsRequest().withParams(PARAM_CURSOR, page1.getNextCursor()).send();
+    assertThat(page2).satisfies(hasResultSizes(8, expectedJobInfos.getTotalRecords()));
+    assertThat(page2.getNextCursor()).isNull();
+
+    List<JobInfo> jobInfos = new ArrayList<>(page1.getJobInfos());
+    jobInfos.addAll(page2.getJobInfos());
+    assertThat(jobInfos)
+        .extracting(JobInfo::getTimestamp)
+        .isSortedAccordingTo(Comparator.reverseOrder());
+    assertThat(jobInfos)
+        .usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyInAnyOrderElementsOf(expectedJobInfos.getJobInfos());
+  }
+
+  @Test
+  public void testCursorPagingWithLimitZero() {
+    JobInfos result =
+        new GetJobsRequest().withParams(PARAM_CURSOR, FIRST_PAGE_CURSOR, PARAM_LIMIT, 0).send();
+    assertThat(result).satisfies(hasResultSizes(0, expectedJobInfos.getTotalRecords()));
+    assertThat(result.getNextCursor()).isNull();
+  }
+
+  @Test
+  public void testCursorPagingWithFilters() {
+    JobInfos result =
+        new GetJobsRequest()
+            .withParams(
+                PARAM_CURSOR,
+                FIRST_PAGE_CURSOR,
+                PARAM_TIMESTAMP,
+                "1663150477573",
+                PARAM_QUERY,
+                "type==tenant")
+            .send();
+    assertThat(result)
+        .satisfies(hasResultSizes(1, 1), containsIds("2db51f86-6902-4120-98a4-d43c7cb0cb98"));
+    assertThat(result.getNextCursor()).isNull();
+  }
+
+  @Test
+  public void testInvalidCursor() {
+    given().param(PARAM_CURSOR, "invalid").get().then().statusCode(400);
+  }
+
   @Test
   public void testQueryParam() {
     JobInfos result = new GetJobsRequest().withParams(PARAM_QUERY, "type==tenant").send();
@@ -296,85 +346,60 @@ public class ErmUsageHarvesterJobsAPIIT {
                     .withValue(value)));
   }
 
-  @Test
-  public void testCleanup() {
-    okapiMockRule.stubFor(post(urlPathEqualTo(PURGE_PATH)).willReturn(noContent()));
-    okapiMockRule.stubFor(post(urlPathEqualTo(PURGE_STALE_PATH)).willReturn(noContent()));
-
-    // failed to get configuration value
-    okapiMockRule.stubFor(WireMock.get(urlPathEqualTo(CONFIG_PATH)).willReturn(serverError()));
-    given().post(CLEANUP_PATH_SEGMENT).then().statusCode(204);
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
-    verify(1, getRequestedFor(urlPathEqualTo(CONFIG_PATH)));
-    verify(0, postRequestedFor(urlPathEqualTo(PURGE_PATH)));
-
-    // configuration value is set to null
-    okapiMockRule.resetRequests();
-    okapiMockRule.stubFor(
-        WireMock.get(urlPathEqualTo(CONFIG_PATH))
-            .willReturn(okJson(Json.encode(createConfigurationResponseObject(null)))));
+  private void assertCleanup(int expectedJobs) {
     given().post(CLEANUP_PATH_SEGMENT).then().statusCode(204);
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
     verify(1, getRequestedFor(urlPathEqualTo(CONFIG_PATH)));
+    verify(0, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
     verify(0, postRequestedFor(urlPathEqualTo(PURGE_PATH)));
-
-    // configuration value is set to invalid value
+    assertThat(new GetJobsRequest().send().getTotalRecords()).isEqualTo(expectedJobs);
     okapiMockRule.resetRequests();
-    okapiMockRule.stubFor(
-        WireMock.get(urlPathEqualTo(CONFIG_PATH))
-            .willReturn(okJson(Json.encode(createConfigurationResponseObject("-10")))));
-    given().post(CLEANUP_PATH_SEGMENT).then().statusCode(204);
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
-    verify(1, getRequestedFor(urlPathEqualTo(CONFIG_PATH)));
-    verify(0, postRequestedFor(urlPathEqualTo(PURGE_PATH)));
+    ConfigurationCache.clear();
+  }
 
-    // set fixed clock
-    LocalDateTime testDateTime = LocalDateTime.of(2000, 1, 30, 8, 5, 3, 123);
+  @Test
+  public void testCleanup() throws ExecutionException, InterruptedException {
+    // finished jobs have timestamps between 2022-09-14T10:14:36.842Z and 2022-09-14T10:14:39.305Z
+    LocalDateTime testDateTime = LocalDateTime.of(2022, 11, 13, 10, 14, 38, 500_000_000);
     ClockProvider.setClock(Clock.fixed(testDateTime.toInstant(UTC), UTC));
+    ConfigurationCache.clear();
+    int allJobs = expectedJobInfos.getTotalRecords();
 
-    // no configuration entry is found
-    okapiMockRule.resetRequests();
-    okapiMockRule.stubFor(
-        WireMock.get(urlPathEqualTo(CONFIG_PATH)).willReturn(okJson(Json.encode(new Configs()))));
-    given().post(CLEANUP_PATH_SEGMENT).then().statusCode(204);
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
-    verify(1, getRequestedFor(urlPathEqualTo(CONFIG_PATH)));
-    long expectedTimestamp =
-        testDateTime
-            .minus(DEFAULT_DAYS_TO_KEEP_LOGS, ChronoUnit.DAYS)
-            .toInstant(UTC)
-            .toEpochMilli();
-    verify(
-        1,
-        postRequestedFor(urlPathEqualTo(PURGE_PATH))
-            .withQueryParam(PARAM_TIMESTAMP, equalTo(String.valueOf(expectedTimestamp)))
-            .withHeader(XOkapiHeaders.TENANT, equalTo(TENANT))
-            .withHeader(XOkapiHeaders.TOKEN, equalTo(TOKEN)));
-
-    // configuration value is set to 10
-    okapiMockRule.resetRequests();
-    okapiMockRule.stubFor(
-        WireMock.get(urlPathEqualTo(CONFIG_PATH))
-            .willReturn(okJson(Json.encode(createConfigurationResponseObject("10")))));
-    given().post(CLEANUP_PATH_SEGMENT).then().statusCode(204);
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
-    verify(1, getRequestedFor(urlPathEqualTo(CONFIG_PATH)));
-    expectedTimestamp = testDateTime.minus(10, ChronoUnit.DAYS).toInstant(UTC).toEpochMilli();
-    verify(
-        1,
-        postRequestedFor(urlPathEqualTo(PURGE_PATH))
-            .withQueryParam(PARAM_TIMESTAMP, equalTo(String.valueOf(expectedTimestamp)))
-            .withHeader(XOkapiHeaders.TENANT, equalTo(TENANT))
-            .withHeader(XOkapiHeaders.TOKEN, equalTo(TOKEN)));
-
-    // purge endpoints return status code 500
-    okapiMockRule.resetRequests();
-    okapiMockRule.stubFor(post(urlPathEqualTo(PURGE_PATH)).willReturn(serverError()));
-    okapiMockRule.stubFor(post(urlPathEqualTo(PURGE_STALE_PATH)).willReturn(serverError()));
-    given().post(CLEANUP_PATH_SEGMENT).then().statusCode(204);
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_STALE_PATH)));
-    verify(1, getRequestedFor(urlPathEqualTo(CONFIG_PATH)));
-    verify(1, postRequestedFor(urlPathEqualTo(PURGE_PATH)));
+    try {
+      // failed to get configuration value
+      okapiMockRule.stubFor(WireMock.get(urlPathEqualTo(CONFIG_PATH)).willReturn(serverError()));
+      assertCleanup(allJobs);
+
+      // configuration value is set to null
+      okapiMockRule.stubFor(
+          WireMock.get(urlPathEqualTo(CONFIG_PATH))
+              .willReturn(okJson(Json.encode(createConfigurationResponseObject(null)))));
+      assertCleanup(allJobs);
+
+      // configuration value is set to invalid value
+      okapiMockRule.stubFor(
+          WireMock.get(urlPathEqualTo(CONFIG_PATH))
+              .willReturn(okJson(Json.encode(createConfigurationResponseObject("-10")))));
+      assertCleanup(allJobs);
+
+      // no configuration entry is found, jobs created before 2022-09-14T10:14:38.500Z are purged
+      okapiMockRule.stubFor(
+          WireMock.get(urlPathEqualTo(CONFIG_PATH)).willReturn(okJson(Json.encode(new Configs()))));
+      assertCleanup(8);
+
+      // configuration value is set to 10, all finished jobs are purged
+      okapiMockRule.stubFor(
+          WireMock.get(urlPathEqualTo(CONFIG_PATH))
+              .willReturn(okJson(Json.encode(createConfigurationResponseObject("10")))));
+      assertCleanup(1);
+      assertThat(new GetJobsRequest().send())
+          .satisfies(containsIds("42ddd915-a046-4613-8272-e25b0edf36a1"));
+    } finally {
+      clearDb()
+          .compose(rs -> populateDb(expectedJobInfos))
+          .toCompletionStage()
+          .toCompletableFuture()
+          .get();
+    }
   }
 
   static class GetJobsRequest {
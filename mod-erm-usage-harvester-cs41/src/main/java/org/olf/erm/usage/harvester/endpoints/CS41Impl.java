@@ -12,6 +12,7 @@ import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.xml.namespace.QName;
 import javax.xml.ws.BindingProvider;
@@ -39,6 +40,7 @@ import org.niso.schemas.sushi.Requestor;
 import org.niso.schemas.sushi.counter.CounterReportResponse;
 import org.olf.erm.usage.counter41.Counter4Utils;
 import org.olf.erm.usage.counter41.Counter4Utils.ReportSplitException;
+import org.olf.erm.usage.harvester.jfr.SplitEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sushiservice.SushiService;
@@ -110,6 +112,8 @@ public class CS41Impl implements ServiceEndpoint {
     bindingProvider.getRequestContext().put(BindingProvider.ENDPOINT_ADDRESS_PROPERTY, serviceUrl);
 
     Client client = ClientProxy.getClient(port);
+    // timeouts are set per request, each thread gets a copy of the shared request context
+    client.setThreadLocalRequestContext(true);
     HTTPConduit httpConduit = (HTTPConduit) client.getConduit();
     httpConduit.getClient().setAutoRedirect(true);
 
@@ -127,7 +131,10 @@ public class CS41Impl implements ServiceEndpoint {
                   String errMessage =
                       String.format(
                           "Server responded with status code %s, headers: %s", statusCode, headers);
-                  throw new Fault(new java.lang.Exception(errMessage));
+                  throw new Fault(
+                      FatalProviderException.isFatalStatusCode(statusCode)
+                          ? new FatalProviderException(errMessage)
+                          : new java.lang.Exception(errMessage));
                 }
               }
             });
@@ -136,7 +143,19 @@ public class CS41Impl implements ServiceEndpoint {
 
   private List<CounterReport> createCounterReportList(
       Report report, String reportType, UsageDataProvider provider) throws ReportSplitException {
-    List<Report> splitReports = Counter4Utils.split(report);
+    List<Report> splitReports;
+    SplitEvent event = new SplitEvent(provider.getId(), reportType);
+    event.begin();
+    try {
+      splitReports = Counter4Utils.split(report);
+      event.setReports(splitReports.size());
+      event.setResult(null);
+    } catch (ReportSplitException e) {
+      event.setResult(e);
+      throw e;
+    } finally {
+      event.commit();
+    }
     return splitReports.stream()
         .map(
             r -> {
@@ -158,18 +177,31 @@ public class CS41Impl implements ServiceEndpoint {
     Context context = Vertx.currentContext();
     if (context == null) context = Vertx.vertx().getOrCreateContext();
 
+    String serviceUrl = provider.getHarvestingConfig().getSushiConfig().getServiceUrl();
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(provider.getId(), serviceUrl, reportType);
+
     context.executeBlocking(
         block -> {
           CounterReportResponse counterReportResponse;
+          long latency;
           try {
+            Map<String, Object> requestContext = ((BindingProvider) port).getRequestContext();
+            requestContext.put(Message.CONNECTION_TIMEOUT, timeouts.getConnectTimeout());
+            requestContext.put(Message.RECEIVE_TIMEOUT, timeouts.getIdleTimeout());
             ReportRequest reportRequest = createReportRequest(reportType, beginDate, endDate);
+            long start = System.nanoTime();
             counterReportResponse = port.getReport(reportRequest);
+            latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
           } catch (java.lang.Exception e) {
             String messages =
                 ExceptionUtils.getThrowableList(e).stream()
                     .map(Throwable::getMessage)
                     .collect(Collectors.joining(", "));
-            block.fail("Error getting report: " + messages);
+            if (ExceptionUtils.indexOfThrowable(e, FatalProviderException.class) >= 0) {
+              block.fail(new FatalProviderException("Error getting report: " + messages, e));
+            } else {
+              block.fail(new CS41Exception("Error getting report: " + messages, e));
+            }
             return;
           }
 
@@ -177,6 +209,7 @@ public class CS41Impl implements ServiceEndpoint {
           if (exceptions.isEmpty()
               && counterReportResponse.getReport() != null
               && !counterReportResponse.getReport().getReport().isEmpty()) {
+            FetchObservers.onResponse(serviceUrl, reportType, latency, -1);
             Report reportResult = counterReportResponse.getReport().getReport().get(0);
             try {
               List<CounterReport> counterReportList =
@@ -185,13 +218,21 @@ public class CS41Impl implements ServiceEndpoint {
             } catch (java.lang.Exception e) {
               promise.fail(new InvalidReportException(e));
             }
+          } else if (exceptions.stream()
+              .anyMatch(e -> FatalProviderException.isFatalErrorCode(e.getNumber()))) {
+            block.fail(new FatalProviderException(Counter4Utils.getErrorMessages(exceptions)));
+          } else if (exceptions.stream()
+              .anyMatch(e -> ReportNotAvailableException.isNotAvailableErrorCode(e.getNumber()))) {
+            block.fail(
+                new ReportNotAvailableException(Counter4Utils.getErrorMessages(exceptions)));
           } else {
             block.fail(new InvalidReportException(Counter4Utils.getErrorMessages(exceptions)));
           }
         },
         false,
         promise);
-    return promise.future();
+    return AdaptiveTimeouts.withTotalTimeout(
+        context.owner(), promise.future(), timeouts, serviceUrl, reportType);
   }
 
   static class CS41Exception extends RuntimeException {
@@ -199,5 +240,9 @@ public class CS41Impl implements ServiceEndpoint {
     public CS41Exception(String message) {
       super(message);
     }
+
+    public CS41Exception(String message, Throwable cause) {
+      super(message, cause);
+    }
   }
 }
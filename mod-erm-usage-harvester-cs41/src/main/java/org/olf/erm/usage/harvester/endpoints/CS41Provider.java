@@ -2,6 +2,8 @@ package org.olf.erm.usage.harvester.endpoints;
 
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
+import sushiservice.SushiService;
+import sushiservice.SushiServiceInterface;
 
 public class CS41Provider implements ServiceEndpointProvider {
 
@@ -29,4 +31,11 @@ public class CS41Provider implements ServiceEndpointProvider {
   public ServiceEndpoint create(UsageDataProvider provider, AggregatorSetting aggregator) {
     return new CS41Impl(provider);
   }
+
+  /** Creates the CXF bus, parses the WSDL and initializes the JAXB data binding. */
+  @Override
+  public void warmUp() {
+    SushiService service = new SushiService();
+    service.getPort(service.getPorts().next(), SushiServiceInterface.class);
+  }
 }
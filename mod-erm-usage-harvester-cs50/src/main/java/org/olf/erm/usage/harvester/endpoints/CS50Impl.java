@@ -14,20 +14,30 @@ import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.ProxyOptions;
 import io.vertx.core.net.ProxyType;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
 import org.olf.erm.usage.counter50.Counter5Utils;
 import org.olf.erm.usage.counter50.Counter5Utils.Counter5UtilsException;
+import org.olf.erm.usage.harvester.jfr.SplitEvent;
 import org.openapitools.client.ApiClient.AuthInfo;
 import org.openapitools.client.CounterApiClient;
 import org.openapitools.client.api.CounterDefaultApiImpl;
@@ -37,15 +47,23 @@ import org.openapitools.client.model.COUNTERPlatformReport;
 import org.openapitools.client.model.COUNTERTitleReport;
 import org.openapitools.client.model.SUSHIErrorModel;
 import org.openapitools.client.model.SUSHIReportHeader;
+import org.openapitools.client.model.SUSHIReportList;
+import org.openapitools.client.model.SUSHIServiceStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class CS50Impl implements ServiceEndpoint {
 
   public static final int MAX_ERROR_BODY_LENGTH = 2000;
+  static final String CLIENTS_MAP_NAME = "erm-usage-harvester.cs50.clients";
+  public static final Duration REPORT_LIST_CACHE_DURATION = Duration.ofHours(24);
   private static final Logger LOG = LoggerFactory.getLogger(CS50Impl.class);
+  private static final String PREFLIGHT = "preflight";
+  private static final Map<String, CachedReportList> reportListCache = new ConcurrentHashMap<>();
   private final UsageDataProvider provider;
-  private final CounterDefaultApiImpl client;
+  private final String baseUrl;
+  private final AuthInfo authInfo;
+  private final WebClientOptions webClientOptions;
 
   private final Vertx vertx;
 
@@ -56,14 +74,14 @@ public class CS50Impl implements ServiceEndpoint {
     requireNonNull(provider.getHarvestingConfig().getSushiConfig().getServiceUrl());
     this.provider = provider;
 
-    String baseUrl =
+    baseUrl =
         StringUtils.removeEnd(provider.getHarvestingConfig().getSushiConfig().getServiceUrl(), "/");
 
     String apiKey = provider.getSushiCredentials().getApiKey();
     String reqId = provider.getSushiCredentials().getRequestorId();
-    AuthInfo authInfo = createAuthInfo(apiKey, reqId);
+    authInfo = createAuthInfo(apiKey, reqId);
 
-    WebClientOptions webClientOptions = new WebClientOptions();
+    webClientOptions = new WebClientOptions();
     try {
       Optional<Proxy> proxy = getProxy(new URI(baseUrl));
       proxy.ifPresent(
@@ -81,12 +99,44 @@ public class CS50Impl implements ServiceEndpoint {
 
     Context context = Vertx.currentContext();
     vertx = context == null ? Vertx.vertx() : context.owner();
+  }
 
-    JsonObject config = JsonObject.mapFrom(webClientOptions).put("timeout", 60000);
-    CounterApiClient counterApiClient = new CounterApiClient(vertx, config);
+  /**
+   * Returns a client for a report type, sending its requests with the idle timeout of the given
+   * {@link RequestTimeouts}. Clients are created per request, as the idle timeout is an option of
+   * the client. They share the WebClient of their service URL and connect timeout, so that they use
+   * one connection pool.
+   */
+  private CounterDefaultApiImpl getClient(String report, RequestTimeouts timeouts) {
+    JsonObject config = new JsonObject().put("timeout", timeouts.getIdleTimeout());
+    CounterApiClient counterApiClient =
+        new CounterApiClient(vertx, config, getWebClient(timeouts.getConnectTimeout()));
     counterApiClient.setBasePath(baseUrl);
+    counterApiClient.setReportInfo(provider.getId(), report);
+    counterApiClient.setResponseObserver(
+        (content, latency, size) -> {
+          // SUSHI exceptions are returned with status 200 and would distort the samples
+          if (PREFLIGHT.equals(report) || isValidReport(content)) {
+            FetchObservers.onResponse(baseUrl, report, latency, size);
+          }
+        });
+    return new CounterDefaultApiImpl(counterApiClient, authInfo);
+  }
 
-    client = new CounterDefaultApiImpl(counterApiClient, authInfo);
+  /**
+   * Returns the WebClient shared by all CS50Impl instances of the service URL and connect timeout.
+   */
+  private WebClient getWebClient(long connectTimeout) {
+    LocalMap<String, SharedClient> clients = vertx.sharedData().getLocalMap(CLIENTS_MAP_NAME);
+    return clients.computeIfAbsent(
+            baseUrl + "|" + connectTimeout,
+            k ->
+                new SharedClient(
+                    WebClient.create(
+                        vertx,
+                        new WebClientOptions(webClientOptions)
+                            .setConnectTimeout((int) connectTimeout))))
+        .client;
   }
 
   private AuthInfo createAuthInfo(String apiKey, String reqId) {
@@ -105,10 +155,17 @@ public class CS50Impl implements ServiceEndpoint {
     return vertx.executeBlocking(
         bch -> {
           List<Object> splitReports;
+          SplitEvent event = new SplitEvent(provider.getId(), reportType);
+          event.begin();
           try {
             splitReports = Counter5Utils.split(report);
+            event.setReports(splitReports.size());
+            event.setResult(null);
           } catch (Counter5UtilsException e) {
+            event.setResult(e);
             throw new CS50Exception(e);
+          } finally {
+            event.commit();
           }
 
           bch.complete(
@@ -136,6 +193,15 @@ public class CS50Impl implements ServiceEndpoint {
                     || (em.getCode().equals(TOO_MANY_REQUEST_ERROR_CODE)));
   }
 
+  private boolean containsFatalError(List<SUSHIErrorModel> errors) {
+    return errors.stream().anyMatch(em -> FatalProviderException.isFatalErrorCode(em.getCode()));
+  }
+
+  private boolean containsNotAvailableError(List<SUSHIErrorModel> errors) {
+    return errors.stream()
+        .anyMatch(em -> ReportNotAvailableException.isNotAvailableErrorCode(em.getCode()));
+  }
+
   private SUSHIReportHeader getReportHeader(Object o) {
     if (o instanceof COUNTERTitleReport) {
       return ((COUNTERTitleReport) o).getReportHeader();
@@ -152,8 +218,14 @@ public class CS50Impl implements ServiceEndpoint {
     return null;
   }
 
+  private boolean isValidReport(Object report) {
+    SUSHIReportHeader reportHeader = getReportHeader(report);
+    return reportHeader != null
+        && (reportHeader.getExceptions() == null || reportHeader.getExceptions().isEmpty());
+  }
+
   private Object failIfInvalidReport(Object report)
-      throws InvalidReportException, TooManyRequestsException {
+      throws InvalidReportException, TooManyRequestsException, FatalProviderException {
     if (report == null) {
       throw new InvalidReportException("null");
     }
@@ -164,8 +236,12 @@ public class CS50Impl implements ServiceEndpoint {
     }
     if (reportHeader.getExceptions() != null && !reportHeader.getExceptions().isEmpty()) {
       String exceptionMsg = Json.encode(reportHeader.getExceptions());
-      if (containsTooManyRequestsError(reportHeader.getExceptions())) {
+      if (containsFatalError(reportHeader.getExceptions())) {
+        throw new FatalProviderException(exceptionMsg);
+      } else if (containsTooManyRequestsError(reportHeader.getExceptions())) {
         throw new TooManyRequestsException(exceptionMsg);
+      } else if (containsNotAvailableError(reportHeader.getExceptions())) {
+        throw new ReportNotAvailableException(exceptionMsg);
       } else {
         throw new InvalidReportException(exceptionMsg);
       }
@@ -174,9 +250,107 @@ public class CS50Impl implements ServiceEndpoint {
     return report;
   }
 
+  static void clearReportListCache() {
+    reportListCache.clear();
+  }
+
+  /**
+   * Checks the {@code /status} endpoint and fails with a {@link ServiceUnavailableException} if the
+   * service is not active. Requested reports that are not listed by the {@code /reports} endpoint
+   * are removed. The report list is cached for {@link #REPORT_LIST_CACHE_DURATION}.
+   *
+   * <p>If any of the endpoints is not implemented or returns an error, the requested reports are
+   * returned unchanged.
+   */
+  @Override
+  public Future<List<String>> preflight(List<String> reportTypes) {
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(provider.getId(), baseUrl, PREFLIGHT);
+    CounterDefaultApiImpl client = getClient(PREFLIGHT, timeouts);
+    String customerId = provider.getSushiCredentials().getCustomerId();
+    String platform = provider.getSushiCredentials().getPlatform();
+
+    return AdaptiveTimeouts.withTotalTimeout(
+            vertx, client.getStatus(customerId, platform), timeouts, baseUrl, PREFLIGHT)
+        .transform(
+            ar -> {
+              if (ar.failed()) {
+                if (ar.cause() instanceof FatalProviderException) {
+                  return failedFuture(ar.cause());
+                }
+                LOG.warn(
+                    "Error getting service status from {}: {}", baseUrl, ar.cause().getMessage());
+              } else if (isServiceInactive(ar.result())) {
+                return failedFuture(
+                    new ServiceUnavailableException(
+                        "Service is not active: " + getStatusDescription(ar.result())));
+              }
+              return getOfferedReports(client, customerId, platform, timeouts);
+            })
+        .map(
+            offered -> {
+              if (offered.isEmpty()) {
+                return reportTypes;
+              }
+              return reportTypes.stream()
+                  .filter(rt -> offered.contains(rt.toUpperCase(Locale.ROOT)))
+                  .toList();
+            });
+  }
+
+  private boolean isServiceInactive(List<SUSHIServiceStatus> status) {
+    return status != null
+        && status.stream().anyMatch(s -> Boolean.FALSE.equals(s.getServiceActive()));
+  }
+
+  private String getStatusDescription(List<SUSHIServiceStatus> status) {
+    return status.stream()
+        .map(SUSHIServiceStatus::getDescription)
+        .filter(d -> !Strings.isNullOrEmpty(d))
+        .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Returns the upper case ids of the reports listed by the {@code /reports} endpoint, or an empty
+   * set if these are unknown.
+   */
+  private Future<Set<String>> getOfferedReports(
+      CounterDefaultApiImpl client, String customerId, String platform, RequestTimeouts timeouts) {
+    String cacheKey = String.join("|", baseUrl, customerId, platform);
+    CachedReportList cached = reportListCache.get(cacheKey);
+    if (cached != null && cached.expiresAt.isAfter(Instant.now())) {
+      return Future.succeededFuture(cached.reportIds);
+    }
+
+    return AdaptiveTimeouts.withTotalTimeout(
+            vertx, client.getReports(customerId, platform), timeouts, baseUrl, PREFLIGHT)
+        .map(
+            list -> {
+              Set<String> reportIds =
+                  list == null
+                      ? Set.of()
+                      : list.stream()
+                          .map(SUSHIReportList::getReportID)
+                          .filter(id -> !Strings.isNullOrEmpty(id))
+                          .map(id -> id.toUpperCase(Locale.ROOT))
+                          .collect(Collectors.toSet());
+              reportListCache.put(
+                  cacheKey,
+                  new CachedReportList(
+                      reportIds, Instant.now().plus(REPORT_LIST_CACHE_DURATION)));
+              return reportIds;
+            })
+        .otherwise(
+            t -> {
+              LOG.warn("Error getting report list from {}: {}", baseUrl, t.getMessage());
+              return Set.of();
+            });
+  }
+
   @Override
   public Future<List<CounterReport>> fetchReport(String report, String beginDate, String endDate) {
     String reportID = report.replace("_", "").toUpperCase();
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(provider.getId(), baseUrl, report);
+    CounterDefaultApiImpl client = getClient(report, timeouts);
 
     Method method;
     try {
@@ -195,7 +369,9 @@ public class CS50Impl implements ServiceEndpoint {
 
     Promise<List<CounterReport>> promise = Promise.promise();
     try {
-      ((Future<Object>) method.invoke(client, customerId, beginDate, endDate, platform))
+      Future<Object> response =
+          (Future<Object>) method.invoke(client, customerId, beginDate, endDate, platform);
+      AdaptiveTimeouts.withTotalTimeout(vertx, response, timeouts, baseUrl, report)
           .map(this::failIfInvalidReport)
           .flatMap(r -> createCounterReportList(r, report, provider))
           .onSuccess(promise::complete)
@@ -206,6 +382,26 @@ public class CS50Impl implements ServiceEndpoint {
     return promise.future();
   }
 
+  private static class CachedReportList {
+
+    private final Set<String> reportIds;
+    private final Instant expiresAt;
+
+    CachedReportList(Set<String> reportIds, Instant expiresAt) {
+      this.reportIds = reportIds;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static class SharedClient implements Shareable {
+
+    private final WebClient client;
+
+    SharedClient(WebClient client) {
+      this.client = client;
+    }
+  }
+
   static class CS50Exception extends RuntimeException {
 
     public CS50Exception(Throwable cause) {
@@ -1,7 +1,16 @@
 package org.olf.erm.usage.harvester.endpoints;
 
+import io.vertx.core.json.jackson.DatabindCodec;
+import java.util.List;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.openapitools.client.model.COUNTERDatabaseReport;
+import org.openapitools.client.model.COUNTERItemReport;
+import org.openapitools.client.model.COUNTERPlatformReport;
+import org.openapitools.client.model.COUNTERTitleReport;
+import org.openapitools.client.model.SUSHIErrorModel;
+import org.openapitools.client.model.SUSHIReportList;
+import org.openapitools.client.model.SUSHIServiceStatus;
 
 public class CS50Provider implements ServiceEndpointProvider {
 
@@ -24,4 +33,18 @@ public class CS50Provider implements ServiceEndpointProvider {
   public ServiceEndpoint create(UsageDataProvider provider, AggregatorSetting aggregator) {
     return new CS50Impl(provider);
   }
+
+  /** Creates the Jackson deserializers of the COUNTER 5 models. */
+  @Override
+  public void warmUp() {
+    List.of(
+            COUNTERTitleReport.class,
+            COUNTERItemReport.class,
+            COUNTERDatabaseReport.class,
+            COUNTERPlatformReport.class,
+            SUSHIErrorModel.class,
+            SUSHIReportList.class,
+            SUSHIServiceStatus.class)
+        .forEach(type -> DatabindCodec.mapper().readerFor(type));
+  }
 }
@@ -4,9 +4,13 @@ import static io.vertx.core.Future.failedFuture;
 import static io.vertx.core.Future.succeededFuture;
 import static org.apache.commons.lang3.StringUtils.abbreviate;
 import static org.olf.erm.usage.harvester.endpoints.CS50Impl.MAX_ERROR_BODY_LENGTH;
+import static org.olf.erm.usage.harvester.endpoints.FatalProviderException.isFatalErrorCode;
+import static org.olf.erm.usage.harvester.endpoints.FatalProviderException.isFatalStatusCode;
 import static org.olf.erm.usage.harvester.endpoints.JsonUtil.isJsonArray;
+import static org.olf.erm.usage.harvester.endpoints.ReportNotAvailableException.isNotAvailableErrorCode;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import io.netty.buffer.ByteBufInputStream;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
@@ -14,51 +18,165 @@ import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.json.jackson.DatabindCodec;
 import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
+import org.olf.erm.usage.harvester.endpoints.FatalProviderException;
 import org.olf.erm.usage.harvester.endpoints.InvalidReportException;
 import org.olf.erm.usage.harvester.endpoints.JsonUtil;
+import org.olf.erm.usage.harvester.endpoints.ReportNotAvailableException;
 import org.olf.erm.usage.harvester.endpoints.TooManyRequestsException;
+import org.olf.erm.usage.harvester.jfr.ClassifyEvent;
 import org.openapitools.client.model.SUSHIErrorModel;
 
 public class CounterApiClient extends ApiClient {
 
-  public CounterApiClient(Vertx vertx, JsonObject config) {
+  private final WebClient webClient;
+  private ResponseObserver responseObserver;
+  private String providerId;
+  private String reportType;
+
+  /**
+   * Creates a client that sends its requests with the given WebClient, instead of creating a
+   * WebClient of its own.
+   */
+  public CounterApiClient(Vertx vertx, JsonObject config, WebClient webClient) {
     super(vertx, config);
+    this.webClient = webClient;
+  }
+
+  @Override
+  public WebClient getWebClient() {
+    return webClient;
+  }
+
+  /**
+   * Sets an observer that is called for each successful response whose body could be deserialized.
+   */
+  public void setResponseObserver(ResponseObserver responseObserver) {
+    this.responseObserver = responseObserver;
+  }
+
+  /** Sets the provider and report type recorded in the {@link ClassifyEvent} of a response. */
+  public void setReportInfo(String providerId, String reportType) {
+    this.providerId = providerId;
+    this.reportType = reportType;
   }
 
   @Override
   protected <T> Handler<AsyncResult<HttpResponse<Buffer>>> buildResponseHandler(
       TypeReference<T> returnType, Handler<AsyncResult<T>> handler) {
+    long start = System.nanoTime();
     return ar -> {
       AsyncResult<T> result;
+      ClassifyEvent event = new ClassifyEvent(providerId, reportType);
+      event.begin();
       if (ar.succeeded()) {
         HttpResponse<Buffer> response = ar.result();
-        String respBody = response.bodyAsString();
-        String respBodyAbbr = abbreviate(respBody, MAX_ERROR_BODY_LENGTH);
+        event.setStatusCode(response.statusCode());
+        event.setBytes((response.body() == null) ? 0 : response.body().length());
         if (response.statusCode() / 100 == 2) {
+          long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
           T resultContent;
           try {
-            resultContent = DatabindCodec.mapper().readValue(respBody, returnType);
+            resultContent = readValue(response.body(), returnType);
             result = succeededFuture(resultContent);
           } catch (Exception e) {
+            String respBody = response.bodyAsString();
+            String respBodyAbbr = abbreviate(respBody, MAX_ERROR_BODY_LENGTH);
             if (JsonUtil.isOfType(respBody, SUSHIErrorModel.class) || isJsonArray(respBody)) {
-              result = failedFuture(respBodyAbbr);
+              List<SUSHIErrorModel> errors = readErrors(respBody);
+              if (errors.stream().anyMatch(em -> isFatalErrorCode(em.getCode()))) {
+                result = failedFuture(new FatalProviderException(respBodyAbbr));
+              } else if (errors.stream().anyMatch(em -> isNotAvailableErrorCode(em.getCode()))) {
+                result = failedFuture(new ReportNotAvailableException(respBodyAbbr));
+              } else {
+                result = failedFuture(respBodyAbbr);
+              }
             } else {
               result = failedFuture(new InvalidReportException(e));
             }
           }
+          if (result.succeeded() && responseObserver != null) {
+            long size = (response.body() == null) ? 0 : response.body().length();
+            responseObserver.onResponse(result.result(), latency, size);
+          }
         } else if (response.statusCode() == 429) {
           result = failedFuture(new TooManyRequestsException());
         } else {
+          String respBodyAbbr = abbreviate(response.bodyAsString(), MAX_ERROR_BODY_LENGTH);
           if (StringUtils.isEmpty(respBodyAbbr)) {
             respBodyAbbr = response.statusCode() + " - " + response.statusMessage();
           }
-          result = failedFuture(respBodyAbbr);
+          boolean fatal =
+              isFatalStatusCode(response.statusCode())
+                  || containsFatalError(response.bodyAsString());
+          result =
+              fatal
+                  ? failedFuture(new FatalProviderException(respBodyAbbr))
+                  : failedFuture(respBodyAbbr);
         }
       } else {
         result = failedFuture(ar.cause());
       }
+      event.setResult(result.cause());
+      event.commit();
       handler.handle(result);
     };
   }
+
+  /**
+   * Checks if a response body consists of one or more {@link SUSHIErrorModel} objects containing
+   * an error that is fatal for the provider.
+   */
+  private static boolean containsFatalError(String body) {
+    return readErrors(body).stream().anyMatch(em -> isFatalErrorCode(em.getCode()));
+  }
+
+  /**
+   * Reads one or more {@link SUSHIErrorModel} objects from a response body. Returns an empty list
+   * if the body does not contain any.
+   */
+  private static List<SUSHIErrorModel> readErrors(String body) {
+    if (StringUtils.isEmpty(body)) {
+      return List.of();
+    }
+    try {
+      return isJsonArray(body)
+          ? DatabindCodec.mapper().readValue(body, new TypeReference<>() {})
+          : List.of(DatabindCodec.mapper().readValue(body, SUSHIErrorModel.class));
+    } catch (Exception e) {
+      return List.of();
+    }
+  }
+
+  /**
+   * Deserializes the response body directly from its bytes, avoiding an intermediate {@link
+   * String} copy of potentially large reports.
+   */
+  private static <T> T readValue(Buffer body, TypeReference<T> returnType) throws IOException {
+    if (body == null) {
+      return DatabindCodec.mapper().readValue("", returnType);
+    }
+    try (InputStream is = new ByteBufInputStream(body.getByteBuf())) {
+      return DatabindCodec.mapper().readValue(is, returnType);
+    }
+  }
+
+  /** Observes successful responses. */
+  @FunctionalInterface
+  public interface ResponseObserver {
+
+    /**
+     * Called with a successful response.
+     *
+     * @param content deserialized response body
+     * @param latencyMillis time from sending the request until the response was received
+     * @param sizeBytes size of the response body in bytes
+     */
+    void onResponse(Object content, long latencyMillis, long sizeBytes);
+  }
 }
@@ -2,12 +2,15 @@ package org.openapitools.client.api;
 
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import java.util.List;
 import org.openapitools.client.ApiClient;
 import org.openapitools.client.ApiClient.AuthInfo;
 import org.openapitools.client.model.COUNTERDatabaseReport;
 import org.openapitools.client.model.COUNTERItemReport;
 import org.openapitools.client.model.COUNTERPlatformReport;
 import org.openapitools.client.model.COUNTERTitleReport;
+import org.openapitools.client.model.SUSHIReportList;
+import org.openapitools.client.model.SUSHIServiceStatus;
 
 public class CounterDefaultApiImpl extends DefaultApiImpl {
 
@@ -100,4 +103,16 @@ public class CounterDefaultApiImpl extends DefaultApiImpl {
         promise);
     return promise.future();
   }
+
+  public Future<List<SUSHIServiceStatus>> getStatus(String customerId, String platform) {
+    Promise<List<SUSHIServiceStatus>> promise = Promise.promise();
+    super.getStatus(customerId, platform, authInfo, promise);
+    return promise.future();
+  }
+
+  public Future<List<SUSHIReportList>> getReports(String customerId, String platform) {
+    Promise<List<SUSHIReportList>> promise = Promise.promise();
+    super.getReports(customerId, platform, authInfo, promise);
+    return promise.future();
+  }
 }
@@ -15,8 +15,10 @@ import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.google.common.io.Resources;
+import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpClosedException;
 import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.Timeout;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -31,6 +33,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.rest.jaxrs.model.HarvestingConfig;
@@ -54,6 +57,8 @@ public class CS50ImplTest {
   private static final String REPORT = "tr";
   private static final String REPORT_PATH_PREFIX = "/sushi/reports/";
   private static final String REPORT_PATH = REPORT_PATH_PREFIX + REPORT;
+  private static final String STATUS_PATH = "/sushi/status";
+  private static final String REPORTS_PATH = "/sushi/reports";
   private static final String CUSTOMER_ID = "CustomerId123";
   private static final String REQUESTOR_ID_QUERY = "requestor_id";
   private static final String REQUESTOR_ID = "RequestorId123";
@@ -73,6 +78,7 @@ public class CS50ImplTest {
 
   @Before
   public void before() {
+    CS50Impl.clearReportListCache();
     provider = createTestProvider();
     ProxySelector.setDefault(
         new ProxySelector() {
@@ -238,6 +244,69 @@ public class CS50ImplTest {
                 }));
   }
 
+  @Test
+  public void testFetchReportFatalByErrorCode(TestContext context) throws IOException {
+    String reportStr =
+        Resources.toString(
+            Resources.getResource("SampleReportEmptyItems.json"), StandardCharsets.UTF_8);
+    COUNTERTitleReport tr = Json.decodeValue(reportStr, COUNTERTitleReport.class);
+    SUSHIErrorModel error = new SUSHIErrorModel();
+    error.setCode(2010);
+    error.setMessage("Requestor is Not Authorized to Access Usage for Institution");
+    tr.getReportHeader().setExceptions(List.of(error));
+    createStubWithBody(200, Json.encode(tr));
+
+    new CS50Impl(provider)
+        .fetchReport(REPORT, BEGIN_DATE, END_DATE)
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t)
+                      .isInstanceOf(FatalProviderException.class)
+                      .hasMessageContaining("2010");
+                  verifyApiCall();
+                }));
+  }
+
+  @Test
+  public void testFetchReportNotAvailableByErrorCode(TestContext context) throws IOException {
+    String reportStr =
+        Resources.toString(
+            Resources.getResource("SampleReportEmptyItems.json"), StandardCharsets.UTF_8);
+    COUNTERTitleReport tr = Json.decodeValue(reportStr, COUNTERTitleReport.class);
+    SUSHIErrorModel error = new SUSHIErrorModel();
+    error.setCode(3031);
+    error.setMessage("Usage Not Ready for Requested Dates");
+    tr.getReportHeader().setExceptions(List.of(error));
+    createStubWithBody(200, Json.encode(tr));
+
+    new CS50Impl(provider)
+        .fetchReport(REPORT, BEGIN_DATE, END_DATE)
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t)
+                      .isInstanceOf(ReportNotAvailableException.class)
+                      .hasMessageContaining("3031");
+                  verifyApiCall();
+                }));
+  }
+
+  @Test
+  public void testFetchReportFatalByHttpStatusCode(TestContext context) {
+    createStubWithBody(401, null);
+    new CS50Impl(provider)
+        .fetchReport(REPORT, BEGIN_DATE, END_DATE)
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t)
+                      .isInstanceOf(FatalProviderException.class)
+                      .hasMessageContaining("401");
+                  verifyApiCall();
+                }));
+  }
+
   @Test
   public void testFetchReportNoReportItems(TestContext context) throws IOException {
     createStubWithResource(200, "SampleReportMissingItems.json");
@@ -303,6 +372,59 @@ public class CS50ImplTest {
                 }));
   }
 
+  @Test
+  public void testWebClientIsSharedAcrossIdleTimeouts(TestContext context) throws IOException {
+    createStubWithResource(200, "SampleReport.json");
+    provider.setId("shared-client-provider");
+    Vertx vertx = Vertx.vertx();
+    vertx.runOnContext(
+        v -> {
+          CS50Impl cs50 = new CS50Impl(provider);
+          AdaptiveTimeouts.setOverride(
+              provider.getId(), new JsonObject().put(RequestTimeouts.IDLE_TIMEOUT, 10000));
+          cs50.fetchReport(REPORT, BEGIN_DATE, END_DATE)
+              .compose(
+                  list -> {
+                    AdaptiveTimeouts.setOverride(
+                        provider.getId(),
+                        new JsonObject().put(RequestTimeouts.IDLE_TIMEOUT, 20000));
+                    return cs50.fetchReport(REPORT, BEGIN_DATE, END_DATE);
+                  })
+              .onComplete(ar -> AdaptiveTimeouts.setOverride(provider.getId(), null))
+              .onComplete(
+                  context.asyncAssertSuccess(
+                      list -> {
+                        wmRule.verify(2, getRequestedFor(urlPathEqualTo(REPORT_PATH)));
+                        assertThat(
+                                vertx.sharedData().getLocalMap(CS50Impl.CLIENTS_MAP_NAME).size())
+                            .isEqualTo(1);
+                        vertx.close();
+                      }));
+        });
+  }
+
+  @Test
+  public void testOnlyValidReportsAreObserved(TestContext context) throws IOException {
+    List<String> observed = new CopyOnWriteArrayList<>();
+    FetchObserver observer =
+        (serviceUrl, reportType, latencyMillis, sizeBytes) -> observed.add(reportType);
+    FetchObservers.add(observer);
+    String reportBody =
+        Resources.toString(Resources.getResource("SampleReport.json"), StandardCharsets.UTF_8);
+    createStubWithResource(200, "SampleReportExceptionError.json");
+    CS50Impl cs50 = new CS50Impl(provider);
+    cs50.fetchReport(REPORT, BEGIN_DATE, END_DATE)
+        .recover(
+            t -> {
+              assertThat(observed).isEmpty();
+              createStubWithBody(200, reportBody);
+              return cs50.fetchReport(REPORT, BEGIN_DATE, END_DATE);
+            })
+        .onComplete(ar -> FetchObservers.remove(observer))
+        .onComplete(
+            context.asyncAssertSuccess(list -> assertThat(observed).containsExactly(REPORT)));
+  }
+
   @Test
   public void testFetchReportOkWithStatus202(TestContext context) throws IOException {
     String expectedReportStr = createStubWithResource(202, "SampleReport.json");
@@ -357,7 +479,7 @@ public class CS50ImplTest {
         .onComplete(
             context.asyncAssertFailure(
                 t -> {
-                  assertThat(t).hasMessage(errStr);
+                  assertThat(t).isInstanceOf(FatalProviderException.class).hasMessage(errStr);
                   verifyApiCall();
                 }));
   }
@@ -370,7 +492,7 @@ public class CS50ImplTest {
         .onComplete(
             context.asyncAssertFailure(
                 t -> {
-                  assertThat(t).hasMessage(errStr);
+                  assertThat(t).isInstanceOf(FatalProviderException.class).hasMessage(errStr);
                   verifyApiCall();
                 }));
   }
@@ -571,4 +693,69 @@ public class CS50ImplTest {
                             .withQueryParam(REQUESTOR_ID_QUERY, absent())
                             .withQueryParam(API_KEY_QUERY, absent()))));
   }
+
+  private void stubStatus(boolean active) {
+    wmRule.stubFor(
+        get(urlPathEqualTo(STATUS_PATH))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withBody(
+                        "[{\"Description\": \"Scheduled maintenance\", \"Service_Active\": "
+                            + active
+                            + "}]")));
+  }
+
+  @Test
+  public void testPreflightServiceNotActive(TestContext context) {
+    stubStatus(false);
+    new CS50Impl(provider)
+        .preflight(List.of("TR", "PR"))
+        .onComplete(
+            context.asyncAssertFailure(
+                t -> {
+                  assertThat(t)
+                      .isInstanceOf(ServiceUnavailableException.class)
+                      .hasMessageContaining("Scheduled maintenance");
+                  wmRule.verify(0, getRequestedFor(urlPathEqualTo(REPORTS_PATH)));
+                }));
+  }
+
+  @Test
+  public void testPreflightRemovesReportsNotOffered(TestContext context) throws IOException {
+    stubStatus(true);
+    wmRule.stubFor(
+        get(urlPathEqualTo(REPORTS_PATH))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withBody(
+                        Resources.toString(
+                            Resources.getResource("erroravailablereports.json"),
+                            StandardCharsets.UTF_8))));
+    CS50Impl cs50 = new CS50Impl(provider);
+    cs50.preflight(List.of("TR", "PR"))
+        .compose(
+            list -> {
+              assertThat(list).containsExactly("PR");
+              return cs50.preflight(List.of("TR", "PR"));
+            })
+        .onComplete(
+            context.asyncAssertSuccess(
+                list -> {
+                  assertThat(list).containsExactly("PR");
+                  wmRule.verify(2, getRequestedFor(urlPathEqualTo(STATUS_PATH)));
+                  wmRule.verify(1, getRequestedFor(urlPathEqualTo(REPORTS_PATH)));
+                }));
+  }
+
+  @Test
+  public void testPreflightNotImplemented(TestContext context) {
+    wmRule.stubFor(get(urlPathEqualTo(STATUS_PATH)).willReturn(aResponse().withStatus(404)));
+    wmRule.stubFor(get(urlPathEqualTo(REPORTS_PATH)).willReturn(aResponse().withStatus(404)));
+    new CS50Impl(provider)
+        .preflight(List.of("TR", "PR"))
+        .onComplete(
+            context.asyncAssertSuccess(list -> assertThat(list).containsExactly("TR", "PR")));
+  }
 }
@@ -2,12 +2,17 @@ package org.olf.erm.usage.harvester.endpoints;
 
 import io.netty.handler.codec.http.QueryStringEncoder;
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.net.ProxyOptions;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.ext.web.client.WebClientOptions;
-import java.io.StringReader;
+import io.vertx.ext.web.codec.BodyCodec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.time.YearMonth;
@@ -15,8 +20,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import javax.xml.bind.JAXB;
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
 import org.folio.rest.jaxrs.model.Aggregator;
 import org.folio.rest.jaxrs.model.AggregatorConfig;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
@@ -28,28 +38,45 @@ import org.niso.schemas.sushi.Exception;
 import org.niso.schemas.sushi.counter.CounterReportResponse;
 import org.olf.erm.usage.counter41.Counter4Utils;
 import org.olf.erm.usage.counter41.Counter4Utils.ReportSplitException;
+import org.olf.erm.usage.harvester.jfr.SplitEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class NSS implements ServiceEndpoint {
 
+  static final String CLIENTS_MAP_NAME = "erm-usage-harvester.nss.clients";
   private static final Logger LOG = LoggerFactory.getLogger(NSS.class);
+  private static final JAXBContext JAXB_CONTEXT = createJaxbContext();
   private final WebClient client;
   private final UsageDataProvider provider;
   private final AggregatorSetting aggregator;
+  private final Vertx vertx;
 
   public NSS(UsageDataProvider provider, AggregatorSetting aggregator) {
-    Vertx vertx;
-    if (Vertx.currentContext() == null) vertx = Vertx.vertx();
+    if (Vertx.currentContext() == null) this.vertx = Vertx.vertx();
     else {
-      vertx = Vertx.currentContext().owner();
+      this.vertx = Vertx.currentContext().owner();
     }
     this.provider = provider;
     this.aggregator = aggregator;
 
+    String serviceUrl = (aggregator == null) ? null : aggregator.getServiceUrl();
+    LocalMap<String, SharedClient> clients = vertx.sharedData().getLocalMap(CLIENTS_MAP_NAME);
+    this.client =
+        clients.computeIfAbsent(
+                Objects.toString(serviceUrl, ""),
+                k -> new SharedClient(createClient(vertx, serviceUrl)))
+            .client;
+  }
+
+  /**
+   * Creates the client for an aggregator's service URL. Clients are shared by all NSS instances of
+   * the same service URL, so that they use one connection pool.
+   */
+  private WebClient createClient(Vertx vertx, String serviceUrl) {
     WebClientOptions options = new WebClientOptions();
     try {
-      getProxy(new URI(aggregator.getServiceUrl()))
+      getProxy(new URI(serviceUrl))
           .ifPresent(
               p -> {
                 InetSocketAddress addr = (InetSocketAddress) p.address();
@@ -59,7 +86,30 @@ public class NSS implements ServiceEndpoint {
     } catch (java.lang.Exception e) {
       LOG.error("Error getting proxy: {}", e.getMessage());
     }
-    this.client = WebClient.create(vertx, options);
+    return WebClient.create(vertx, options);
+  }
+
+  private static JAXBContext createJaxbContext() {
+    try {
+      return JAXBContext.newInstance(CounterReportResponse.class);
+    } catch (JAXBException e) {
+      throw new DataBindingException(e);
+    }
+  }
+
+  /**
+   * Unmarshals a {@link CounterReportResponse}. The JAXB context is created once and held for the
+   * lifetime of the class, unmarshallers are not thread-safe and are created per call.
+   */
+  static CounterReportResponse unmarshal(Source source) {
+    try {
+      return JAXB_CONTEXT
+          .createUnmarshaller()
+          .unmarshal(source, CounterReportResponse.class)
+          .getValue();
+    } catch (JAXBException e) {
+      throw new DataBindingException(e);
+    }
   }
 
   public String buildURL(String report, String begin, String end) {
@@ -93,7 +143,19 @@ public class NSS implements ServiceEndpoint {
 
   private List<CounterReport> createCounterReportList(
       Report report, String reportType, UsageDataProvider provider) throws ReportSplitException {
-    List<Report> splitReports = Counter4Utils.split(report);
+    List<Report> splitReports;
+    SplitEvent event = new SplitEvent(provider.getId(), reportType);
+    event.begin();
+    try {
+      splitReports = Counter4Utils.split(report);
+      event.setReports(splitReports.size());
+      event.setResult(null);
+    } catch (ReportSplitException e) {
+      event.setResult(e);
+      throw e;
+    } finally {
+      event.commit();
+    }
     return splitReports.stream()
         .map(
             r -> {
@@ -116,49 +178,91 @@ public class NSS implements ServiceEndpoint {
       return Future.failedFuture("Could not create request URL due to missing parameters.");
     }
 
-    Promise<List<CounterReport>> promise = Promise.promise();
+    RequestTimeouts timeouts =
+        AdaptiveTimeouts.get(provider.getId(), aggregator.getServiceUrl(), reportType);
+    SpoolingWriteStream spool = new SpoolingWriteStream(vertx);
+    long start = System.nanoTime();
     try {
-      client
-          .getAbs(url)
-          .send(
-              ar -> {
-                if (ar.succeeded()) {
-                  if (ar.result().statusCode() == 200) {
-                    String result = ar.result().bodyAsString();
-                    CounterReportResponse reportResponse =
-                        JAXB.unmarshal(new StringReader(result), CounterReportResponse.class);
-                    List<Exception> exceptions = Counter4Utils.getExceptions(reportResponse);
-                    if (exceptions.isEmpty()
-                        && reportResponse.getReport() != null
-                        && !reportResponse.getReport().getReport().isEmpty()) {
-                      Report report = reportResponse.getReport().getReport().get(0);
-                      try {
-                        List<CounterReport> counterReportList =
-                            createCounterReportList(report, reportType, provider);
-                        promise.complete(counterReportList);
-                      } catch (java.lang.Exception e) {
-                        promise.fail(new InvalidReportException(e));
-                      }
-                    } else {
-                      promise.fail(
-                          new InvalidReportException(Counter4Utils.getErrorMessages(exceptions)));
-                    }
-                  } else {
-                    promise.fail(
-                        url
-                            + " - "
-                            + ar.result().statusCode()
-                            + " : "
-                            + ar.result().statusMessage());
+      Future<HttpResponse<Void>> response =
+          client
+              .getAbs(url)
+              .connectTimeout(timeouts.getConnectTimeout())
+              .idleTimeout(timeouts.getIdleTimeout())
+              .as(BodyCodec.pipe(spool))
+              .send();
+      return AdaptiveTimeouts.withTotalTimeout(
+              vertx, response, timeouts, aggregator.getServiceUrl(), reportType)
+          .onFailure(t -> spool.discard())
+          .compose(
+              resp -> {
+                if (resp.statusCode() != 200) {
+                  spool.discard();
+                  String msg = url + " - " + resp.statusCode() + " : " + resp.statusMessage();
+                  if (FatalProviderException.isFatalStatusCode(resp.statusCode())) {
+                    return Future.failedFuture(new FatalProviderException(msg));
                   }
-                } else {
-                  promise.fail(ar.cause());
+                  return Future.failedFuture(msg);
                 }
+                return spool
+                    .result()
+                    .compose(
+                        body -> {
+                          long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                          return vertx
+                              .<List<CounterReport>>executeBlocking(
+                                  promise -> promise.complete(parseResponse(body, reportType)),
+                                  false)
+                              // only valid reports are observed
+                              .onSuccess(
+                                  reports ->
+                                      FetchObservers.onResponse(
+                                          aggregator.getServiceUrl(),
+                                          reportType,
+                                          latency,
+                                          body.size()))
+                              .onComplete(ar -> body.delete(vertx));
+                        });
               });
     } catch (java.lang.Exception e) {
       return Future.failedFuture(e);
     }
-    return promise.future();
+  }
+
+  private List<CounterReport> parseResponse(SpooledBody body, String reportType) {
+    CounterReportResponse reportResponse;
+    try (InputStream is = body.openStream()) {
+      reportResponse = unmarshal(new StreamSource(is));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<Exception> exceptions = Counter4Utils.getExceptions(reportResponse);
+    if (exceptions.isEmpty()
+        && reportResponse.getReport() != null
+        && !reportResponse.getReport().getReport().isEmpty()) {
+      Report report = reportResponse.getReport().getReport().get(0);
+      try {
+        return createCounterReportList(report, reportType, provider);
+      } catch (java.lang.Exception e) {
+        throw new InvalidReportException(e);
+      }
+    } else if (exceptions.stream()
+        .anyMatch(e -> FatalProviderException.isFatalErrorCode(e.getNumber()))) {
+      throw new FatalProviderException(Counter4Utils.getErrorMessages(exceptions));
+    } else if (exceptions.stream()
+        .anyMatch(e -> ReportNotAvailableException.isNotAvailableErrorCode(e.getNumber()))) {
+      throw new ReportNotAvailableException(Counter4Utils.getErrorMessages(exceptions));
+    } else {
+      throw new InvalidReportException(Counter4Utils.getErrorMessages(exceptions));
+    }
+  }
+
+  private static class SharedClient implements Shareable {
+
+    private final WebClient client;
+
+    SharedClient(WebClient client) {
+      this.client = client;
+    }
   }
 
   static class NSSException extends RuntimeException {
@@ -1,7 +1,9 @@
 package org.olf.erm.usage.harvester.endpoints;
 
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
+import javax.xml.transform.stream.StreamSource;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
 
@@ -36,4 +38,10 @@ public class NSSProvider implements ServiceEndpointProvider {
   public ServiceEndpoint create(UsageDataProvider provider, AggregatorSetting aggregator) {
     return new NSS(provider, aggregator);
   }
+
+  /** Creates the JAXB context used by {@link NSS} for unmarshalling responses. */
+  @Override
+  public void warmUp() {
+    NSS.unmarshal(new StreamSource(new StringReader("<CounterReportResponse/>")));
+  }
 }
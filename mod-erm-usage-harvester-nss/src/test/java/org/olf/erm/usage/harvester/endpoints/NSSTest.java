@@ -32,6 +32,7 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import javax.xml.bind.JAXB;
+import javax.xml.transform.stream.StreamSource;
 import org.folio.rest.jaxrs.model.Aggregator;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.CounterReport;
@@ -207,6 +208,29 @@ public class NSSTest {
             });
   }
 
+  @Test
+  public void fetchReportWithAggregatorUnauthorized(TestContext context) {
+    final NSS sep = new NSS(provider, aggregator);
+    final String url = sep.buildURL(reportType, beginDate, endDate);
+
+    wireMockRule.stubFor(
+        get(urlEqualTo(url.replaceAll(wireMockRule.url(""), "/")))
+            .willReturn(aResponse().withStatus(401)));
+
+    Async async = context.async();
+    sep.fetchReport(reportType, beginDate, endDate)
+        .onSuccess(v -> context.fail())
+        .onFailure(
+            t -> {
+              context.verify(
+                  v -> {
+                    assertThat(t).isInstanceOf(FatalProviderException.class);
+                    assertThat(t.getMessage()).contains("401");
+                  });
+              async.complete();
+            });
+  }
+
   @Test
   public void fetchReportWithAggregatorNoService(TestContext context) {
     final NSS sep = new NSS(provider, aggregator);
@@ -231,6 +255,20 @@ public class NSSTest {
     assertThat(Counter4Utils.getExceptions(reportInvalid)).isNotEmpty();
   }
 
+  @Test
+  public void testUnmarshal() {
+    String url = Resources.getResource("__files/nss-report-2016-03.xml").toString();
+    CounterReportResponse expected = JAXB.unmarshal(url, CounterReportResponse.class);
+    CounterReportResponse actual = NSS.unmarshal(new StreamSource(url));
+    assertThat(actual.getReport().getReport())
+        .hasSameSizeAs(expected.getReport().getReport())
+        .isNotEmpty();
+    assertThat(actual.getReport().getReport().get(0).getName())
+        .isEqualTo(expected.getReport().getReport().get(0).getName())
+        .isEqualTo("JR1");
+    assertThat(NSS.unmarshal(new StreamSource(url))).isNotSameAs(actual);
+  }
+
   @Test
   public void testWhiteSpacesInQueryParameter(TestContext context) {
     Aggregator aggregator = provider.getHarvestingConfig().getAggregator();
@@ -0,0 +1,256 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import com.google.common.base.Throwables;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Derives {@link RequestTimeouts} per SUSHI host and report type from observed latencies and
+ * response sizes.
+ *
+ * <p>The idle timeout is derived from the 95th percentile of the latency. The total timeout is
+ * derived from the larger of the 95th percentile of the latency and the time the 95th percentile of
+ * the response size takes at the 5th percentile of the throughput. Both are multiplied by {@value
+ * #SAFETY_FACTOR} and limited to a minimum and maximum. Until {@value #MIN_SAMPLES} responses were
+ * observed, {@link #DEFAULT_TIMEOUTS} are used.
+ *
+ * <p>Requests that timed out are recorded as censored samples: their latency is only known to be at
+ * least the time until they were cut off. Besides counting towards the percentiles, each of them
+ * raises the timeout that cut it off to {@value #SAFETY_FACTOR} times its value for as long as it
+ * is one of the last {@value #MAX_SAMPLES} samples.
+ *
+ * <p>Timeouts of a provider can be overridden with {@link #setOverride(String, JsonObject)}.
+ */
+public class AdaptiveTimeouts {
+
+  public static final RequestTimeouts DEFAULT_TIMEOUTS =
+      new RequestTimeouts(10_000, 60_000, 600_000);
+  public static final int MIN_SAMPLES = 5;
+  public static final int MAX_SAMPLES = 50;
+  public static final int SAFETY_FACTOR = 2;
+  public static final long MIN_IDLE_TIMEOUT = 60_000;
+  public static final long MAX_IDLE_TIMEOUT = 300_000;
+  public static final long MIN_TOTAL_TIMEOUT = 60_000;
+  public static final long MAX_TOTAL_TIMEOUT = 1_800_000;
+  private static final Map<String, Samples> samples = new ConcurrentHashMap<>();
+  private static final Map<String, JsonObject> overrides = new ConcurrentHashMap<>();
+
+  private AdaptiveTimeouts() {}
+
+  private static String createKey(String serviceUrl, String reportType) {
+    String host;
+    try {
+      host = URI.create(serviceUrl).getAuthority();
+    } catch (Exception e) {
+      host = null;
+    }
+    return ((host == null) ? serviceUrl : host.toLowerCase(Locale.ROOT)) + "|" + reportType;
+  }
+
+  /**
+   * Records a successful response.
+   *
+   * @param serviceUrl url of the SUSHI service
+   * @param reportType requested report type
+   * @param latencyMillis time from sending the request until the response was received completely
+   * @param sizeBytes size of the response body, or a negative value if unknown
+   */
+  public static void record(
+      String serviceUrl, String reportType, long latencyMillis, long sizeBytes) {
+    samples
+        .computeIfAbsent(createKey(serviceUrl, reportType), k -> new Samples())
+        .add(latencyMillis, sizeBytes);
+  }
+
+  /**
+   * Records a request that was cut off by one of its timeouts. If it took at least the total
+   * timeout, the total timeout cut it off, otherwise the idle timeout.
+   *
+   * @param serviceUrl url of the SUSHI service
+   * @param reportType requested report type
+   * @param timeouts timeouts of the request
+   * @param elapsedMillis time from sending the request until it was cut off
+   */
+  public static void recordTimeout(
+      String serviceUrl, String reportType, RequestTimeouts timeouts, long elapsedMillis) {
+    samples
+        .computeIfAbsent(createKey(serviceUrl, reportType), k -> new Samples())
+        .addTimeout(timeouts, elapsedMillis);
+  }
+
+  /**
+   * Returns the timeouts for a request.
+   *
+   * @param providerId id of the provider, used for looking up overrides
+   * @param serviceUrl url of the SUSHI service
+   * @param reportType requested report type
+   * @return timeouts for the request
+   */
+  public static RequestTimeouts get(String providerId, String serviceUrl, String reportType) {
+    Samples s = samples.get(createKey(serviceUrl, reportType));
+    RequestTimeouts timeouts = (s == null) ? DEFAULT_TIMEOUTS : s.calculate();
+    return (providerId == null) ? timeouts : timeouts.withOverride(overrides.get(providerId));
+  }
+
+  public static void setOverride(String providerId, JsonObject override) {
+    if (override == null) {
+      overrides.remove(providerId);
+    } else {
+      overrides.put(providerId, override);
+    }
+  }
+
+  public static void clear() {
+    samples.clear();
+    overrides.clear();
+  }
+
+  /**
+   * Fails the returned future with a {@link TimeoutException} if {@code future} does not complete
+   * within the total timeout.
+   */
+  public static <T> Future<T> withTotalTimeout(Vertx vertx, Future<T> future, long totalTimeout) {
+    Promise<T> promise = Promise.promise();
+    long timerId =
+        vertx.setTimer(
+            totalTimeout,
+            id ->
+                promise.tryFail(
+                    new TimeoutException("Total timeout of " + totalTimeout + " ms exceeded")));
+    future.onComplete(
+        ar -> {
+          vertx.cancelTimer(timerId);
+          promise.tryHandle(ar);
+        });
+    return promise.future();
+  }
+
+  /**
+   * Like {@link #withTotalTimeout(Vertx, Future, long)}, and records the request with {@link
+   * #recordTimeout(String, String, RequestTimeouts, long)} if it fails because of a timeout.
+   */
+  public static <T> Future<T> withTotalTimeout(
+      Vertx vertx,
+      Future<T> future,
+      RequestTimeouts timeouts,
+      String serviceUrl,
+      String reportType) {
+    long start = System.nanoTime();
+    return withTotalTimeout(vertx, future, timeouts.getTotalTimeout())
+        .onFailure(
+            t -> {
+              if (isTimeout(t)) {
+                recordTimeout(
+                    serviceUrl,
+                    reportType,
+                    timeouts,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+              }
+            });
+  }
+
+  static boolean isTimeout(Throwable t) {
+    return Throwables.getCausalChain(t).stream()
+        .anyMatch(c -> c instanceof TimeoutException || c instanceof SocketTimeoutException);
+  }
+
+  static long percentile(long[] values, double p) {
+    long[] sorted = values.clone();
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(p * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  private static long clamp(long value, long min, long max) {
+    return Math.max(min, Math.min(value, max));
+  }
+
+  private static class Samples {
+
+    private final long[] latencies = new long[MAX_SAMPLES];
+    private final long[] sizes = new long[MAX_SAMPLES];
+    // timeouts that cut a request off, 0 for successful requests
+    private final long[] idleCutOffs = new long[MAX_SAMPLES];
+    private final long[] totalCutOffs = new long[MAX_SAMPLES];
+    private int count = 0;
+    private int next = 0;
+
+    synchronized void add(long latencyMillis, long sizeBytes) {
+      add(latencyMillis, sizeBytes, 0, 0);
+    }
+
+    synchronized void addTimeout(RequestTimeouts timeouts, long elapsedMillis) {
+      if (elapsedMillis >= timeouts.getTotalTimeout()) {
+        add(elapsedMillis, -1, 0, timeouts.getTotalTimeout());
+      } else {
+        add(elapsedMillis, -1, timeouts.getIdleTimeout(), 0);
+      }
+    }
+
+    private void add(long latencyMillis, long sizeBytes, long idleCutOff, long totalCutOff) {
+      latencies[next] = Math.max(1, latencyMillis);
+      sizes[next] = sizeBytes;
+      idleCutOffs[next] = idleCutOff;
+      totalCutOffs[next] = totalCutOff;
+      next = (next + 1) % MAX_SAMPLES;
+      count = Math.min(count + 1, MAX_SAMPLES);
+    }
+
+    synchronized RequestTimeouts calculate() {
+      return widen((count < MIN_SAMPLES) ? DEFAULT_TIMEOUTS : fromSamples());
+    }
+
+    /** Raises the timeouts that cut off one of the samples. */
+    private RequestTimeouts widen(RequestTimeouts timeouts) {
+      long idle = timeouts.getIdleTimeout();
+      long total = timeouts.getTotalTimeout();
+      for (int i = 0; i < count; i++) {
+        idle = Math.max(idle, Math.min(SAFETY_FACTOR * idleCutOffs[i], MAX_IDLE_TIMEOUT));
+        total = Math.max(total, Math.min(SAFETY_FACTOR * totalCutOffs[i], MAX_TOTAL_TIMEOUT));
+      }
+      total = Math.max(idle, total);
+      if (idle == timeouts.getIdleTimeout() && total == timeouts.getTotalTimeout()) {
+        return timeouts;
+      }
+      return new RequestTimeouts(timeouts.getConnectTimeout(), idle, total);
+    }
+
+    private RequestTimeouts fromSamples() {
+      long[] observedLatencies = Arrays.copyOf(latencies, count);
+      long p95Latency = percentile(observedLatencies, 0.95);
+
+      long expected = p95Latency;
+      long[] knownSizes =
+          Arrays.stream(Arrays.copyOf(sizes, count)).filter(size -> size >= 0).toArray();
+      if (knownSizes.length >= MIN_SAMPLES) {
+        // throughput in bytes per second
+        long[] throughputs = new long[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+          if (sizes[i] >= 0) {
+            throughputs[n++] = sizes[i] * 1000 / latencies[i];
+          }
+        }
+        long p5Throughput = percentile(Arrays.copyOf(throughputs, n), 0.05);
+        if (p5Throughput > 0) {
+          expected = Math.max(expected, percentile(knownSizes, 0.95) * 1000 / p5Throughput);
+        }
+      }
+
+      long idle = clamp(SAFETY_FACTOR * p95Latency, MIN_IDLE_TIMEOUT, MAX_IDLE_TIMEOUT);
+      long total =
+          Math.max(idle, clamp(SAFETY_FACTOR * expected, MIN_TOTAL_TIMEOUT, MAX_TOTAL_TIMEOUT));
+      return new RequestTimeouts(DEFAULT_TIMEOUTS.getConnectTimeout(), idle, total);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import java.util.Set;
+
+/**
+ * Signals an error that affects every request made to a provider, like invalid credentials or an
+ * unauthorized customer. Harvesting of the provider should stop instead of requesting further
+ * reports.
+ */
+public class FatalProviderException extends RuntimeException {
+
+  /** COUNTER exceptions for unauthorized requestors, unauthorized institutions and invalid keys. */
+  public static final Set<Integer> FATAL_ERROR_CODES = Set.of(2000, 2010, 2020);
+
+  public static final Set<Integer> FATAL_STATUS_CODES = Set.of(401, 403);
+
+  public FatalProviderException(String message) {
+    super(message);
+  }
+
+  public FatalProviderException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public static boolean isFatalErrorCode(Integer code) {
+    return code != null && FATAL_ERROR_CODES.contains(code);
+  }
+
+  public static boolean isFatalStatusCode(int statusCode) {
+    return FATAL_STATUS_CODES.contains(statusCode);
+  }
+}
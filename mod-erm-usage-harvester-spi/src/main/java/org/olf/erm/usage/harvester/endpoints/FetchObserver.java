@@ -0,0 +1,20 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+/**
+ * Observes the responses that {@link ServiceEndpoint} implementations receive from SUSHI services.
+ *
+ * @see FetchObservers
+ */
+@FunctionalInterface
+public interface FetchObserver {
+
+  /**
+   * Called for each successful response.
+   *
+   * @param serviceUrl url of the SUSHI service
+   * @param reportType requested report type
+   * @param latencyMillis time from sending the request until the response was received completely
+   * @param sizeBytes size of the response body, or a negative value if unknown
+   */
+  void onResponse(String serviceUrl, String reportType, long latencyMillis, long sizeBytes);
+}
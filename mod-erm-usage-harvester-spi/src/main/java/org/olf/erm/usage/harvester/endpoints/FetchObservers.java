@@ -0,0 +1,43 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes responses of SUSHI services on to {@link AdaptiveTimeouts} and to any registered {@link
+ * FetchObserver}. {@link ServiceEndpoint} implementations report their responses here.
+ */
+public class FetchObservers {
+
+  private static final Logger log = LoggerFactory.getLogger(FetchObservers.class);
+  private static final List<FetchObserver> observers = new CopyOnWriteArrayList<>();
+
+  private FetchObservers() {}
+
+  public static void add(FetchObserver observer) {
+    observers.add(observer);
+  }
+
+  public static void remove(FetchObserver observer) {
+    observers.remove(observer);
+  }
+
+  /**
+   * Records a successful response.
+   *
+   * @see FetchObserver#onResponse(String, String, long, long)
+   */
+  public static void onResponse(
+      String serviceUrl, String reportType, long latencyMillis, long sizeBytes) {
+    AdaptiveTimeouts.record(serviceUrl, reportType, latencyMillis, sizeBytes);
+    for (FetchObserver observer : observers) {
+      try {
+        observer.onResponse(serviceUrl, reportType, latencyMillis, sizeBytes);
+      } catch (Exception e) {
+        log.warn("Error in FetchObserver: {}", e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import java.util.Set;
+
+/**
+ * Signals that the provider has no usage data for the requested months yet. Used to learn when a
+ * provider usually publishes the usage data of a month.
+ */
+public class ReportNotAvailableException extends InvalidReportException {
+
+  /** COUNTER exceptions for usage that is not available or not ready for the requested dates. */
+  public static final Set<Integer> NOT_AVAILABLE_ERROR_CODES = Set.of(3030, 3031);
+
+  public ReportNotAvailableException(String message) {
+    super(message);
+  }
+
+  public static boolean isNotAvailableErrorCode(Integer code) {
+    return code != null && NOT_AVAILABLE_ERROR_CODES.contains(code);
+  }
+}
@@ -0,0 +1,69 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Timeouts of a single SUSHI request in milliseconds.
+ *
+ * <ul>
+ *   <li>{@code connectTimeout}: time until the connection is established
+ *   <li>{@code idleTimeout}: time without receiving any data
+ *   <li>{@code totalTimeout}: time until the complete response is received
+ * </ul>
+ */
+public class RequestTimeouts {
+
+  public static final String CONNECT_TIMEOUT = "connectTimeout";
+  public static final String IDLE_TIMEOUT = "idleTimeout";
+  public static final String TOTAL_TIMEOUT = "totalTimeout";
+  private final long connectTimeout;
+  private final long idleTimeout;
+  private final long totalTimeout;
+
+  public RequestTimeouts(long connectTimeout, long idleTimeout, long totalTimeout) {
+    this.connectTimeout = connectTimeout;
+    this.idleTimeout = idleTimeout;
+    this.totalTimeout = totalTimeout;
+  }
+
+  public long getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  public long getTotalTimeout() {
+    return totalTimeout;
+  }
+
+  /**
+   * Returns new timeouts where each timeout given in {@code override} replaces the corresponding
+   * timeout.
+   *
+   * @param override JsonObject with optional {@value #CONNECT_TIMEOUT}, {@value #IDLE_TIMEOUT} and
+   *     {@value #TOTAL_TIMEOUT} properties
+   * @return the resulting timeouts
+   */
+  public RequestTimeouts withOverride(JsonObject override) {
+    if (override == null) {
+      return this;
+    }
+    return new RequestTimeouts(
+        override.getLong(CONNECT_TIMEOUT, connectTimeout),
+        override.getLong(IDLE_TIMEOUT, idleTimeout),
+        override.getLong(TOTAL_TIMEOUT, totalTimeout));
+  }
+
+  @Override
+  public String toString() {
+    return "RequestTimeouts{connect="
+        + connectTimeout
+        + ", idle="
+        + idleTimeout
+        + ", total="
+        + totalTimeout
+        + "}";
+  }
+}
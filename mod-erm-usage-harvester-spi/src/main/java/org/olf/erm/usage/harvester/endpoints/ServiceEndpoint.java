@@ -7,18 +7,19 @@ import io.vertx.core.json.Json;
 import java.net.Proxy;
 import java.net.ProxySelector;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.YearMonth;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.ServiceLoader;
 import java.util.UUID;
 import org.folio.rest.jaxrs.model.AggregatorSetting;
 import org.folio.rest.jaxrs.model.CounterReport;
 import org.folio.rest.jaxrs.model.Report;
 import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.olf.erm.usage.harvester.jfr.CreateReportEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,27 +43,55 @@ public interface ServiceEndpoint {
    */
   Future<List<CounterReport>> fetchReport(String report, String beginDate, String endDate);
 
+  /**
+   * Checks the service once before reports are fetched and returns the requested report types
+   * that are offered by the provider.
+   *
+   * <p>The returned Future should fail with {@link ServiceUnavailableException} if the service is
+   * not available, which skips the harvest of the provider. Implementations should return all
+   * requested report types if the service cannot tell which reports are offered.
+   *
+   * @param reportTypes requested report types
+   * @return List of requested report types that are offered
+   */
+  default Future<List<String>> preflight(List<String> reportTypes) {
+    return Future.succeededFuture(reportTypes);
+  }
+
   static CounterReport createCounterReport(
       String reportData, String reportName, UsageDataProvider provider, YearMonth yearMonth) {
-    CounterReport cr = new CounterReport();
-    cr.setId(UUID.randomUUID().toString());
-    cr.setYearMonth(yearMonth.toString());
-    cr.setReportName(reportName);
-    cr.setRelease(provider.getHarvestingConfig().getReportRelease().toString());
-    cr.setProviderId(provider.getId());
-    cr.setDownloadTime(Date.from(Instant.now()));
-    if (reportData != null) {
-      cr.setReport(Json.decodeValue(reportData, Report.class));
-    } else {
-      cr.setFailedAttempts(1);
+    CreateReportEvent event =
+        new CreateReportEvent(provider.getId(), reportName, yearMonth.toString());
+    event.begin();
+    try {
+      CounterReport cr = new CounterReport();
+      cr.setId(UUID.randomUUID().toString());
+      cr.setYearMonth(yearMonth.toString());
+      cr.setReportName(reportName);
+      cr.setRelease(provider.getHarvestingConfig().getReportRelease().toString());
+      cr.setProviderId(provider.getId());
+      cr.setDownloadTime(Date.from(Instant.now()));
+      if (reportData != null) {
+        if (event.isEnabled()) {
+          // encoding is only worth its cost while the event is recorded
+          event.setBytes(reportData.getBytes(StandardCharsets.UTF_8).length);
+        }
+        cr.setReport(Json.decodeValue(reportData, Report.class));
+      } else {
+        cr.setFailedAttempts(1);
+      }
+      event.setResult(null);
+      return cr;
+    } catch (RuntimeException e) {
+      event.setResult(e);
+      throw e;
+    } finally {
+      event.commit();
     }
-    return cr;
   }
 
   static List<ServiceEndpointProvider> getAvailableProviders() {
-    ServiceLoader<ServiceEndpointProvider> loader =
-        ServiceLoader.load(ServiceEndpointProvider.class);
-    return Lists.newArrayList(loader.iterator());
+    return Lists.newArrayList(ServiceEndpointProviders.getAll());
   }
 
   static ServiceEndpoint create(UsageDataProvider provider, AggregatorSetting aggregator) {
@@ -87,12 +116,9 @@ public interface ServiceEndpoint {
       return null;
     }
 
-    ServiceLoader<ServiceEndpointProvider> loader =
-        ServiceLoader.load(ServiceEndpointProvider.class);
-    for (ServiceEndpointProvider p : loader) {
-      if (p.getServiceType().equals(serviceType)) {
-        return p.create(provider, aggregator);
-      }
+    ServiceEndpointProvider p = ServiceEndpointProviders.get(serviceType);
+    if (p != null) {
+      return p.create(provider, aggregator);
     }
 
     log.error("No implementation found for serviceType '{}'", serviceType);
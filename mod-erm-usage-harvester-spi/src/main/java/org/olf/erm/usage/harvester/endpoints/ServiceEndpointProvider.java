@@ -22,6 +22,13 @@ public interface ServiceEndpointProvider {
 
   ServiceEndpoint create(UsageDataProvider provider, AggregatorSetting aggregator);
 
+  /**
+   * Initializes parsers and clients that are expensive to create the first time, so that the first
+   * harvest after startup does not pay for it. Called once in the background at startup, see
+   * {@link ServiceEndpointProviders#warmUp()}.
+   */
+  default void warmUp() {}
+
   default List<String> getConfigurationParameters() {
     return Collections.emptyList();
   }
@@ -0,0 +1,73 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the available {@link ServiceEndpointProvider}s. Providers are loaded with a {@link
+ * ServiceLoader} once, on first use, and are indexed by their service type.
+ */
+public class ServiceEndpointProviders {
+
+  private static final Logger log = LoggerFactory.getLogger(ServiceEndpointProviders.class);
+
+  private ServiceEndpointProviders() {}
+
+  /** Returns all available providers, in the order of the {@link ServiceLoader}. */
+  public static List<ServiceEndpointProvider> getAll() {
+    return Holder.PROVIDERS;
+  }
+
+  /**
+   * Returns the provider of a service type. If multiple providers have the same service type, the
+   * first one is returned.
+   *
+   * @param serviceType service type
+   * @return the provider, {@code null} if there is none
+   */
+  public static ServiceEndpointProvider get(String serviceType) {
+    return (serviceType == null) ? null : Holder.BY_SERVICE_TYPE.get(serviceType);
+  }
+
+  /**
+   * Calls {@link ServiceEndpointProvider#warmUp()} of all providers. Failures are logged and do
+   * not affect the other providers. This call blocks and should not be made on an event loop.
+   */
+  public static void warmUp() {
+    for (ServiceEndpointProvider provider : getAll()) {
+      long start = System.nanoTime();
+      try {
+        provider.warmUp();
+        log.info(
+            "Warmed up {} in {} ms",
+            provider.getServiceType(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      } catch (Exception e) {
+        log.warn("Error warming up {}: {}", provider.getServiceType(), e.getMessage());
+      }
+    }
+  }
+
+  /** Loads the providers on first use. */
+  private static class Holder {
+
+    private static final List<ServiceEndpointProvider> PROVIDERS =
+        ServiceLoader.load(ServiceEndpointProvider.class).stream()
+            .map(ServiceLoader.Provider::get)
+            .toList();
+    private static final Map<String, ServiceEndpointProvider> BY_SERVICE_TYPE = index(PROVIDERS);
+
+    private static Map<String, ServiceEndpointProvider> index(
+        List<ServiceEndpointProvider> providers) {
+      Map<String, ServiceEndpointProvider> result = new LinkedHashMap<>();
+      providers.forEach(p -> result.putIfAbsent(p.getServiceType(), p));
+      return Collections.unmodifiableMap(result);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+/** Signals that a SUSHI service is currently not available, e.g. during maintenance. */
+public class ServiceUnavailableException extends RuntimeException {
+
+  public ServiceUnavailableException(String message) {
+    super(message);
+  }
+
+  public ServiceUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,89 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * A response body that was written by a {@link SpoolingWriteStream}. The body is either held in a
+ * {@link Buffer} or stored in a temporary file, which needs to be deleted after processing.
+ */
+public class SpooledBody {
+
+  private final Buffer buffer;
+  private final String path;
+  private final long size;
+
+  private SpooledBody(Buffer buffer, String path, long size) {
+    this.buffer = buffer;
+    this.path = path;
+    this.size = size;
+  }
+
+  public static SpooledBody ofBuffer(Buffer buffer) {
+    return new SpooledBody(buffer, null, buffer.length());
+  }
+
+  public static SpooledBody ofFile(String path, long size) {
+    return new SpooledBody(null, path, size);
+  }
+
+  public boolean isSpooled() {
+    return path != null;
+  }
+
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Opens a stream on the body. Reading from a spooled body is blocking and should not be done on
+   * the event loop.
+   *
+   * @return an {@link InputStream} of the body
+   * @throws IOException if the spool file cannot be opened
+   */
+  public InputStream openStream() throws IOException {
+    if (isSpooled()) {
+      return new BufferedInputStream(Files.newInputStream(Paths.get(path)));
+    }
+    return new ByteBufInputStream(buffer.getByteBuf());
+  }
+
+  /**
+   * Returns the beginning of the body as string, e.g. to be included in error messages.
+   *
+   * @param maxLength maximum number of bytes to read
+   * @return the beginning of the body
+   */
+  public String head(int maxLength) {
+    if (!isSpooled()) {
+      return buffer.getString(0, (int) Math.min(maxLength, size));
+    }
+    try (InputStream is = openStream()) {
+      return new String(is.readNBytes(maxLength), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  /**
+   * Deletes the spool file, if there is one.
+   *
+   * @param vertx the {@link Vertx} instance
+   * @return a future that completes when the file was deleted
+   */
+  public Future<Void> delete(Vertx vertx) {
+    if (!isSpooled()) {
+      return Future.succeededFuture();
+    }
+    return vertx.fileSystem().delete(path);
+  }
+}
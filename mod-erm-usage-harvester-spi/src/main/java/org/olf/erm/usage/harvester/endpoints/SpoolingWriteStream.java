@@ -0,0 +1,197 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.streams.WriteStream;
+import java.util.Optional;
+
+/**
+ * A {@link WriteStream} that keeps response data in memory until its size exceeds a threshold.
+ * Everything beyond that is spooled to a temporary file, so that large responses do not need to be
+ * held on the heap. The result is available as a {@link SpooledBody} once the stream was ended.
+ *
+ * <p>The threshold defaults to {@value #DEFAULT_THRESHOLD} bytes and can be configured with the
+ * {@value #THRESHOLD_ENV_VAR} environment variable.
+ */
+public class SpoolingWriteStream implements WriteStream<Buffer> {
+
+  public static final String THRESHOLD_ENV_VAR = "SPOOL_THRESHOLD_BYTES";
+  public static final long DEFAULT_THRESHOLD = 32L * 1024 * 1024;
+  private static final String TEMP_FILE_PREFIX = "erm-usage-harvester-";
+  private static final String TEMP_FILE_SUFFIX = ".spool";
+
+  private final Vertx vertx;
+  private final long threshold;
+  private final Promise<SpooledBody> result = Promise.promise();
+  private Buffer buffer = Buffer.buffer();
+  private long size = 0;
+  private String path;
+  private AsyncFile file;
+  private Future<AsyncFile> fileFuture;
+  private Handler<Throwable> exceptionHandler;
+  private Handler<Void> drainHandler;
+  private int maxQueueSize = 0;
+  private boolean discarded = false;
+
+  public SpoolingWriteStream(Vertx vertx) {
+    this(vertx, getConfiguredThreshold());
+  }
+
+  public SpoolingWriteStream(Vertx vertx, long threshold) {
+    this.vertx = vertx;
+    this.threshold = threshold;
+  }
+
+  public static long getConfiguredThreshold() {
+    return Optional.ofNullable(System.getenv(THRESHOLD_ENV_VAR))
+        .map(Long::parseLong)
+        .orElse(DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Returns a future that completes with the {@link SpooledBody} after the stream was ended.
+   *
+   * @return the body written to this stream
+   */
+  public Future<SpooledBody> result() {
+    return result.future();
+  }
+
+  /**
+   * Discards any data written to this stream, closing and deleting the temporary file if the data
+   * was already spooled.
+   *
+   * @return a future that completes when the data was discarded
+   */
+  public Future<Void> discard() {
+    discarded = true;
+    buffer = null;
+    result.tryFail("Response body discarded");
+    if (fileFuture == null) {
+      return Future.succeededFuture();
+    }
+    return fileFuture
+        .compose(AsyncFile::close)
+        .transform(ar -> vertx.fileSystem().delete(path))
+        .recover(t -> Future.succeededFuture());
+  }
+
+  @Override
+  public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+    this.exceptionHandler = handler;
+    return this;
+  }
+
+  @Override
+  public Future<Void> write(Buffer data) {
+    if (discarded) {
+      return Future.failedFuture("Response body discarded");
+    }
+    size += data.length();
+    if (file != null) {
+      return file.write(data);
+    }
+    if (fileFuture != null) {
+      return fileFuture.compose(f -> f.write(data));
+    }
+    buffer.appendBuffer(data);
+    if (size > threshold) {
+      return spool();
+    }
+    return Future.succeededFuture();
+  }
+
+  @Override
+  public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    write(data).onComplete(handler);
+  }
+
+  @Override
+  public Future<Void> end() {
+    if (discarded) {
+      return Future.failedFuture("Response body discarded");
+    }
+    Future<SpooledBody> body;
+    if (fileFuture == null) {
+      body = Future.succeededFuture(SpooledBody.ofBuffer(buffer));
+    } else {
+      body = fileFuture.compose(AsyncFile::close).map(v -> SpooledBody.ofFile(path, size));
+    }
+    body.onComplete(result);
+    return body.mapEmpty();
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    end().onComplete(handler);
+  }
+
+  @Override
+  public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+    this.maxQueueSize = maxSize;
+    if (file != null) {
+      file.setWriteQueueMaxSize(maxSize);
+    }
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    if (file != null) {
+      return file.writeQueueFull();
+    }
+    return fileFuture != null;
+  }
+
+  @Override
+  public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+    this.drainHandler = handler;
+    if (file != null) {
+      file.drainHandler(handler);
+    }
+    return this;
+  }
+
+  private Future<Void> spool() {
+    Buffer spooled = buffer;
+    buffer = null;
+    fileFuture =
+        vertx
+            .fileSystem()
+            .createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX)
+            .compose(
+                p -> {
+                  path = p;
+                  return vertx.fileSystem().open(p, new OpenOptions().setWrite(true));
+                })
+            .compose(f -> f.write(spooled).map(f))
+            .onSuccess(this::fileOpened)
+            .onFailure(this::handleException);
+    return fileFuture.mapEmpty();
+  }
+
+  private void fileOpened(AsyncFile f) {
+    file = f;
+    if (maxQueueSize > 0) {
+      file.setWriteQueueMaxSize(maxQueueSize);
+    }
+    file.exceptionHandler(this::handleException);
+    if (drainHandler != null) {
+      file.drainHandler(drainHandler);
+      drainHandler.handle(null);
+    }
+  }
+
+  private void handleException(Throwable t) {
+    result.tryFail(t);
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(t);
+    }
+  }
+}
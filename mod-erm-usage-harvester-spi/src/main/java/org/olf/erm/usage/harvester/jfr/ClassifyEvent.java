@@ -0,0 +1,24 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ClassifyEvent.NAME)
+@Label("Response Classification")
+@Description("Deserializing a SUSHI response and classifying it as report or error")
+public class ClassifyEvent extends HarvestEvent {
+
+  public static final String NAME = "org.olf.erm.usage.harvester.Classify";
+
+  @Label("Status Code")
+  private int statusCode;
+
+  public ClassifyEvent(String providerId, String reportType) {
+    super(providerId, reportType, null, null);
+  }
+
+  public void setStatusCode(int statusCode) {
+    this.statusCode = statusCode;
+  }
+}
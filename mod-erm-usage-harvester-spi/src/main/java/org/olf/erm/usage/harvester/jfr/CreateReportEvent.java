@@ -0,0 +1,17 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(CreateReportEvent.NAME)
+@Label("CounterReport Creation")
+@Description("Creating the CounterReport of a month from its report data")
+public class CreateReportEvent extends HarvestEvent {
+
+  public static final String NAME = "org.olf.erm.usage.harvester.CreateReport";
+
+  public CreateReportEvent(String providerId, String reportType, String yearMonth) {
+    super(providerId, reportType, yearMonth, yearMonth);
+  }
+}
@@ -0,0 +1,25 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(FetchEvent.NAME)
+@Label("Report Fetch")
+@Description("Fetching a report from a provider through its ServiceEndpoint")
+public class FetchEvent extends HarvestEvent {
+
+  public static final String NAME = "org.olf.erm.usage.harvester.Fetch";
+
+  @Label("Reports")
+  @Description("Number of monthly reports returned")
+  private int reports;
+
+  public FetchEvent(String providerId, String reportType, String beginDate, String endDate) {
+    super(providerId, reportType, beginDate, endDate);
+  }
+
+  public void setReports(int reports) {
+    this.reports = reports;
+  }
+}
@@ -0,0 +1,76 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the JDK Flight Recorder events of the harvester, describing a report and the
+ * phase of its processing that the event measures.
+ *
+ * <p>If no tenant is set explicitly, it is taken from the {@value #CONTEXT_TENANT} entry of the
+ * current Vert.x context, which the WorkerVerticle of a provider harvest sets on its context.
+ */
+@Category({"FOLIO", "ERM Usage Harvester"})
+@StackTrace(false)
+public abstract class HarvestEvent extends Event {
+
+  public static final String CONTEXT_TENANT = "erm-usage-harvester.tenantId";
+
+  @Label("Tenant")
+  private String tenant;
+
+  @Label("Provider Id")
+  private String providerId;
+
+  @Label("Report Type")
+  private String reportType;
+
+  @Label("Begin Date")
+  private String beginDate;
+
+  @Label("End Date")
+  private String endDate;
+
+  @Label("Size")
+  @Description("Size of the processed data in bytes, 0 if unknown")
+  @DataAmount
+  private long bytes;
+
+  @Label("Result")
+  @Description("\"success\" or the simple class name of the failure")
+  private String result;
+
+  protected HarvestEvent() {}
+
+  protected HarvestEvent(String providerId, String reportType, String beginDate, String endDate) {
+    this.providerId = providerId;
+    this.reportType = reportType;
+    this.beginDate = beginDate;
+    this.endDate = endDate;
+    this.tenant = getContextTenant();
+  }
+
+  private static String getContextTenant() {
+    Context context = Vertx.currentContext();
+    return (context == null) ? null : context.get(CONTEXT_TENANT);
+  }
+
+  public void setTenant(String tenant) {
+    this.tenant = tenant;
+  }
+
+  public void setBytes(long bytes) {
+    this.bytes = bytes;
+  }
+
+  /** Sets the result to "success" if {@code failure} is null, or to its simple class name. */
+  public void setResult(Throwable failure) {
+    this.result = (failure == null) ? "success" : failure.getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,25 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(SplitEvent.NAME)
+@Label("Report Split")
+@Description("Splitting a report into monthly reports")
+public class SplitEvent extends HarvestEvent {
+
+  public static final String NAME = "org.olf.erm.usage.harvester.Split";
+
+  @Label("Reports")
+  @Description("Number of monthly reports")
+  private int reports;
+
+  public SplitEvent(String providerId, String reportType) {
+    super(providerId, reportType, null, null);
+  }
+
+  public void setReports(int reports) {
+    this.reports = reports;
+  }
+}
@@ -0,0 +1,25 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(UploadEvent.NAME)
+@Label("Report Upload")
+@Description("Uploading a CounterReport to mod-erm-usage")
+public class UploadEvent extends HarvestEvent {
+
+  public static final String NAME = "org.olf.erm.usage.harvester.Upload";
+
+  @Label("Status Code")
+  @Description("Status code of the response, 0 if no response was received")
+  private int statusCode;
+
+  public UploadEvent(String providerId, String reportType, String yearMonth) {
+    super(providerId, reportType, yearMonth, yearMonth);
+  }
+
+  public void setStatusCode(int statusCode) {
+    this.statusCode = statusCode;
+  }
+}
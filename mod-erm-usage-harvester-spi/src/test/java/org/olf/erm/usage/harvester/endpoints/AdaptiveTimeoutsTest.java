@@ -0,0 +1,177 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts.DEFAULT_TIMEOUTS;
+import static org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts.MAX_IDLE_TIMEOUT;
+import static org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts.MAX_TOTAL_TIMEOUT;
+import static org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts.MIN_IDLE_TIMEOUT;
+import static org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts.MIN_SAMPLES;
+import static org.olf.erm.usage.harvester.endpoints.AdaptiveTimeouts.MIN_TOTAL_TIMEOUT;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class AdaptiveTimeoutsTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+  private static final String URL = "https://sushi.example.com/counter/r5";
+  private static final String PROVIDER_ID = "35f68a61-b12c-4f14-a3b7-8518a0ef42fa";
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @After
+  public void tearDown() {
+    AdaptiveTimeouts.clear();
+  }
+
+  private static void recordSamples(String reportType, int count, long latency, long size) {
+    for (int i = 0; i < count; i++) {
+      AdaptiveTimeouts.record(URL, reportType, latency, size);
+    }
+  }
+
+  @Test
+  public void testDefaultsWithoutEnoughSamples() {
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR")).isSameAs(DEFAULT_TIMEOUTS);
+    recordSamples("PR", MIN_SAMPLES - 1, 1000, 1000);
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR")).isSameAs(DEFAULT_TIMEOUTS);
+  }
+
+  @Test
+  public void testFastReport() {
+    recordSamples("PR", 10, 500, 10_000);
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR");
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(MIN_IDLE_TIMEOUT);
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(MIN_TOTAL_TIMEOUT);
+  }
+
+  @Test
+  public void testSlowReport() {
+    // 100 MB at 1 MB/s
+    recordSamples("IR", 19, 100_000, 100_000_000);
+    // 25 MB at 250 KB/s
+    recordSamples("IR", 1, 100_000, 25_000_000);
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "IR");
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(200_000);
+    // 100 MB at 250 KB/s take 400 seconds
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(800_000);
+
+    // other report types and hosts are not affected
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR")).isSameAs(DEFAULT_TIMEOUTS);
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, "https://other.example.com", "IR"))
+        .isSameAs(DEFAULT_TIMEOUTS);
+  }
+
+  @Test
+  public void testVerySlowReportWithUnknownSize() {
+    recordSamples("TR", 10, 1_000_000, -1);
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "TR");
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(MAX_IDLE_TIMEOUT);
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(MAX_TOTAL_TIMEOUT);
+  }
+
+  @Test
+  public void testIdleTimeoutIsWidenedAfterTimeout() {
+    AdaptiveTimeouts.recordTimeout(URL, "TR", DEFAULT_TIMEOUTS, 60_000);
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "TR");
+    assertThat(timeouts.getConnectTimeout()).isEqualTo(DEFAULT_TIMEOUTS.getConnectTimeout());
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(120_000);
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(DEFAULT_TIMEOUTS.getTotalTimeout());
+
+    AdaptiveTimeouts.recordTimeout(URL, "TR", timeouts, 120_000);
+    timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "TR");
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(240_000);
+
+    AdaptiveTimeouts.recordTimeout(URL, "TR", timeouts, 240_000);
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "TR").getIdleTimeout())
+        .isEqualTo(MAX_IDLE_TIMEOUT);
+  }
+
+  @Test
+  public void testTotalTimeoutIsWidenedAfterTimeout() {
+    recordSamples("PR", 20, 500, 10_000);
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR");
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(MIN_TOTAL_TIMEOUT);
+
+    AdaptiveTimeouts.recordTimeout(URL, "PR", timeouts, MIN_TOTAL_TIMEOUT);
+    timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR");
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(MIN_IDLE_TIMEOUT);
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(2 * MIN_TOTAL_TIMEOUT);
+  }
+
+  @Test
+  public void testTimeoutIsForgottenAfterMaxSamples() {
+    AdaptiveTimeouts.recordTimeout(URL, "PR", DEFAULT_TIMEOUTS, 60_000);
+    recordSamples("PR", AdaptiveTimeouts.MAX_SAMPLES, 500, 10_000);
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "PR").getIdleTimeout())
+        .isEqualTo(MIN_IDLE_TIMEOUT);
+  }
+
+  @Test
+  public void testIsTimeout() {
+    assertThat(AdaptiveTimeouts.isTimeout(new TimeoutException())).isTrue();
+    assertThat(
+            AdaptiveTimeouts.isTimeout(
+                new RuntimeException("error", new SocketTimeoutException("Read timed out"))))
+        .isTrue();
+    assertThat(AdaptiveTimeouts.isTimeout(new RuntimeException("error"))).isFalse();
+  }
+
+  @Test
+  public void testOverride() {
+    AdaptiveTimeouts.setOverride(
+        PROVIDER_ID, new JsonObject().put(RequestTimeouts.TOTAL_TIMEOUT, 3_600_000));
+    RequestTimeouts timeouts = AdaptiveTimeouts.get(PROVIDER_ID, URL, "IR");
+    assertThat(timeouts.getConnectTimeout()).isEqualTo(DEFAULT_TIMEOUTS.getConnectTimeout());
+    assertThat(timeouts.getIdleTimeout()).isEqualTo(DEFAULT_TIMEOUTS.getIdleTimeout());
+    assertThat(timeouts.getTotalTimeout()).isEqualTo(3_600_000);
+
+    assertThat(AdaptiveTimeouts.get("otherProvider", URL, "IR")).isSameAs(DEFAULT_TIMEOUTS);
+
+    AdaptiveTimeouts.setOverride(PROVIDER_ID, null);
+    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "IR")).isSameAs(DEFAULT_TIMEOUTS);
+  }
+
+  @Test
+  public void testWithTotalTimeout(TestContext context) {
+    Promise<String> never = Promise.promise();
+    AdaptiveTimeouts.withTotalTimeout(vertx, never.future(), 100)
+        .onComplete(
+            context.asyncAssertFailure(t -> assertThat(t).isInstanceOf(TimeoutException.class)));
+  }
+
+  @Test
+  public void testWithTotalTimeoutCompleted(TestContext context) {
+    Promise<String> promise = Promise.promise();
+    AdaptiveTimeouts.withTotalTimeout(vertx, promise.future(), 1000)
+        .onComplete(context.asyncAssertSuccess(s -> assertThat(s).isEqualTo("done")));
+    promise.complete("done");
+  }
+
+  @Test
+  public void testWithTotalTimeoutRecordsTimeout(TestContext context) {
+    recordSamples("DR", MIN_SAMPLES - 1, 500, 10_000);
+    Promise<String> never = Promise.promise();
+    RequestTimeouts timeouts = new RequestTimeouts(10_000, 60_000, 100);
+    AdaptiveTimeouts.withTotalTimeout(vertx, never.future(), timeouts, URL, "DR")
+        .onComplete(
+            context.asyncAssertFailure(
+                t ->
+                    // the timeout is the missing sample
+                    assertThat(AdaptiveTimeouts.get(PROVIDER_ID, URL, "DR").getTotalTimeout())
+                        .isEqualTo(MIN_TOTAL_TIMEOUT)));
+  }
+}
@@ -0,0 +1,91 @@
+package org.olf.erm.usage.harvester.endpoints;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(VertxUnitRunner.class)
+public class SpoolingWriteStreamTest {
+
+  @Rule public RunTestOnContext ctx = new RunTestOnContext();
+
+  private static final String CONTENT = "0123456789";
+
+  private void writeContent(SpoolingWriteStream stream, int times) {
+    for (int i = 0; i < times; i++) {
+      stream.write(Buffer.buffer(CONTENT));
+    }
+    stream.end();
+  }
+
+  private String readAll(SpooledBody body) {
+    try (InputStream is = body.openStream()) {
+      return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Test
+  public void testBelowThreshold(TestContext context) {
+    Vertx vertx = ctx.vertx();
+    SpoolingWriteStream stream = new SpoolingWriteStream(vertx, 100);
+    writeContent(stream, 5);
+    stream
+        .result()
+        .onComplete(
+            context.asyncAssertSuccess(
+                body ->
+                    context.verify(
+                        v -> {
+                          assertThat(body.isSpooled()).isFalse();
+                          assertThat(body.size()).isEqualTo(50);
+                          assertThat(readAll(body)).isEqualTo(CONTENT.repeat(5));
+                          assertThat(body.head(4)).isEqualTo("0123");
+                        })));
+  }
+
+  @Test
+  public void testAboveThreshold(TestContext context) {
+    Vertx vertx = ctx.vertx();
+    SpoolingWriteStream stream = new SpoolingWriteStream(vertx, 100);
+    writeContent(stream, 50);
+    stream
+        .result()
+        .compose(
+            body -> {
+              context.verify(
+                  v -> {
+                    assertThat(body.isSpooled()).isTrue();
+                    assertThat(body.size()).isEqualTo(500);
+                    assertThat(readAll(body)).isEqualTo(CONTENT.repeat(50));
+                    assertThat(body.head(4)).isEqualTo("0123");
+                  });
+              return body.delete(vertx);
+            })
+        .onComplete(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testDiscard(TestContext context) {
+    Vertx vertx = ctx.vertx();
+    SpoolingWriteStream stream = new SpoolingWriteStream(vertx, 100);
+    stream.write(Buffer.buffer(CONTENT.repeat(20)));
+    stream
+        .discard()
+        .onComplete(
+            context.asyncAssertSuccess(
+                v -> stream.result().onComplete(context.asyncAssertFailure())));
+  }
+}
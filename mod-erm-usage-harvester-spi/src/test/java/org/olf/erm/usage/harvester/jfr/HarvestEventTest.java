@@ -0,0 +1,74 @@
+package org.olf.erm.usage.harvester.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.folio.rest.jaxrs.model.HarvestingConfig;
+import org.folio.rest.jaxrs.model.UsageDataProvider;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.olf.erm.usage.harvester.endpoints.ServiceEndpoint;
+
+@RunWith(VertxUnitRunner.class)
+public class HarvestEventTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+  private static final UsageDataProvider provider =
+      new UsageDataProvider()
+          .withId("provider1")
+          .withHarvestingConfig(new HarvestingConfig().withReportRelease(5));
+
+  @AfterClass
+  public static void afterClass(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void testCreateReportEvent(TestContext context) throws Exception {
+    Path file = Files.createTempFile("harvester", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(CreateReportEvent.class).withoutThreshold();
+      recording.start();
+
+      Context vertxContext = vertx.getOrCreateContext();
+      vertxContext.put(HarvestEvent.CONTEXT_TENANT, "diku");
+      Async async = context.async();
+      vertxContext.runOnContext(
+          v -> {
+            ServiceEndpoint.createCounterReport("{}", "TR", provider, YearMonth.of(2023, 2));
+            async.complete();
+          });
+      async.await();
+
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      assertThat(events)
+          .filteredOn(e -> e.getEventType().getName().equals(CreateReportEvent.NAME))
+          .singleElement()
+          .satisfies(
+              e -> {
+                assertThat(e.getString("tenant")).isEqualTo("diku");
+                assertThat(e.getString("providerId")).isEqualTo("provider1");
+                assertThat(e.getString("reportType")).isEqualTo("TR");
+                assertThat(e.getString("beginDate")).isEqualTo("2023-02");
+                assertThat(e.getLong("bytes")).isEqualTo(2);
+                assertThat(e.getString("result")).isEqualTo("success");
+              });
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}